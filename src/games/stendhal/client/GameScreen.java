@@ -172,6 +172,13 @@ public final class GameScreen extends JComponent implements IGameScreen, DropTar
 	 */
 	private VolatileImage buffer;
 
+	/** Frames drawn since the last rendering statistics report */
+	private int statFrames;
+	/** Time spent in renderScene() since the last report, in nanoseconds */
+	private long statRenderTime;
+	/** Time of the last rendering statistics report in milliseconds */
+	private long lastStatReport;
+
 	static {
 		offlineIcon = SpriteStore.get().getSprite("data/gui/offline.png");
 	}
@@ -560,6 +567,7 @@ public final class GameScreen extends JComponent implements IGameScreen, DropTar
 		int xAdjust = -GameScreenSpriteHelper.getScreenViewX();
 		int yAdjust = -GameScreenSpriteHelper.getScreenViewY();
 
+		final long renderStart = System.nanoTime();
 		if (useTripleBuffer) {
 			/*
 			 * Do the scaling in one pass to avoid artifacts at tile borders.
@@ -586,6 +594,9 @@ public final class GameScreen extends JComponent implements IGameScreen, DropTar
 		} else {
 			renderScene(graphics, xAdjust, yAdjust, fullRedraw);
 		}
+		if (logger.isDebugEnabled()) {
+			reportRenderStatistics(System.nanoTime() - renderStart);
+		}
 
 		// Don't scale text to keep it readable
 		drawText(g2d);
@@ -599,6 +610,27 @@ public final class GameScreen extends JComponent implements IGameScreen, DropTar
 		graphics.dispose();
 	}
 
+	/**
+	 * Log the average map draw calls and scene rendering time per frame
+	 * about once a second.
+	 *
+	 * @param renderTime time used for rendering the current frame in
+	 * 	nanoseconds
+	 */
+	private void reportRenderStatistics(long renderTime) {
+		statFrames++;
+		statRenderTime += renderTime;
+		long now = System.currentTimeMillis();
+		if (now - lastStatReport >= 1000L) {
+			int drawCalls = MapChunkCache.get().getAndResetDrawCalls();
+			logger.debug("Map draw calls per frame: " + (drawCalls / statFrames)
+					+ ", scene render time: " + (statRenderTime / statFrames / 1000) + " us");
+			statFrames = 0;
+			statRenderTime = 0;
+			lastStatReport = now;
+		}
+	}
+
 	/**
 	 * Render the scalable parts of the screen.
 	 *
@@ -0,0 +1,268 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.client;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Transparency;
+import java.awt.image.VolatileImage;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import games.stendhal.client.sprite.EmptySprite;
+import games.stendhal.client.sprite.Sprite;
+
+/**
+ * Pre-rendered blocks of static map tiles.
+ * <p>
+ * Drawing a map layer tile by tile costs one image operation per tile and
+ * frame. Instead, the constant tiles of a square block of the layer are drawn
+ * once into an image, and only that image and the animated tiles of the
+ * block are drawn on each frame. The images are kept in video memory, and
+ * the least recently drawn ones are released when there are more than
+ * {@value #MAX_CHUNKS} of them.
+ */
+final class MapChunkCache {
+	/** width and height of a chunk in tiles */
+	static final int CHUNK_TILES = 8;
+
+	/** maximum number of chunk images */
+	private static final int MAX_CHUNKS = 256;
+
+	private static final MapChunkCache instance = new MapChunkCache();
+
+	/** chunks with an image, least recently drawn first */
+	private final LinkedHashMap<Chunk, Boolean> chunks = new LinkedHashMap<Chunk, Boolean>(MAX_CHUNKS, 0.75f, true);
+
+	/** number of image operations since the last call of getAndResetDrawCalls() */
+	private final AtomicInteger drawCalls = new AtomicInteger();
+
+	/**
+	 * Get the cache instance.
+	 *
+	 * @return cache
+	 */
+	static MapChunkCache get() {
+		return instance;
+	}
+
+	private MapChunkCache() {
+		// singleton
+	}
+
+	/**
+	 * Get the number of image drawing operations of the map layers, and start
+	 * counting again.
+	 *
+	 * @return number of draw calls
+	 */
+	int getAndResetDrawCalls() {
+		return drawCalls.getAndSet(0);
+	}
+
+	/**
+	 * Count image drawing operations.
+	 *
+	 * @param calls number of draw calls
+	 */
+	void countDrawCalls(final int calls) {
+		drawCalls.addAndGet(calls);
+	}
+
+	/**
+	 * Mark a chunk as recently drawn, and release the images of the least
+	 * recently drawn chunks if there are too many.
+	 *
+	 * @param chunk drawn chunk
+	 */
+	private void touch(final Chunk chunk) {
+		List<Chunk> evicted = null;
+		synchronized (this) {
+			chunks.put(chunk, Boolean.TRUE);
+			final Iterator<Chunk> it = chunks.keySet().iterator();
+			while (chunks.size() > MAX_CHUNKS) {
+				if (evicted == null) {
+					evicted = new ArrayList<Chunk>();
+				}
+				evicted.add(it.next());
+				it.remove();
+			}
+		}
+		if (evicted != null) {
+			for (final Chunk old : evicted) {
+				old.releaseImage();
+			}
+		}
+	}
+
+	/**
+	 * Release the images of all chunks. Called when the zone changes.
+	 */
+	void clear() {
+		final List<Chunk> old;
+		synchronized (this) {
+			old = new ArrayList<Chunk>(chunks.keySet());
+			chunks.clear();
+		}
+		for (final Chunk chunk : old) {
+			chunk.releaseImage();
+		}
+	}
+
+	/**
+	 * A square block of a tile layer.
+	 */
+	static final class Chunk {
+		/** tile sprites of the layer */
+		private final Sprite[] spriteMap;
+
+		/** width of the layer in tiles */
+		private final int layerWidth;
+
+		/** position and size of the chunk in tiles */
+		private final int x, y, width, height;
+
+		/** layer indices of the tiles that have to be drawn on every frame */
+		private final int[] animated;
+
+		/** <code>true</code> if there is anything to draw to the image */
+		private final boolean hasStaticTiles;
+
+		private VolatileImage image;
+
+		/**
+		 * Create a new chunk.
+		 *
+		 * @param spriteMap tile sprites of the layer
+		 * @param layerWidth width of the layer in tiles
+		 * @param x x coordinate in tiles
+		 * @param y y coordinate in tiles
+		 * @param width width in tiles
+		 * @param height height in tiles
+		 */
+		Chunk(final Sprite[] spriteMap, final int layerWidth, final int x, final int y,
+				final int width, final int height) {
+			this.spriteMap = spriteMap;
+			this.layerWidth = layerWidth;
+			this.x = x;
+			this.y = y;
+			this.width = width;
+			this.height = height;
+
+			int[] indices = new int[width * height];
+			int count = 0;
+			boolean staticTiles = false;
+			for (int j = y; j < y + height; j++) {
+				for (int i = x; i < x + width; i++) {
+					final int index = j * layerWidth + i;
+					final Sprite sprite = spriteMap[index];
+					if (!sprite.isConstant()) {
+						indices[count] = index;
+						count++;
+					} else if (!(sprite instanceof EmptySprite)) {
+						staticTiles = true;
+					}
+				}
+			}
+			final int[] tmp = new int[count];
+			System.arraycopy(indices, 0, tmp, 0, count);
+			animated = tmp;
+			hasStaticTiles = staticTiles;
+		}
+
+		/**
+		 * Draw the chunk.
+		 *
+		 * @param g graphics
+		 */
+		void draw(final Graphics g) {
+			if (hasStaticTiles) {
+				drawImage((Graphics2D) g);
+				instance.touch(this);
+			}
+
+			for (final int index : animated) {
+				spriteMap[index].draw(g, (index % layerWidth) * IGameScreen.SIZE_UNIT_PIXELS,
+						(index / layerWidth) * IGameScreen.SIZE_UNIT_PIXELS);
+			}
+			instance.countDrawCalls(animated.length);
+		}
+
+		/**
+		 * Draw the image of the static tiles, creating or restoring it first
+		 * if needed.
+		 *
+		 * @param g graphics
+		 */
+		private synchronized void drawImage(final Graphics2D g) {
+			final GraphicsConfiguration gc = g.getDeviceConfiguration();
+			final int sx = x * IGameScreen.SIZE_UNIT_PIXELS;
+			final int sy = y * IGameScreen.SIZE_UNIT_PIXELS;
+			do {
+				int status = VolatileImage.IMAGE_INCOMPATIBLE;
+				if (image != null) {
+					status = image.validate(gc);
+				}
+				if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+					releaseImage();
+					image = gc.createCompatibleVolatileImage(width * IGameScreen.SIZE_UNIT_PIXELS,
+							height * IGameScreen.SIZE_UNIT_PIXELS, Transparency.TRANSLUCENT);
+					render();
+				} else if (status == VolatileImage.IMAGE_RESTORED) {
+					render();
+				}
+				g.drawImage(image, sx, sy, null);
+			} while (image.contentsLost());
+			instance.countDrawCalls(1);
+		}
+
+		/**
+		 * Draw the static tiles to the image.
+		 */
+		private void render() {
+			final Graphics2D g = image.createGraphics();
+			g.setComposite(AlphaComposite.Clear);
+			g.fillRect(0, 0, image.getWidth(), image.getHeight());
+			g.setComposite(AlphaComposite.SrcOver);
+			int py = 0;
+			for (int j = y; j < y + height; j++) {
+				int index = j * layerWidth + x;
+				int px = 0;
+				for (int i = x; i < x + width; i++) {
+					final Sprite sprite = spriteMap[index];
+					if (sprite.isConstant()) {
+						sprite.draw(g, px, py);
+					}
+					index++;
+					px += IGameScreen.SIZE_UNIT_PIXELS;
+				}
+				py += IGameScreen.SIZE_UNIT_PIXELS;
+			}
+			g.dispose();
+		}
+
+		/**
+		 * Release the image, so that the video memory can be reused.
+		 */
+		private synchronized void releaseImage() {
+			if (image != null) {
+				image.flush();
+				image = null;
+			}
+		}
+	}
+}
@@ -67,6 +67,10 @@ public class StaticGameLayers {
 	 * @param zone
 	 */
 	public void setZone(Zone zone) {
+		if (zone != currentZone) {
+			// The map images of the previous zone are not needed anymore
+			MapChunkCache.get().clear();
+		}
 		currentZone = zone;
 		if (!zone.getName().equals(area)) {
 			setAreaName(zone.getName());
@@ -13,6 +13,7 @@
 package games.stendhal.client;
 
 import java.awt.Graphics;
+import java.awt.Graphics2D;
 import java.io.IOException;
 import java.io.InputStream;
 
@@ -35,6 +36,10 @@ class TileRenderer extends LayerRenderer {
 	protected int[] map;
 	/** The map data converted to tile references */
 	protected Sprite[] spriteMap;
+	/** Pre-rendered blocks of the map, created when first drawn */
+	private MapChunkCache.Chunk[] chunks;
+	/** Width of the layer in chunks */
+	private int chunksWide;
 
 	public TileRenderer() {
 		map = null;
@@ -68,6 +73,7 @@ class TileRenderer extends LayerRenderer {
 	@Override
 	public void setTileset(final Tileset tileset) {
 		this.tileset = tileset;
+		chunks = null;
 	}
 
 	/**
@@ -104,6 +110,12 @@ class TileRenderer extends LayerRenderer {
 		final int endX = Math.min(x + w, getWidth());
 		final int endY= Math.min(y + h, getHeight());
 
+		if (g instanceof Graphics2D) {
+			drawChunks(g, x, y, endX, endY);
+			return;
+		}
+
+		MapChunkCache.get().countDrawCalls(Math.max(0, endX - x) * Math.max(0, endY - y));
 		int sy = y * IGameScreen.SIZE_UNIT_PIXELS;
 		for (int j = y; j < endY; j++) {
 			int mapidx = (j * width) + x;
@@ -117,4 +129,42 @@ class TileRenderer extends LayerRenderer {
 			sy += IGameScreen.SIZE_UNIT_PIXELS;
 		}
 	}
+
+	/**
+	 * Draw the area using the pre-rendered chunks that overlap it.
+	 *
+	 * @param g graphics
+	 * @param x left x coordinate in tiles
+	 * @param y top y coordinate in tiles
+	 * @param endX right x coordinate in tiles, exclusive
+	 * @param endY bottom y coordinate in tiles, exclusive
+	 */
+	private void drawChunks(Graphics g, int x, int y, int endX, int endY) {
+		// Local copy, as setTileset() can be called from another thread
+		MapChunkCache.Chunk[] chunks = this.chunks;
+		if (chunks == null) {
+			chunksWide = (width + MapChunkCache.CHUNK_TILES - 1) / MapChunkCache.CHUNK_TILES;
+			int chunksHigh = (height + MapChunkCache.CHUNK_TILES - 1) / MapChunkCache.CHUNK_TILES;
+			chunks = new MapChunkCache.Chunk[chunksWide * chunksHigh];
+			this.chunks = chunks;
+		}
+
+		int startX = Math.max(0, x) / MapChunkCache.CHUNK_TILES;
+		int startY = Math.max(0, y) / MapChunkCache.CHUNK_TILES;
+		for (int cy = startY; cy * MapChunkCache.CHUNK_TILES < endY; cy++) {
+			for (int cx = startX; cx * MapChunkCache.CHUNK_TILES < endX; cx++) {
+				int index = cy * chunksWide + cx;
+				MapChunkCache.Chunk chunk = chunks[index];
+				if (chunk == null) {
+					int tileX = cx * MapChunkCache.CHUNK_TILES;
+					int tileY = cy * MapChunkCache.CHUNK_TILES;
+					chunk = new MapChunkCache.Chunk(spriteMap, width, tileX, tileY,
+							Math.min(MapChunkCache.CHUNK_TILES, width - tileX),
+							Math.min(MapChunkCache.CHUNK_TILES, height - tileY));
+					chunks[index] = chunk;
+				}
+				chunk.draw(g);
+			}
+		}
+	}
 }
@@ -0,0 +1,28 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.client.events;
+
+import games.stendhal.client.World;
+import games.stendhal.client.entity.Entity;
+
+/**
+ * The players that were online when the user logged in.
+ */
+class PlayersOnlineEvent extends Event<Entity> {
+
+	@Override
+	public void execute() {
+		for (final String playerName : event.getList("names")) {
+			World.get().addPlayerLoggingOn(playerName);
+		}
+	}
+}
@@ -1,6 +1,6 @@
 /* $Id$ */
 /***************************************************************************
- *                   (C) Copyright 2003-2024 - Stendhal                    *
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
  ***************************************************************************
  ***************************************************************************
  *                                                                         *
@@ -15,19 +15,46 @@ package games.stendhal.common;
 
 
 import java.awt.geom.Rectangle2D;
-import java.util.BitSet;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import games.stendhal.common.tiled.LayerDefinition;
 
 
 /**
  * A map containing collision information.
+ * <p>
+ * The nodes are stored row by row in a bitmap of <code>long</code> words, so
+ * that a rectangle can be tested with a few word masks. For small footprints
+ * the result of {@link #collides(int, int, int, int)} is additionally
+ * precomputed for every position on first use, so that the common checks
+ * of entities with a size of up to {@value #MAX_FOOTPRINT} nodes are a single
+ * bit test.
  */
 public class CollisionMap {
 
+	/** Maximum width and height of footprints with a precomputed table. */
+	static final int MAX_FOOTPRINT = 4;
+
 	private final int width;
 	private final int height;
-	private final BitSet[] colls;
+	/** number of words in a row */
+	private final int rowWords;
+	/** collision bits, row by row */
+	private final long[] bits;
+
+	/**
+	 * Footprint tables by <code>(width - 1) * MAX_FOOTPRINT + height - 1</code>.
+	 * A set bit means that the footprint collides at that position. The
+	 * tables are dropped when the map changes.
+	 */
+	private final AtomicReferenceArray<long[]> footprints = new AtomicReferenceArray<long[]>(MAX_FOOTPRINT * MAX_FOOTPRINT);
+
+	/** are there any footprint tables to drop on changes? */
+	private volatile boolean hasFootprints;
+
+	/** number of changes, to detect changes while a table is built */
+	private volatile int modifications;
 
 	/**
 	 * Creates a new empty collision map.
@@ -40,11 +67,8 @@ public class CollisionMap {
 	public CollisionMap(final int width, final int height) {
 		this.width = width;
 		this.height = height;
-		colls = new BitSet[width];
-		for (int i = 0; i < width; i++) {
-			colls[i] = new BitSet();
-		}
-
+		rowWords = (width + 63) >>> 6;
+		bits = new long[rowWords * height];
 	}
 
 	/**
@@ -89,7 +113,8 @@ public class CollisionMap {
 	 *   {@code true} if node has collision.
 	 */
 	public boolean get(final int i, final int j) {
-		return colls[i].get(j);
+		checkIndex(i, j);
+		return (bits[j * rowWords + (i >>> 6)] & (1L << i)) != 0;
 	}
 
 	/**
@@ -101,7 +126,9 @@ public class CollisionMap {
 	 *   Node Y coordinate.
 	 */
 	public void set(final int i, final int j) {
-		colls[i].set(j);
+		checkIndex(i, j);
+		bits[j * rowWords + (i >>> 6)] |= 1L << i;
+		dropFootprints();
 	}
 
 	/**
@@ -112,8 +139,11 @@ public class CollisionMap {
 	 */
 	public void set(final Rectangle2D shape) {
 		int y = (int) shape.getY();
+		final int endY = Math.min(height, (int) (y + shape.getHeight()));
 		for (int x = (int) shape.getX(); x < shape.getX() + shape.getWidth(); x++) {
-			colls[x].set(y, (int) (y + shape.getHeight()));
+			for (int j = y; j < endY; j++) {
+				set(x, j);
+			}
 		}
 	}
 
@@ -126,16 +156,17 @@ public class CollisionMap {
 	 *   Node Y coordinate.
 	 */
 	public void unset(final int i, final int k) {
-		colls[i].clear(k);
+		checkIndex(i, k);
+		bits[k * rowWords + (i >>> 6)] &= ~(1L << i);
+		dropFootprints();
 	}
 
 	/**
 	 * Removes all collision from the map.
 	 */
 	public void clear() {
-		for (int i = 0; i < this.width; i++) {
-			colls[i].clear();
-		}
+		Arrays.fill(bits, 0L);
+		dropFootprints();
 	}
 
 	/**
@@ -161,12 +192,114 @@ public class CollisionMap {
 			return true;
 		}
 
-		final BitSet result = new BitSet();
-		for (int i = x; i < x + width; i++) {
-			result.or(colls[i]);
+		if ((width >= 1) && (width <= MAX_FOOTPRINT) && (height >= 1) && (height <= MAX_FOOTPRINT)) {
+			final long[] table = getFootprint(width, height);
+			return (table[y * rowWords + (x >>> 6)] & (1L << x)) != 0;
+		}
+
+		for (int j = y; j < y + height; j++) {
+			if (rowCollides(j, x, width)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Checks a part of a row for collisions.
+	 *
+	 * @param y row
+	 * @param x first node
+	 * @param width number of nodes
+	 * @return {@code true} if any of the nodes has collision
+	 */
+	private boolean rowCollides(final int y, final int x, final int width) {
+		final int offset = y * rowWords;
+		int pos = x;
+		final int end = x + width;
+		while (pos < end) {
+			final int word = pos >>> 6;
+			final int bit = pos & 63;
+			final int count = Math.min(64 - bit, end - pos);
+			final long mask = (count == 64) ? -1L : (((1L << count) - 1) << bit);
+			if ((bits[offset + word] & mask) != 0) {
+				return true;
+			}
+			pos += count;
+		}
+		return false;
+	}
+
+	/**
+	 * Gets the table of a footprint, building it if needed.
+	 *
+	 * @param w footprint width
+	 * @param h footprint height
+	 * @return table with a set bit for each colliding position
+	 */
+	private long[] getFootprint(final int w, final int h) {
+		final int index = (w - 1) * MAX_FOOTPRINT + h - 1;
+		long[] table = footprints.get(index);
+		if (table == null) {
+			final int before = modifications;
+			table = buildFootprint(w, h);
+			footprints.set(index, table);
+			hasFootprints = true;
+			if (modifications != before) {
+				// changed while building, use the table only this time
+				footprints.set(index, null);
+			}
+		}
+		return table;
+	}
+
+	/**
+	 * Builds the table of a footprint by spreading the collision bits left
+	 * over the footprint width and up over the footprint height.
+	 */
+	private long[] buildFootprint(final int w, final int h) {
+		final long[] horizontal = new long[bits.length];
+		for (int y = 0; y < height; y++) {
+			final int offset = y * rowWords;
+			for (int word = 0; word < rowWords; word++) {
+				final long current = bits[offset + word];
+				final long next = (word + 1 < rowWords) ? bits[offset + word + 1] : 0L;
+				long res = current;
+				for (int k = 1; k < w; k++) {
+					res |= (current >>> k) | (next << (64 - k));
+				}
+				horizontal[offset + word] = res;
+			}
+		}
+
+		final long[] table = new long[bits.length];
+		for (int y = 0; y < height; y++) {
+			final int offset = y * rowWords;
+			for (int word = 0; word < rowWords; word++) {
+				long res = 0L;
+				for (int k = 0; (k < h) && (y + k < height); k++) {
+					res |= horizontal[offset + k * rowWords + word];
+				}
+				table[offset + word] = res;
+			}
 		}
+		return table;
+	}
 
-		return !result.get(y, y + height).isEmpty();
+	private void dropFootprints() {
+		modifications++;
+		if (hasFootprints) {
+			hasFootprints = false;
+			for (int i = 0; i < footprints.length(); i++) {
+				footprints.set(i, null);
+			}
+		}
+	}
+
+	private void checkIndex(final int x, final int y) {
+		if ((x < 0) || (x >= width) || (y < 0) || (y >= height)) {
+			throw new IndexOutOfBoundsException("(" + x + "," + y + ") outside of " + width + "x" + height);
+		}
 	}
 
 	/**
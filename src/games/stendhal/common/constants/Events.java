@@ -32,6 +32,9 @@ public final class Events {
 	/** a player on the buddy list logged off */
 	public static final String PLAYER_LOGGED_OUT = "player_logged_out";
 
+	/** the players that are online at login */
+	public static final String PLAYERS_ONLINE = "players_online";
+
 	/** attack event during a fight */
 	public static final String ATTACK = "attack";
 
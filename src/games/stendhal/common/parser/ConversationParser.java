@@ -1,6 +1,6 @@
 /* $Id$ */
 /***************************************************************************
- *                   (C) Copyright 2003-2023 - Stendhal                    *
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
  ***************************************************************************
  ***************************************************************************
  *                                                                         *
@@ -12,8 +12,6 @@
  ***************************************************************************/
 package games.stendhal.common.parser;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.StringTokenizer;
 
 import org.apache.log4j.Logger;
@@ -31,10 +29,13 @@ public final class ConversationParser extends ErrorBuffer {
 	private static final Logger LOGGER = Logger.getLogger(ConversationParser.class);
 
 	/** A cache to hold pre-parsed trigger Expressions. */
-	private static Map<String, Expression> triggerExpressionsCache = new HashMap<String, Expression>();
+	private static final ParseCache<Expression> triggerExpressionsCache = new ParseCache<Expression>(8192);
 
 	/** A cache to hold pre-parsed matching Sentences. */
-	private static Map<String, Sentence> matchingSentenceCache = new HashMap<String, Sentence>();
+	private static final ParseCache<Sentence> matchingSentenceCache = new ParseCache<Sentence>(4096);
+
+	/** A cache to hold parsed chat lines by their trimmed text. */
+	private static final ParseCache<Sentence> chatSentenceCache = new ParseCache<Sentence>(4096);
 
 	/** Tokenizer to split a sentence into words */
 	private final transient StringTokenizer tokenizer;
@@ -126,13 +127,48 @@ public final class ConversationParser extends ErrorBuffer {
 	}
 
 	/**
-	 * Parse function without conversation context.
+	 * Parse function without conversation context. Players often say the
+	 * same things, so the results are cached. The returned sentences are
+	 * shared and their expression list can't be modified.
 	 *
 	 * @param text
 	 * @return the parsed text
 	 */
 	public static Sentence parse(final String text) {
-		return parse(text, new ConversationContext());
+		if (text == null) {
+			return parse(text, new ConversationContext());
+		}
+
+		final String key = text.trim();
+		Sentence sentence = chatSentenceCache.get(key);
+
+		if (sentence == null) {
+			final int generation = chatSentenceCache.getGeneration();
+			sentence = parse(key, new ConversationContext());
+			sentence.freeze();
+
+			chatSentenceCache.put(key, sentence, generation);
+		}
+
+		return sentence;
+	}
+
+	/**
+	 * Drop the cached chat sentences after words have been registered
+	 * or removed.
+	 */
+	static void onWordListChanged() {
+		chatSentenceCache.clear();
+	}
+
+	/**
+	 * Describe size and hit rate of the parse caches.
+	 *
+	 * @return cache statistics
+	 */
+	public static String getCacheStatistics() {
+		return "chat: " + chatSentenceCache + "; triggers: " + triggerExpressionsCache
+				+ "; matchers: " + matchingSentenceCache;
 	}
 
 	/**
@@ -0,0 +1,205 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.common.parser;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded cache of parse results by text, which may be used by several
+ * threads.
+ * <p>
+ * The entries are spread over segments with their own lock, and each segment
+ * drops its least recently used entry when it is full. Hits and misses are
+ * counted, so the hit rate can be checked on a running server.
+ *
+ * @param <V> type of the parse results
+ */
+final class ParseCache<V> {
+
+	/** number of segments, a power of two */
+	private static final int SEGMENTS = 16;
+
+	/**
+	 * A least recently used map.
+	 *
+	 * @param <V> type of the values
+	 */
+	private static final class Segment<V> extends LinkedHashMap<String, V> {
+		private static final long serialVersionUID = 1L;
+
+		private final int capacity;
+
+		Segment(final int capacity) {
+			super(16, 0.75f, true);
+			this.capacity = capacity;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<String, V> eldest) {
+			return size() > capacity;
+		}
+	}
+
+	private final Segment<V>[] segments;
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	/** incremented on every clear() */
+	private volatile int generation;
+
+	/**
+	 * Creates a new ParseCache.
+	 *
+	 * @param capacity maximum number of entries
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	ParseCache(final int capacity) {
+		segments = new Segment[SEGMENTS];
+		final int segmentCapacity = Math.max(1, (capacity + SEGMENTS - 1) / SEGMENTS);
+		for (int i = 0; i < SEGMENTS; i++) {
+			segments[i] = new Segment<V>(segmentCapacity);
+		}
+	}
+
+	private Segment<V> segmentFor(final String key) {
+		int hash = key.hashCode();
+		hash ^= hash >>> 16;
+		return segments[hash & (SEGMENTS - 1)];
+	}
+
+	/**
+	 * Looks up a parse result.
+	 *
+	 * @param key text
+	 * @return cached result, or <code>null</code>
+	 */
+	V get(final String key) {
+		final Segment<V> segment = segmentFor(key);
+		final V value;
+		synchronized (segment) {
+			value = segment.get(key);
+		}
+		if (value == null) {
+			misses.incrementAndGet();
+		} else {
+			hits.incrementAndGet();
+		}
+		return value;
+	}
+
+	/**
+	 * Gets the current generation. Results computed from the state of this
+	 * generation should be put with {@link #put(String, Object, int)}, so
+	 * that they are dropped if the cache is cleared in the meantime.
+	 *
+	 * @return generation
+	 */
+	int getGeneration() {
+		return generation;
+	}
+
+	/**
+	 * Stores a parse result.
+	 *
+	 * @param key text
+	 * @param value result
+	 */
+	void put(final String key, final V value) {
+		put(key, value, generation);
+	}
+
+	/**
+	 * Stores a parse result unless the cache has been cleared since it was
+	 * computed.
+	 *
+	 * @param key text
+	 * @param value result
+	 * @param generation generation at the start of the computation
+	 */
+	void put(final String key, final V value, final int generation) {
+		final Segment<V> segment = segmentFor(key);
+		synchronized (segment) {
+			if (this.generation == generation) {
+				segment.put(key, value);
+			}
+		}
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	synchronized void clear() {
+		generation++;
+		for (final Segment<V> segment : segments) {
+			synchronized (segment) {
+				segment.clear();
+			}
+		}
+	}
+
+	/**
+	 * Gets the number of cached entries.
+	 *
+	 * @return number of entries
+	 */
+	int size() {
+		int size = 0;
+		for (final Segment<V> segment : segments) {
+			synchronized (segment) {
+				size += segment.size();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Gets the number of successful lookups.
+	 *
+	 * @return hits
+	 */
+	long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * Gets the number of failed lookups.
+	 *
+	 * @return misses
+	 */
+	long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * Gets the share of successful lookups.
+	 *
+	 * @return hit rate between 0 and 1
+	 */
+	double getHitRate() {
+		final long h = hits.get();
+		final long total = h + misses.get();
+		if (total == 0) {
+			return 0;
+		}
+		return (double) h / total;
+	}
+
+	@Override
+	public String toString() {
+		return size() + " entries, " + getHits() + " hits, " + getMisses() + " misses ("
+				+ Math.round(getHitRate() * 100) + "%)";
+	}
+}
@@ -1,6 +1,6 @@
 /* $Id$ */
 /***************************************************************************
- *                   (C) Copyright 2003-2024 - Stendhal                    *
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
  ***************************************************************************
  ***************************************************************************
  *                                                                         *
@@ -51,6 +51,24 @@ public class Sentence extends ErrorBuffer implements Iterable<Expression> {
 		context = ctx;
 	}
 
+	/**
+	 * Make the expression list read only, so that the sentence can be shared.
+	 */
+	void freeze() {
+		final List<Expression> list = expressions;
+		expressions = new AbstractList<Expression>() {
+			@Override
+			public Expression get(final int index) {
+				return list.get(index);
+			}
+
+			@Override
+			public int size() {
+				return list.size();
+			}
+		};
+	}
+
 	/**
 	 * Set sentence type as STATEMENT, IMPERATIVE or QUESTION.
 	 *
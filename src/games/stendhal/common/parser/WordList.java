@@ -1,5 +1,5 @@
 /***************************************************************************
- *                   (C) Copyright 2003-2023 - Stendhal                    *
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
  ***************************************************************************
  ***************************************************************************
  *                                                                         *
@@ -582,6 +582,8 @@ final public class WordList {
 
 			nameSet.add(new CompoundName(parsed, typeString));
 		}
+
+		ConversationParser.onWordListChanged();
 	}
 
 	/**
@@ -645,6 +647,8 @@ final public class WordList {
 				words.remove(expr.getNormalized());
 			}
 		}
+
+		ConversationParser.onWordListChanged();
 	}
 
 	/**
@@ -714,6 +718,7 @@ final public class WordList {
 			newEntry.setType(new ExpressionType(VERB_DYNAMIC));
 
 			words.put(key, newEntry);
+			ConversationParser.onWordListChanged();
 		/*
 		} else if (!checkNameCompatibleLastType(entry, ExpressionType.VERB)) {
 			logger.warn("verb name already registered with incompatible expression type: " +
@@ -0,0 +1,229 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.config;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+
+import games.stendhal.common.tiled.LayerDefinition;
+import games.stendhal.common.tiled.StendhalMapStructure;
+import games.stendhal.common.tiled.TileSetDefinition;
+import marauroa.common.net.InputSerializer;
+
+/**
+ * Preprocessed zone maps on disk.
+ * <p>
+ * For every zone the cache holds the parsed map and the layers encoded for
+ * the client, together with a hash of the TMX file they were made from. As
+ * long as the TMX file is unchanged, the server can read them back instead of
+ * parsing and compressing the map again. The files consist of length prefixed
+ * blocks and are read through a memory mapping.
+ */
+final class ZoneCache {
+	private static final Logger logger = Logger.getLogger(ZoneCache.class);
+
+	/** first bytes of a cache file */
+	private static final int MAGIC = 0x535a4331;
+
+	/** format version, to be increased on any change of the format or of the map processing */
+	private static final int VERSION = 1;
+
+	private final File directory;
+
+	/**
+	 * Creates a new ZoneCache.
+	 *
+	 * @param directory directory for the cache files
+	 */
+	ZoneCache(final File directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Gets the configured zone cache.
+	 *
+	 * @return cache, or <code>null</code> if the "stendhal.zone.cache" system
+	 * 	property does not name a directory for it
+	 */
+	static ZoneCache getConfigured() {
+		final String path = System.getProperty("stendhal.zone.cache");
+		if ((path == null) || path.isEmpty()) {
+			return null;
+		}
+		return new ZoneCache(new File(path));
+	}
+
+	/**
+	 * Calculates the key of a TMX file.
+	 *
+	 * @param content content of the TMX file
+	 * @return hash of the content
+	 */
+	static byte[] hash(final byte[] content) {
+		try {
+			return MessageDigest.getInstance("SHA-256").digest(content);
+		} catch (final NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private File getFile(final String zone) {
+		return new File(directory, zone + ".zone");
+	}
+
+	/**
+	 * Reads a zone from the cache.
+	 *
+	 * @param zone name of the zone
+	 * @param hash hash of the current TMX file
+	 * @param layers map to put the encoded layers into
+	 * @return the map, or <code>null</code> if the cache has no valid entry
+	 * 	for this version of the TMX file
+	 */
+	StendhalMapStructure read(final String zone, final byte[] hash, final Map<String, byte[]> layers) {
+		final File file = getFile(zone);
+		if (!file.isFile()) {
+			return null;
+		}
+
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if ((buffer.getInt() != MAGIC) || (buffer.getInt() != VERSION)
+					|| !Arrays.equals(hash, readBytes(buffer))) {
+				return null;
+			}
+
+			final StendhalMapStructure map = new StendhalMapStructure(buffer.getInt(), buffer.getInt());
+			final int tilesets = buffer.getInt();
+			for (int i = 0; i < tilesets; i++) {
+				final InputSerializer in = new InputSerializer(new ByteArrayInputStream(readBytes(buffer)));
+				map.addTileset((TileSetDefinition) in.readObject(new TileSetDefinition(null, null, 0)));
+			}
+
+			final int count = buffer.getInt();
+			for (int i = 0; i < count; i++) {
+				final String name = readString(buffer);
+				final int width = buffer.getInt();
+				final int height = buffer.getInt();
+				final int length = buffer.getInt();
+				if ((width < 0) || (height < 0) || (length != 4L * width * height) || (length > buffer.remaining())) {
+					throw new IllegalArgumentException("Invalid layer " + name);
+				}
+				final LayerDefinition layer = new LayerDefinition(width, height);
+				layer.setName(name);
+				buffer.get(layer.exposeRaw());
+				map.addLayer(layer);
+			}
+
+			final int encoded = buffer.getInt();
+			for (int i = 0; i < encoded; i++) {
+				final String name = readString(buffer);
+				layers.put(name, readBytes(buffer));
+			}
+			return map;
+		} catch (final IOException | BufferUnderflowException | IllegalArgumentException e) {
+			logger.warn("Ignoring unreadable zone cache file " + file, e);
+			layers.clear();
+			return null;
+		}
+	}
+
+	/**
+	 * Writes a zone to the cache.
+	 *
+	 * @param zone name of the zone
+	 * @param hash hash of the TMX file
+	 * @param map parsed map
+	 * @param layers layers encoded for the client
+	 */
+	void write(final String zone, final byte[] hash, final StendhalMapStructure map, final Map<String, byte[]> layers) {
+		final File file = getFile(zone);
+		File temp = null;
+		try {
+			Files.createDirectories(directory.toPath());
+			temp = File.createTempFile(zone, ".tmp", directory);
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				writeBytes(out, hash);
+
+				out.writeInt(map.getWidth());
+				out.writeInt(map.getHeight());
+				out.writeInt(map.getTilesets().size());
+				for (final TileSetDefinition set : map.getTilesets()) {
+					writeBytes(out, set.encode());
+				}
+
+				out.writeInt(map.getLayers().size());
+				for (final LayerDefinition layer : map.getLayers()) {
+					writeString(out, (layer.getName() == null) ? "" : layer.getName());
+					out.writeInt(layer.getWidth());
+					out.writeInt(layer.getHeight());
+					writeBytes(out, layer.exposeRaw());
+				}
+
+				out.writeInt(layers.size());
+				for (final Map.Entry<String, byte[]> entry : layers.entrySet()) {
+					writeString(out, entry.getKey());
+					writeBytes(out, entry.getValue());
+				}
+			}
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (final IOException e) {
+			logger.warn("Could not write zone cache file " + file, e);
+			if (temp != null) {
+				temp.delete();
+			}
+		}
+	}
+
+	private static void writeBytes(final DataOutputStream out, final byte[] data) throws IOException {
+		out.writeInt(data.length);
+		out.write(data);
+	}
+
+	private static void writeString(final DataOutputStream out, final String text) throws IOException {
+		writeBytes(out, text.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static byte[] readBytes(final ByteBuffer buffer) {
+		final int length = buffer.getInt();
+		if ((length < 0) || (length > buffer.remaining())) {
+			throw new IllegalArgumentException("Invalid length " + length);
+		}
+		final byte[] data = new byte[length];
+		buffer.get(data);
+		return data;
+	}
+
+	private static String readString(final ByteBuffer buffer) {
+		return new String(readBytes(buffer), StandardCharsets.UTF_8);
+	}
+}
@@ -4,7 +4,7 @@
  * $Id$
  */
 /***************************************************************************
- *                   (C) Copyright 2003-2024 - Stendhal                    *
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
  ***************************************************************************
  ***************************************************************************
  *                                                                         *
@@ -24,7 +24,13 @@ import java.lang.reflect.InvocationTargetException;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.log4j.Logger;
 import org.w3c.dom.Document;
@@ -125,6 +131,34 @@ public final class ZonesXMLLoader {
 	 *             If an I/O error occurred.
 	 */
 	protected void load(final InputStream in) throws SAXException, IOException {
+		loadZones(readZones(in), null);
+	}
+
+	/**
+	 * Reads the descriptors of the zones in the group file that should be
+	 * loaded.
+	 *
+	 * @return zone descriptors
+	 * @throws SAXException
+	 *             If a SAX error occurred.
+	 * @throws IOException
+	 *             If an I/O error occurred.
+	 */
+	List<ZoneDesc> readZones() throws SAXException, IOException {
+		final InputStream in = ZonesXMLLoader.class.getResourceAsStream(uri.getPath());
+
+		if (in == null) {
+			throw new FileNotFoundException("Cannot find resource: " + uri);
+		}
+
+		try {
+			return readZones(in);
+		} finally {
+			in.close();
+		}
+	}
+
+	private List<ZoneDesc> readZones(final InputStream in) throws SAXException, IOException {
 		final Document doc = XMLUtil.parse(in);
 
 		// just to speed up starting of the server in while developing
@@ -134,9 +168,7 @@ public final class ZonesXMLLoader {
 		// if there is a problem with the zone
 		final String regex = System.getProperty("stendhal.zone.regex", ".*");
 
-		/*
-		 * Load each zone
-		 */
+		final List<ZoneDesc> zones = new ArrayList<ZoneDesc>();
 		for (final Element element : XMLUtil.getElements(doc.getDocumentElement(), "zone")) {
 			final ZoneDesc zdesc = readZone(element);
 
@@ -149,14 +181,65 @@ public final class ZonesXMLLoader {
 				continue;
 			}
 
-			logger.info("Loading zone: " + name);
+			zones.add(zdesc);
+		}
+		return zones;
+	}
+
+	/**
+	 * Loads zones into the world. The map files are read and encoded for the
+	 * clients on the worker threads, if an executor is given. Creating the
+	 * zones, adding them to the world and running their configurators is
+	 * done on the calling thread, in the order of the descriptors.
+	 *
+	 * @param zones descriptors of the zones
+	 * @param executor executor for reading the maps, or <code>null</code> to
+	 * 	read them on the calling thread
+	 */
+	static void loadZones(final List<ZoneDesc> zones, final ExecutorService executor) {
+		final long start = System.nanoTime();
+		// add -Dstendhal.zone.cache=cache/zones (for example) to keep the processed
+		// maps in that directory, so that unchanged maps are not parsed again on restart
+		final ZoneCache cache = ZoneCache.getConfigured();
+		final List<Future<PreparedZone>> futures = new ArrayList<Future<PreparedZone>>(zones.size());
+		if (executor != null) {
+			// only read ahead a limited number of maps to bound the memory use
+			for (int i = 0; (i < MAX_PREPARED_ZONES) && (i < zones.size()); i++) {
+				futures.add(submit(executor, zones.get(i), cache));
+			}
+		}
+
+		long prepareTime = 0;
+		long waitTime = 0;
+		long setupTime = 0;
+		int loaded = 0;
+		int cached = 0;
+		for (int i = 0; i < zones.size(); i++) {
+			final ZoneDesc zdesc = zones.get(i);
+			final String name = zdesc.getName();
+			if ((executor != null) && (futures.size() < zones.size())) {
+				futures.add(submit(executor, zones.get(futures.size()), cache));
+			}
 
 			try {
-				final StendhalMapStructure zonedata = TMXLoader.load(StendhalRPWorld.MAPS_FOLDER
-						+ zdesc.getFile());
+				final long waitStart = System.nanoTime();
+				final PreparedZone prepared;
+				if (executor == null) {
+					prepared = prepare(zdesc, cache);
+				} else {
+					prepared = futures.get(i).get();
+					futures.set(i, null);
+				}
+				final long setupStart = System.nanoTime();
+				waitTime += setupStart - waitStart;
 
-				if (verifyMap(zdesc, zonedata)) {
-					final StendhalRPZone zone = load(zdesc, zonedata);
+				if (prepared != null) {
+					prepareTime += prepared.time;
+					if (prepared.cached) {
+						cached++;
+					}
+					logger.info("Loading zone: " + name);
+					final StendhalRPZone zone = load(prepared);
 
 					/*
 					 * Setup Descriptors
@@ -169,17 +252,100 @@ public final class ZonesXMLLoader {
 					// Zone configurators can add creatures, so this should be
 					// done after them
 					zone.calculateDangerLevel();
+					loaded++;
 				}
+				setupTime += System.nanoTime() - setupStart;
+			} catch (final ExecutionException ex) {
+				logger.error("Error loading zone: " + name, ex.getCause());
+			} catch (final InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				logger.error("Interrupted while loading zone: " + name, ex);
+				return;
 			} catch (final Exception ex) {
 				logger.error("Error loading zone: " + name, ex);
 			}
 		}
+
+		logger.info("Loaded " + loaded + " zones in " + millis(System.nanoTime() - start)
+				+ " ms" + ((cache == null) ? "" : " (" + cached + " from the zone cache)")
+				+ ": reading and encoding maps " + millis(prepareTime) + " ms"
+				+ ((executor == null) ? "" : " on worker threads, waiting for them " + millis(waitTime) + " ms")
+				+ ", creating and configuring zones " + millis(setupTime) + " ms");
+	}
+
+	private static Future<PreparedZone> submit(final ExecutorService executor, final ZoneDesc zdesc,
+			final ZoneCache cache) {
+		return executor.submit(new Callable<PreparedZone>() {
+			@Override
+			public PreparedZone call() throws Exception {
+				return prepare(zdesc, cache);
+			}
+		});
+	}
+
+	private static long millis(final long nanos) {
+		return nanos / 1000000L;
+	}
+
+	/**
+	 * Reads the map of a zone and encodes its layers for the clients. This
+	 * does not touch the world, so it can be done on any thread.
+	 *
+	 * @param desc zone descriptor
+	 * @return the map data, or <code>null</code> if the map is invalid
+	 * @throws Exception if the map can't be read
+	 */
+	private static PreparedZone prepare(final ZoneDesc desc, final ZoneCache cache) throws Exception {
+		final long start = System.nanoTime();
+		final String filename = StendhalRPWorld.MAPS_FOLDER + desc.getFile();
+
+		final PreparedZone prepared;
+		if (cache == null) {
+			final StendhalMapStructure zonedata = TMXLoader.load(filename);
+			if (!verifyMap(desc, zonedata)) {
+				return null;
+			}
+			prepared = new PreparedZone(desc, zonedata);
+		} else {
+			final byte[] content = TMXLoader.readFile(filename);
+			final byte[] hash = ZoneCache.hash(content);
+			final Map<String, byte[]> layers = new LinkedHashMap<String, byte[]>();
+			final StendhalMapStructure cached = cache.read(desc.getName(), hash, layers);
+			if (cached != null) {
+				if (!verifyMap(desc, cached)) {
+					return null;
+				}
+				prepared = new PreparedZone(desc, cached, layers);
+				prepared.cached = true;
+			} else {
+				final StendhalMapStructure zonedata = new TMXLoader().readMap(filename, content);
+				if (!verifyMap(desc, zonedata)) {
+					return null;
+				}
+				prepared = new PreparedZone(desc, zonedata);
+				cache.write(desc.getName(), hash, zonedata, prepared.layers);
+			}
+		}
+
+		prepared.time = System.nanoTime() - start;
+		return prepared;
 	}
 
+	/** maximum number of maps read ahead of the zone setup */
+	private static final int MAX_PREPARED_ZONES = 32;
+
 	private static final String[] REQUIRED_LAYERS = { "0_floor", "1_terrain",
 			"2_object", "objects", "collision", "protection" };
 
-	private boolean verifyMap(final ZoneDesc zdesc, final StendhalMapStructure zonedata) {
+	/**
+	 * Layers that are sent to the client. Roof, effect and parallax layers are
+	 * optional.
+	 */
+	private static final String[] CLIENT_LAYERS = { "0_floor", "1_terrain",
+			"2_object", "3_roof", "4_roof_add", "blend_ground", "blend_roof",
+			"0_floor_parallax", "collision", "protection" };
+
+	private static boolean verifyMap(final ZoneDesc zdesc, final StendhalMapStructure zonedata) {
 		for (final String layer : REQUIRED_LAYERS) {
 			if (!zonedata.hasLayer(layer)) {
 				logger.error("Required layer " + layer + " missing in zone "
@@ -203,6 +369,18 @@ public final class ZonesXMLLoader {
 	 */
 	protected StendhalRPZone load(final ZoneDesc desc, final StendhalMapStructure zonedata)
 			throws SAXException, IOException {
+		return load(new PreparedZone(desc, zonedata));
+	}
+
+	/**
+	 * Creates a zone from its prepared map data and adds it to the world.
+	 *
+	 * @param prepared map data
+	 * @return the created zone
+	 */
+	private static StendhalRPZone load(final PreparedZone prepared) {
+		final ZoneDesc desc = prepared.desc;
+		final StendhalMapStructure zonedata = prepared.zonedata;
 		final String name = desc.getName();
 
 		final StendhalRPZone zone;
@@ -212,24 +390,19 @@ public final class ZonesXMLLoader {
 			zone = createZone(desc, name);
 		}
 
-		zone.addTilesets(name + ".tilesets", zonedata.getTilesets());
-		zone.addLayer(name + ".0_floor", zonedata.getLayer("0_floor"));
-		zone.addLayer(name + ".1_terrain", zonedata.getLayer("1_terrain"));
-		zone.addLayer(name + ".2_object", zonedata.getLayer("2_object"));
-
-		// Roof layers are optional
-		loadOptionalLayer(zone, zonedata, "3_roof");
-		loadOptionalLayer(zone, zonedata, "4_roof_add");
-		// Effect layers are optional too
-		loadOptionalLayer(zone, zonedata, "blend_ground");
-		loadOptionalLayer(zone, zonedata, "blend_roof");
-		// alternative floor layer for clients that support parallax backgrounds
-		loadOptionalLayer(zone, zonedata, "0_floor_parallax");
-
-		zone.addCollisionLayer(name + ".collision",
-				zonedata.getLayer("collision"));
-		zone.addProtectionLayer(name + ".protection",
-				zonedata.getLayer("protection"));
+		zone.addContent(name + ".tilesets", prepared.tilesets);
+		for (final Map.Entry<String, byte[]> entry : prepared.layers.entrySet()) {
+			final String layer = entry.getKey();
+			if (layer.equals("collision")) {
+				zone.addCollisionLayer(name + ".collision",
+						zonedata.getLayer("collision"), entry.getValue());
+			} else if (layer.equals("protection")) {
+				zone.addProtectionLayer(name + ".protection",
+						zonedata.getLayer("protection"), entry.getValue());
+			} else {
+				zone.addContent(name + "." + layer, entry.getValue());
+			}
+		}
 
 		if (desc.isInterior()) {
 			zone.setPosition();
@@ -257,24 +430,8 @@ public final class ZonesXMLLoader {
 		return zone;
 	}
 
-	/**
-	 * Load an optional layer, if present, to a zone.
-	 *
-	 * @param zone
-	 * @param zonedata
-	 * @param layerName
-	 * @throws IOException
-	 */
-	private void loadOptionalLayer(StendhalRPZone zone,
-			StendhalMapStructure zonedata, String layerName) throws IOException {
-		LayerDefinition layer = zonedata.getLayer(layerName);
-		if (layer != null) {
-			zone.addLayer(zone.getName() + "." + layerName, layer);
-		}
-	}
-
 	@SuppressWarnings("unchecked")
-	private StendhalRPZone createZone(final ZoneDesc desc, final String name)  {
+	private static StendhalRPZone createZone(final ZoneDesc desc, final String name)  {
 		try {
 			Class<StendhalRPZone> zoneclass = (Class<StendhalRPZone>) Class.forName(desc.getImplementation());
 			Constructor<StendhalRPZone> constr = zoneclass.getConstructor(String.class);
@@ -479,6 +636,61 @@ public final class ZonesXMLLoader {
 	//
 	//
 
+	/**
+	 * The map data of a zone, ready to be added to the world.
+	 */
+	private static final class PreparedZone {
+		final ZoneDesc desc;
+
+		final StendhalMapStructure zonedata;
+
+		/** encoded tilesets */
+		final byte[] tilesets;
+
+		/** encoded layers in the order they are sent to the client */
+		final Map<String, byte[]> layers = new LinkedHashMap<String, byte[]>();
+
+		/** time spent reading and encoding in nanoseconds */
+		long time;
+
+		/** <code>true</code> if the map was read from the zone cache */
+		boolean cached;
+
+		/**
+		 * Encodes the tilesets and layers of a map.
+		 *
+		 * @param desc zone descriptor
+		 * @param zonedata map
+		 * @throws IOException if a layer can't be encoded
+		 */
+		PreparedZone(final ZoneDesc desc, final StendhalMapStructure zonedata) throws IOException {
+			this.desc = desc;
+			this.zonedata = zonedata;
+			this.tilesets = StendhalRPZone.encodeTilesets(zonedata.getTilesets());
+			for (final String layer : CLIENT_LAYERS) {
+				final LayerDefinition definition = zonedata.getLayer(layer);
+				if (definition != null) {
+					layers.put(layer, definition.encode());
+				}
+			}
+		}
+
+		/**
+		 * Creates the data of a zone from layers which are already encoded.
+		 *
+		 * @param desc zone descriptor
+		 * @param zonedata map
+		 * @param layers encoded layers
+		 * @throws IOException if the tilesets can't be encoded
+		 */
+		PreparedZone(final ZoneDesc desc, final StendhalMapStructure zonedata, final Map<String, byte[]> layers) throws IOException {
+			this.desc = desc;
+			this.zonedata = zonedata;
+			this.tilesets = StendhalRPZone.encodeTilesets(zonedata.getTilesets());
+			this.layers.putAll(layers);
+		}
+	}
+
 	/**
 	 * A zone descriptor.
 	 */
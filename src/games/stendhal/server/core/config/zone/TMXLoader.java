@@ -1,6 +1,6 @@
 /* $Id$ */
 /***************************************************************************
- *                   (C) Copyright 2003-2024 - Stendhal                    *
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
  ***************************************************************************
  ***************************************************************************
  *                                                                         *
@@ -13,7 +13,9 @@
 package games.stendhal.server.core.config.zone;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -292,10 +294,42 @@ public class TMXLoader {
 	}
 
 	public StendhalMapStructure readMap(final String filename) throws Exception {
+		final InputStream in = open(filename);
+		try {
+			return readMap(filename, in);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Parses a map file that has already been read.
+	 *
+	 * @param filename name of the map file
+	 * @param content content of the file
+	 * @return the map
+	 * @throws Exception if the map can't be parsed
+	 */
+	public StendhalMapStructure readMap(final String filename, final byte[] content) throws Exception {
+		return readMap(filename, new ByteArrayInputStream(content));
+	}
+
+	private StendhalMapStructure readMap(final String filename, final InputStream in) throws Exception {
 		xmlPath = filename.substring(0,
 				filename.lastIndexOf(File.separatorChar) + 1);
 
-		InputStream is = getClass().getClassLoader().getResourceAsStream(
+		InputStream is = in;
+
+		// Wrap with GZIP decoder for .tmx.gz files
+		if (filename.endsWith(".gz")) {
+			is = new GZIPInputStream(is);
+		}
+
+		return unmarshal(is);
+	}
+
+	private static InputStream open(final String filename) throws IOException {
+		InputStream is = TMXLoader.class.getClassLoader().getResourceAsStream(
 				filename);
 
 		if (is == null) {
@@ -305,13 +339,29 @@ public class TMXLoader {
 			final URL url = new URL(xmlFile);
 			is = url.openStream();
 		}
+		return is;
+	}
 
-		// Wrap with GZIP decoder for .tmx.gz files
-		if (filename.endsWith(".gz")) {
-			is = new GZIPInputStream(is);
+	/**
+	 * Reads the content of a map file.
+	 *
+	 * @param filename name of the map file
+	 * @return content of the file
+	 * @throws IOException if the file can't be read
+	 */
+	public static byte[] readFile(final String filename) throws IOException {
+		final InputStream in = open(filename);
+		try {
+			final ByteArrayOutputStream out = new ByteArrayOutputStream();
+			final byte[] buffer = new byte[8192];
+			int count;
+			while ((count = in.read(buffer)) > -1) {
+				out.write(buffer, 0, count);
+			}
+			return out.toByteArray();
+		} finally {
+			in.close();
 		}
-
-		return unmarshal(is);
 	}
 
 	public static void main(final String[] args) throws Exception {
@@ -0,0 +1,144 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import games.stendhal.server.entity.player.Player;
+
+/**
+ * Reverse index of the buddy lists of the online players.
+ * <p>
+ * For every player name it knows the online players who have that name on
+ * their buddy list, so that a login or logout only has to notify them
+ * instead of every online player. Names are compared ignoring case.
+ */
+final class BuddyIndex {
+
+	/** online players by the buddy names they list */
+	private final Map<String, Set<Player>> watchers = new HashMap<String, Set<Player>>();
+
+	/**
+	 * indexed buddy names by online player, with the number of case variants
+	 * of each name on the buddy list
+	 */
+	private final Map<Player, Map<String, Integer>> buddies = new IdentityHashMap<Player, Map<String, Integer>>();
+
+	/**
+	 * Indexes the buddy list of a player that has come online.
+	 *
+	 * @param player player
+	 */
+	synchronized void add(final Player player) {
+		remove(player);
+		buddies.put(player, new HashMap<String, Integer>());
+		for (final String buddy : player.getBuddies()) {
+			addBuddy(player, buddy);
+		}
+	}
+
+	/**
+	 * Removes a player that has gone offline.
+	 *
+	 * @param player player
+	 */
+	synchronized void remove(final Player player) {
+		final Map<String, Integer> names = buddies.remove(player);
+		if (names == null) {
+			return;
+		}
+		for (final String name : names.keySet()) {
+			final Set<Player> players = watchers.get(name);
+			if (players != null) {
+				players.remove(player);
+				if (players.isEmpty()) {
+					watchers.remove(name);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Records a buddy that an online player has added.
+	 *
+	 * @param player player
+	 * @param buddy name of the buddy
+	 */
+	synchronized void addBuddy(final Player player, final String buddy) {
+		final Map<String, Integer> names = buddies.get(player);
+		if (names == null) {
+			return;
+		}
+		final String key = buddy.toLowerCase();
+		final Integer count = names.get(key);
+		if (count != null) {
+			names.put(key, count + 1);
+		} else {
+			names.put(key, 1);
+			Set<Player> players = watchers.get(key);
+			if (players == null) {
+				players = Collections.newSetFromMap(new IdentityHashMap<Player, Boolean>());
+				watchers.put(key, players);
+			}
+			players.add(player);
+		}
+	}
+
+	/**
+	 * Forgets a buddy that an online player has removed. The name stays
+	 * indexed as long as the player still lists another case variant of it.
+	 *
+	 * @param player player
+	 * @param buddy name of the buddy
+	 */
+	synchronized void removeBuddy(final Player player, final String buddy) {
+		final Map<String, Integer> names = buddies.get(player);
+		if (names == null) {
+			return;
+		}
+		final String key = buddy.toLowerCase();
+		final Integer count = names.get(key);
+		if (count == null) {
+			return;
+		}
+		if (count > 1) {
+			names.put(key, count - 1);
+		} else {
+			names.remove(key);
+			final Set<Player> players = watchers.get(key);
+			players.remove(player);
+			if (players.isEmpty()) {
+				watchers.remove(key);
+			}
+		}
+	}
+
+	/**
+	 * Gets the online players who have a name on their buddy list.
+	 *
+	 * @param name player name
+	 * @return players listing that name
+	 */
+	synchronized List<Player> getWatchers(final String name) {
+		final Set<Player> players = watchers.get(name.toLowerCase());
+		if (players == null) {
+			return Collections.emptyList();
+		}
+		return new ArrayList<Player>(players);
+	}
+}
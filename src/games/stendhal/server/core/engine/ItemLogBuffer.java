@@ -0,0 +1,163 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.Logger;
+
+import games.stendhal.server.core.engine.dbcommand.AbstractLogItemEventCommand;
+import games.stendhal.server.core.engine.dbcommand.LogItemEventBatchCommand;
+import games.stendhal.server.core.events.TurnListener;
+import marauroa.common.Configuration;
+import marauroa.server.db.command.DBCommandPriority;
+import marauroa.server.db.command.DBCommandQueue;
+import marauroa.server.game.Statistics;
+
+/**
+ * Buffers item log events and passes them to the database in batches.
+ * <p>
+ * Events are collected in a lock free queue. They are written in chunks of
+ * <code>itemlog_batch_size</code> events (server.ini, default
+ * {@link #DEFAULT_BATCH_SIZE}), as soon as a chunk is full, or
+ * {@link #FLUSH_DELAY_TURNS} turns after the first buffered event. So the
+ * itemlog rows may appear that many turns after the event, but their
+ * timedate is still the time of the event. The
+ * statistics "Itemlog queue", "Itemlog batch size" and "Itemlog flush
+ * latency" show the number of buffered events, the number of entries of the
+ * last batch, and the time in milliseconds between the oldest event of a
+ * batch and its write.
+ */
+public final class ItemLogBuffer implements TurnListener {
+	private static final Logger logger = Logger.getLogger(ItemLogBuffer.class);
+
+	/** Default number of events per batch. */
+	private static final int DEFAULT_BATCH_SIZE = 200;
+
+	/** Turns to wait before writing an incomplete chunk. */
+	private static final int FLUSH_DELAY_TURNS = 10;
+
+	private static ItemLogBuffer instance;
+
+	private final Queue<AbstractLogItemEventCommand> queue = new ConcurrentLinkedQueue<AbstractLogItemEventCommand>();
+
+	/** number of buffered events */
+	private final AtomicInteger size = new AtomicInteger();
+
+	/** is a flush scheduled? */
+	private final AtomicBoolean scheduled = new AtomicBoolean();
+
+	private final int batchSize;
+
+	/**
+	 * Singleton access method.
+	 *
+	 * @return the instance
+	 */
+	public static synchronized ItemLogBuffer get() {
+		if (instance == null) {
+			instance = new ItemLogBuffer(readBatchSize());
+		}
+		return instance;
+	}
+
+	/**
+	 * Creates a new ItemLogBuffer.
+	 *
+	 * @param batchSize maximum number of events per batch
+	 */
+	ItemLogBuffer(final int batchSize) {
+		this.batchSize = Math.max(1, batchSize);
+	}
+
+	private static int readBatchSize() {
+		try {
+			return Configuration.getConfiguration().getInt("itemlog_batch_size", DEFAULT_BATCH_SIZE);
+		} catch (final IOException e) {
+			logger.warn("Cannot read itemlog_batch_size, using " + DEFAULT_BATCH_SIZE, e);
+			return DEFAULT_BATCH_SIZE;
+		}
+	}
+
+	/**
+	 * Adds an item log event.
+	 *
+	 * @param command event
+	 */
+	public void add(final AbstractLogItemEventCommand command) {
+		command.setEnqueueTime(new Timestamp(System.currentTimeMillis()));
+		queue.add(command);
+		final int count = size.incrementAndGet();
+		Statistics.getStatistics().set("Itemlog queue", count);
+		if (count >= batchSize) {
+			flush();
+		} else if (scheduled.compareAndSet(false, true)) {
+			SingletonRepository.getTurnNotifier().notifyInTurns(FLUSH_DELAY_TURNS, this);
+		}
+	}
+
+	@Override
+	public void onTurnReached(final int currentTurn) {
+		scheduled.set(false);
+		flush();
+	}
+
+	/**
+	 * Passes all buffered events to the database command queue.
+	 */
+	public void flush() {
+		for (final LogItemEventBatchCommand batch : drain()) {
+			DBCommandQueue.get().enqueue(batch, DBCommandPriority.LOW);
+		}
+	}
+
+	/**
+	 * Takes the buffered events, split into chunks.
+	 *
+	 * @return batch commands
+	 */
+	List<LogItemEventBatchCommand> drain() {
+		final List<LogItemEventBatchCommand> res = new ArrayList<LogItemEventBatchCommand>();
+		List<AbstractLogItemEventCommand> chunk = new ArrayList<AbstractLogItemEventCommand>();
+		AbstractLogItemEventCommand command = queue.poll();
+		while (command != null) {
+			size.decrementAndGet();
+			chunk.add(command);
+			if (chunk.size() == batchSize) {
+				res.add(new LogItemEventBatchCommand(chunk));
+				chunk = new ArrayList<AbstractLogItemEventCommand>();
+			}
+			command = queue.poll();
+		}
+		if (!chunk.isEmpty()) {
+			res.add(new LogItemEventBatchCommand(chunk));
+		}
+		Statistics.getStatistics().set("Itemlog queue", size.get());
+		return res;
+	}
+
+	/**
+	 * Gets the number of buffered events.
+	 *
+	 * @return number of events
+	 */
+	public int getQueueSize() {
+		return size.get();
+	}
+}
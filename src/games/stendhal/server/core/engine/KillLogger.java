@@ -0,0 +1,113 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+
+import games.stendhal.server.core.engine.db.StendhalKillLogDAO;
+import games.stendhal.server.core.engine.db.StendhalKillLogDAO.KillKey;
+import games.stendhal.server.core.engine.dbcommand.LogKillEventCommand;
+import games.stendhal.server.core.events.TurnListener;
+import games.stendhal.server.entity.Entity;
+import games.stendhal.server.entity.Killer;
+import marauroa.server.db.command.DBCommandPriority;
+import marauroa.server.db.command.DBCommandQueue;
+import marauroa.server.game.db.DAORegister;
+
+/**
+ * Kill Logger.
+ * <p>
+ * Kills are counted in memory by killed entity, killer and day. The counts
+ * are written to the database in one command every
+ * {@link #FLUSH_INTERVAL_SECONDS} seconds, and on server shutdown.
+ */
+public final class KillLogger implements TurnListener {
+
+	/** Seconds between writing the collected kills. */
+	private static final int FLUSH_INTERVAL_SECONDS = 60;
+
+	private static KillLogger instance;
+
+	/** kills that have not been written yet */
+	private Map<KillKey, Integer> pending = new HashMap<KillKey, Integer>();
+
+	/** is a flush scheduled? */
+	private boolean scheduled;
+
+	/**
+	 * Singleton access method.
+	 *
+	 * @return the instance
+	 */
+	public static synchronized KillLogger get() {
+		if (instance == null) {
+			instance = new KillLogger();
+		}
+		return instance;
+	}
+
+	private KillLogger() {
+		// singleton
+	}
+
+	/**
+	 * Logs a kill.
+	 *
+	 * @param killed killed entity
+	 * @param killer killer
+	 */
+	public void logKill(final Entity killed, final Killer killer) {
+		final StendhalKillLogDAO killLog = DAORegister.get().get(StendhalKillLogDAO.class);
+		final KillKey key = killLog.createKey(killed, killer, new Timestamp(System.currentTimeMillis()));
+		final boolean schedule;
+		synchronized (this) {
+			final Integer count = pending.get(key);
+			pending.put(key, Integer.valueOf(count == null ? 1 : count.intValue() + 1));
+			schedule = !scheduled;
+			scheduled = true;
+		}
+		if (schedule) {
+			SingletonRepository.getTurnNotifier().notifyInSeconds(FLUSH_INTERVAL_SECONDS, this);
+		}
+	}
+
+	@Override
+	public void onTurnReached(final int currentTurn) {
+		synchronized (this) {
+			scheduled = false;
+		}
+		flush();
+	}
+
+	/**
+	 * Writes the collected kills to the database.
+	 */
+	public void flush() {
+		final Map<KillKey, Integer> kills = drain();
+		if (!kills.isEmpty()) {
+			DBCommandQueue.get().enqueue(new LogKillEventCommand(kills), DBCommandPriority.LOW);
+		}
+	}
+
+	/**
+	 * Takes the collected kills.
+	 *
+	 * @return number of kills by combination
+	 */
+	synchronized Map<KillKey, Integer> drain() {
+		final Map<KillKey, Integer> res = pending;
+		pending = new HashMap<KillKey, Integer>();
+		return res;
+	}
+}
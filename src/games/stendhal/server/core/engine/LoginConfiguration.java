@@ -0,0 +1,249 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+
+import games.stendhal.server.actions.admin.AdministrationAction;
+import marauroa.common.Configuration;
+import marauroa.common.io.UnicodeSupportingInputStreamReader;
+
+/**
+ * Settings that are applied on every login.
+ * <p>
+ * The super admins from admins.txt and the welcome message configured as
+ * "server_welcome" in marauroa.ini are kept in memory, so that logins do not
+ * have to read files or wait for a web server. If the welcome message is an
+ * http:// address, the first line of that address is used. {@link #start()}
+ * loads both once, and then reloads them in the background every
+ * "server_welcome_refresh" seconds (default {@value #DEFAULT_REFRESH_SECONDS}).
+ */
+public final class LoginConfiguration {
+	private static final Logger logger = Logger.getLogger(LoginConfiguration.class);
+
+	private static final String ADMIN_FILENAME = "data/conf/admins.txt";
+
+	/** default seconds between reloads */
+	private static final int DEFAULT_REFRESH_SECONDS = 300;
+
+	private static LoginConfiguration instance;
+
+	/** admin levels of the super admins, <code>null</code> if not loaded yet */
+	private volatile Map<String, Integer> adminLevels;
+
+	/** configured welcome message, <code>null</code> if there is none */
+	private volatile String welcomeMessage;
+
+	/** only log the first exception while reading the welcome URL */
+	private boolean firstWelcomeException = true;
+
+	private ScheduledExecutorService scheduler;
+
+	/**
+	 * Singleton access method.
+	 *
+	 * @return the instance
+	 */
+	public static synchronized LoginConfiguration get() {
+		if (instance == null) {
+			instance = new LoginConfiguration();
+		}
+		return instance;
+	}
+
+	/**
+	 * Creates a new LoginConfiguration. Use {@link #get()} outside of tests.
+	 */
+	LoginConfiguration() {
+		// singleton
+	}
+
+	/**
+	 * Loads the admin list and the welcome message, so that they are
+	 * available to the first logins, and schedules the regular reloads.
+	 */
+	public synchronized void start() {
+		if (scheduler != null) {
+			return;
+		}
+		loadAdmins();
+		loadWelcomeMessage();
+
+		int seconds = DEFAULT_REFRESH_SECONDS;
+		try {
+			final Configuration config = Configuration.getConfiguration();
+			if (config.has("server_welcome_refresh")) {
+				seconds = Math.max(1, Integer.parseInt(config.get("server_welcome_refresh").trim()));
+			}
+		} catch (final IOException | NumberFormatException e) {
+			logger.warn("Invalid server_welcome_refresh in marauroa.ini", e);
+		}
+
+		scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(final Runnable runnable) {
+				final Thread thread = new Thread(runnable, "LoginConfiguration");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		scheduler.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					loadWelcomeMessage();
+					loadAdmins();
+				} catch (final RuntimeException e) {
+					logger.error("Error refreshing login configuration", e);
+				}
+			}
+		}, seconds, seconds, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Gets the admin level a player is granted in admins.txt.
+	 *
+	 * @param name name of the player
+	 * @return admin level, or <code>null</code> if the player is not listed
+	 */
+	public Integer getAdminLevel(final String name) {
+		Map<String, Integer> levels = adminLevels;
+		if (levels == null) {
+			loadAdmins();
+			levels = adminLevels;
+		}
+		return levels.get(name);
+	}
+
+	/**
+	 * Gets the welcome message configured in marauroa.ini.
+	 *
+	 * @return welcome message, or <code>null</code> if none is configured or
+	 * 	the configured address has not been read yet
+	 */
+	public String getWelcomeMessage() {
+		return welcomeMessage;
+	}
+
+	/**
+	 * Reads admins.txt.
+	 */
+	void loadAdmins() {
+		final Map<String, Integer> levels = new HashMap<String, Integer>();
+		final InputStream is = LoginConfiguration.class.getClassLoader().getResourceAsStream(ADMIN_FILENAME);
+		if (is == null) {
+			if (adminLevels == null) {
+				logger.info(ADMIN_FILENAME + " does not exist.");
+			}
+			adminLevels = Collections.emptyMap();
+			return;
+		}
+
+		try {
+			final BufferedReader in = new BufferedReader(new UnicodeSupportingInputStreamReader(is));
+			try {
+				String line;
+				while ((line = in.readLine()) != null) {
+					final String[] tokens = line.split("=");
+					if (tokens.length >= 2) {
+						try {
+							levels.put(tokens[0].trim(), Integer.valueOf(tokens[1].trim()));
+						} catch (final NumberFormatException e) {
+							logger.warn("Invalid admin level in " + ADMIN_FILENAME + ": " + line);
+						}
+					} else {
+						levels.put(tokens[0].trim(), Integer.valueOf(AdministrationAction.REQUIRED_ADMIN_LEVEL_FOR_SUPER));
+					}
+				}
+			} finally {
+				in.close();
+			}
+		} catch (final IOException e) {
+			logger.error("Error loading admin names from: " + ADMIN_FILENAME, e);
+			if (adminLevels != null) {
+				// keep the last good list
+				return;
+			}
+		}
+		adminLevels = Collections.unmodifiableMap(levels);
+	}
+
+	/**
+	 * Reads the welcome message configured in marauroa.ini.
+	 */
+	void loadWelcomeMessage() {
+		try {
+			final Configuration config = Configuration.getConfiguration();
+			loadWelcomeMessage(config.has("server_welcome") ? config.get("server_welcome") : null);
+		} catch (final IOException e) {
+			logger.warn("Can't read marauroa.ini", e);
+		}
+	}
+
+	/**
+	 * Sets the welcome message, downloading it if it is an http:// address.
+	 *
+	 * @param msg configured message, or <code>null</code> if there is none
+	 */
+	void loadWelcomeMessage(final String msg) {
+		if (msg == null) {
+			welcomeMessage = null;
+			return;
+		}
+		if (!msg.startsWith("http://") && !msg.startsWith("https://")) {
+			welcomeMessage = msg;
+			return;
+		}
+		try {
+			welcomeMessage = download(msg);
+		} catch (final IOException e) {
+			// keep the last downloaded message
+			if (firstWelcomeException) {
+				logger.warn("Can't read server_welcome from " + msg, e);
+				firstWelcomeException = false;
+			}
+		}
+	}
+
+	private static String download(final String address) throws IOException {
+		final URL url = new URL(address);
+		HttpURLConnection.setFollowRedirects(false);
+		final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+		connection.setConnectTimeout(10000);
+		connection.setReadTimeout(10000);
+		try {
+			final BufferedReader br = new BufferedReader(
+					new InputStreamReader(connection.getInputStream(), "UTF-8"));
+			try {
+				return br.readLine();
+			} finally {
+				br.close();
+			}
+		} finally {
+			connection.disconnect();
+		}
+	}
+}
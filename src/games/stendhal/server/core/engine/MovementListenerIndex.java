@@ -0,0 +1,282 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import games.stendhal.server.core.events.MovementListener;
+
+/**
+ * Spatial index of the movement listeners of a zone.
+ * <p>
+ * Like {@link ZoneEntityIndex} the zone is split into square cells, and
+ * every listener is stored in all cells its area touches. A movement only
+ * has to look at the listeners of the cells around the old and new position.
+ * The listeners are returned in the order they have been registered.
+ */
+final class MovementListenerIndex {
+
+	/** width and height of a cell in tiles */
+	static final int CELL_SIZE = ZoneEntityIndex.CELL_SIZE;
+
+	/**
+	 * A registered listener.
+	 */
+	static final class Registration {
+		final MovementListener listener;
+		/** registration order */
+		final long sequence;
+		/** cell range (min x, min y, max x, max y) */
+		final int[] range = new int[4];
+
+		Registration(final MovementListener listener, final long sequence) {
+			this.listener = listener;
+			this.sequence = sequence;
+		}
+	}
+
+	private static final Comparator<Registration> REGISTRATION_ORDER = new Comparator<Registration>() {
+		@Override
+		public int compare(final Registration a, final Registration b) {
+			return Long.compare(a.sequence, b.sequence);
+		}
+	};
+
+	private int columns = 1;
+
+	private int rows = 1;
+
+	/** registrations by cell in registration order, cells are allocated on first use */
+	private List<List<Registration>> cells = createCells(1);
+
+	private final Map<MovementListener, Registration> registrations = new IdentityHashMap<MovementListener, Registration>();
+
+	private long nextSequence;
+
+	/**
+	 * Adjusts the grid to the zone size. The index is rebuilt if the size
+	 * has changed.
+	 *
+	 * @param width zone width
+	 * @param height zone height
+	 */
+	void resize(final int width, final int height) {
+		final int newColumns = Math.max(1, (width + CELL_SIZE - 1) / CELL_SIZE);
+		final int newRows = Math.max(1, (height + CELL_SIZE - 1) / CELL_SIZE);
+		if ((newColumns == columns) && (newRows == rows)) {
+			return;
+		}
+
+		columns = newColumns;
+		rows = newRows;
+		cells = createCells(columns * rows);
+		final List<Registration> sorted = new ArrayList<Registration>(registrations.values());
+		Collections.sort(sorted, REGISTRATION_ORDER);
+		for (final Registration registration : sorted) {
+			computeRange(registration.listener.getArea(), registration.range);
+			addToCells(registration);
+		}
+	}
+
+	/**
+	 * Adds a listener. Adding a registered listener again has no effect.
+	 *
+	 * @param listener listener
+	 */
+	void add(final MovementListener listener) {
+		if (registrations.containsKey(listener)) {
+			return;
+		}
+
+		final Registration registration = new Registration(listener, nextSequence++);
+		computeRange(listener.getArea(), registration.range);
+		registrations.put(listener, registration);
+		addToCells(registration);
+	}
+
+	/**
+	 * Removes a listener.
+	 *
+	 * @param listener listener
+	 */
+	void remove(final MovementListener listener) {
+		final Registration registration = registrations.remove(listener);
+		if (registration != null) {
+			removeFromCells(registration);
+		}
+	}
+
+	/**
+	 * Checks whether a listener is registered.
+	 *
+	 * @param listener listener
+	 * @return <code>true</code> if the listener is registered
+	 */
+	boolean contains(final MovementListener listener) {
+		return registrations.containsKey(listener);
+	}
+
+	/**
+	 * Moves a listener to the cells matching its current area.
+	 *
+	 * @param listener listener whose area has changed
+	 */
+	void update(final MovementListener listener) {
+		final Registration registration = registrations.get(listener);
+		if (registration == null) {
+			return;
+		}
+
+		final Rectangle2D area = listener.getArea();
+		final int minX = cellX(area.getX());
+		final int minY = cellY(area.getY());
+		final int maxX = cellX(area.getX() + area.getWidth());
+		final int maxY = cellY(area.getY() + area.getHeight());
+		final int[] range = registration.range;
+		if ((minX == range[0]) && (minY == range[1]) && (maxX == range[2]) && (maxY == range[3])) {
+			return;
+		}
+
+		removeFromCells(registration);
+		range[0] = minX;
+		range[1] = minY;
+		range[2] = maxX;
+		range[3] = maxY;
+		addToCells(registration);
+	}
+
+	/**
+	 * Collects the listeners whose cells overlap an area. The listeners still
+	 * have to check their exact area.
+	 *
+	 * @param x x coordinate of the area
+	 * @param y y coordinate of the area
+	 * @param width width of the area
+	 * @param height height of the area
+	 * @param result list to add the listeners to, in registration order
+	 */
+	void collect(final double x, final double y, final double width, final double height,
+			final List<MovementListener> result) {
+		final int minX = cellX(x);
+		final int minY = cellY(y);
+		final int maxX = cellX(x + width);
+		final int maxY = cellY(y + height);
+
+		if ((minX == maxX) && (minY == maxY)) {
+			// a single cell is already in registration order
+			final List<Registration> cell = cells.get(minY * columns + minX);
+			if (cell != null) {
+				for (int i = 0; i < cell.size(); i++) {
+					result.add(cell.get(i).listener);
+				}
+			}
+			return;
+		}
+
+		final List<Registration> found = new ArrayList<Registration>();
+		for (int cy = minY; cy <= maxY; cy++) {
+			for (int cx = minX; cx <= maxX; cx++) {
+				final List<Registration> cell = cells.get(cy * columns + cx);
+				if (cell == null) {
+					continue;
+				}
+				for (int i = 0; i < cell.size(); i++) {
+					final Registration registration = cell.get(i);
+					// listeners covering several cells are only taken once
+					if ((cx == Math.max(registration.range[0], minX)) && (cy == Math.max(registration.range[1], minY))) {
+						found.add(registration);
+					}
+				}
+			}
+		}
+		Collections.sort(found, REGISTRATION_ORDER);
+		for (final Registration registration : found) {
+			result.add(registration.listener);
+		}
+	}
+
+	/**
+	 * Gets the number of registered listeners.
+	 *
+	 * @return number of listeners
+	 */
+	int size() {
+		return registrations.size();
+	}
+
+	private void computeRange(final Rectangle2D area, final int[] range) {
+		range[0] = cellX(area.getX());
+		range[1] = cellY(area.getY());
+		range[2] = cellX(area.getX() + area.getWidth());
+		range[3] = cellY(area.getY() + area.getHeight());
+	}
+
+	private void addToCells(final Registration registration) {
+		final int[] range = registration.range;
+		for (int cy = range[1]; cy <= range[3]; cy++) {
+			for (int cx = range[0]; cx <= range[2]; cx++) {
+				final int index = cy * columns + cx;
+				List<Registration> cell = cells.get(index);
+				if (cell == null) {
+					cell = new ArrayList<Registration>(4);
+					cells.set(index, cell);
+				}
+				// keep the registration order, moved listeners may be older
+				int pos = cell.size();
+				while ((pos > 0) && (cell.get(pos - 1).sequence > registration.sequence)) {
+					pos--;
+				}
+				cell.add(pos, registration);
+			}
+		}
+	}
+
+	private void removeFromCells(final Registration registration) {
+		final int[] range = registration.range;
+		for (int cy = range[1]; cy <= range[3]; cy++) {
+			for (int cx = range[0]; cx <= range[2]; cx++) {
+				final List<Registration> cell = cells.get(cy * columns + cx);
+				if (cell != null) {
+					cell.remove(registration);
+				}
+			}
+		}
+	}
+
+	private int cellX(final double x) {
+		return clamp((int) Math.floor(x / CELL_SIZE), columns);
+	}
+
+	private int cellY(final double y) {
+		return clamp((int) Math.floor(y / CELL_SIZE), rows);
+	}
+
+	private static int clamp(final int value, final int count) {
+		if (value < 0) {
+			return 0;
+		}
+		if (value >= count) {
+			return count - 1;
+		}
+		return value;
+	}
+
+	private static List<List<Registration>> createCells(final int count) {
+		return new ArrayList<List<Registration>>(Collections.nCopies(count, (List<Registration>) null));
+	}
+}
@@ -35,6 +35,9 @@ public class PlayerList {
 
 	private final Map<String, Player> players;
 
+	/** players by the buddies they list */
+	private final BuddyIndex buddyIndex = new BuddyIndex();
+
 	/**
 	 * Retrieve from this list a player specified by its name.
 	 *
@@ -96,6 +99,41 @@ public class PlayerList {
 		}
 	}
 
+	/**
+	 * Calls the execute method of task for each player in this list that has
+	 * a player on the buddy list.
+	 *
+	 * @param name
+	 *            name of the buddy
+	 * @param task
+	 *            the task to execute
+	 */
+	public void forBuddyWatchersExecute(final String name, final Task<Player> task) {
+		for (Player player : buddyIndex.getWatchers(name)) {
+			task.execute(player);
+		}
+	}
+
+	/**
+	 * Updates the buddy index after a player in this list has added a buddy.
+	 *
+	 * @param player player
+	 * @param buddy name of the buddy
+	 */
+	public void onBuddyAdded(final Player player, final String buddy) {
+		buddyIndex.addBuddy(player, buddy);
+	}
+
+	/**
+	 * Updates the buddy index after a player in this list has removed a buddy.
+	 *
+	 * @param player player
+	 * @param buddy name of the buddy
+	 */
+	public void onBuddyRemoved(final Player player, final String buddy) {
+		buddyIndex.removeBuddy(player, buddy);
+	}
+
 	/**
 	 * The amount of currently logged in players.
 	 *
@@ -114,7 +152,11 @@ public class PlayerList {
 		final String playerName = player.getName();
 
 		if (playerName != null) {
-			players.put(playerName.toLowerCase(), player);
+			final Player previous = players.put(playerName.toLowerCase(), player);
+			if (previous != null) {
+				buddyIndex.remove(previous);
+			}
+			buddyIndex.add(player);
 		} else {
 			throw new IllegalArgumentException("can't add player without name");
 		}
@@ -130,7 +172,12 @@ public class PlayerList {
 		final String playerName = player.getName();
 
 		if (playerName != null) {
-			return players.remove(playerName.toLowerCase()) != null;
+			final Player removed = players.remove(playerName.toLowerCase());
+			if (removed == null) {
+				return false;
+			}
+			buddyIndex.remove(removed);
+			return true;
 		} else {
 			throw new IllegalArgumentException("can't remove player without name");
 		}
@@ -0,0 +1,192 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Static files requested by the web client, like maps and tilesets.
+ * <p>
+ * Every zone change makes web clients request the zone map and its tilesets,
+ * so the content of small files is kept in memory instead of being read from
+ * the class path again. Files larger than the entry limit are streamed as
+ * before, and the least recently used files are dropped when the total size
+ * exceeds the memory limit.
+ */
+final class ResourceStore {
+
+	/** default largest file to keep in memory */
+	static final int DEFAULT_MAX_ENTRY_SIZE = 2 * 1024 * 1024;
+
+	/** default memory limit for all files */
+	static final long DEFAULT_MAX_TOTAL_SIZE = 64L * 1024 * 1024;
+
+	/** content types by lower case file extension */
+	private static final Map<String, String> MIME_TYPES = new HashMap<String, String>();
+
+	static {
+		MIME_TYPES.put("tmx", "text/xml");
+		MIME_TYPES.put("tsx", "text/xml");
+		MIME_TYPES.put("xml", "text/xml");
+		MIME_TYPES.put("txt", "text/plain");
+		MIME_TYPES.put("html", "text/html");
+		MIME_TYPES.put("htm", "text/html");
+		MIME_TYPES.put("css", "text/css");
+		MIME_TYPES.put("js", "text/javascript");
+		MIME_TYPES.put("json", "application/json");
+		MIME_TYPES.put("png", "image/png");
+		MIME_TYPES.put("gif", "image/gif");
+		MIME_TYPES.put("jpg", "image/jpeg");
+		MIME_TYPES.put("jpeg", "image/jpeg");
+		MIME_TYPES.put("webp", "image/webp");
+		MIME_TYPES.put("svg", "image/svg+xml");
+		MIME_TYPES.put("ico", "image/x-icon");
+		MIME_TYPES.put("ogg", "audio/ogg");
+		MIME_TYPES.put("oga", "audio/ogg");
+		MIME_TYPES.put("mp3", "audio/mpeg");
+		MIME_TYPES.put("wav", "audio/wav");
+		MIME_TYPES.put("flac", "audio/flac");
+		MIME_TYPES.put("ttf", "font/ttf");
+		MIME_TYPES.put("otf", "font/otf");
+		MIME_TYPES.put("woff", "font/woff");
+		MIME_TYPES.put("woff2", "font/woff2");
+	}
+
+	private final int maxEntrySize;
+
+	private final long maxTotalSize;
+
+	/** file contents by path, least recently used first */
+	private final LinkedHashMap<String, byte[]> contents = new LinkedHashMap<String, byte[]>(256, 0.75f, true);
+
+	private long totalSize;
+
+	/**
+	 * Creates a ResourceStore with the default limits.
+	 */
+	ResourceStore() {
+		this(DEFAULT_MAX_ENTRY_SIZE, DEFAULT_MAX_TOTAL_SIZE);
+	}
+
+	/**
+	 * Creates a new ResourceStore.
+	 *
+	 * @param maxEntrySize largest file to keep in memory
+	 * @param maxTotalSize memory limit for all files
+	 */
+	ResourceStore(final int maxEntrySize, final long maxTotalSize) {
+		this.maxEntrySize = maxEntrySize;
+		this.maxTotalSize = maxTotalSize;
+	}
+
+	/**
+	 * Gets the content type of a file.
+	 *
+	 * @param path file name
+	 * @return content type, or <code>null</code> if the extension is unknown
+	 */
+	static String getMimeType(final String path) {
+		final int pos = path.lastIndexOf('.');
+		if ((pos < 0) || (pos < path.lastIndexOf('/'))) {
+			return null;
+		}
+		return MIME_TYPES.get(path.substring(pos + 1).toLowerCase(Locale.ENGLISH));
+	}
+
+	/**
+	 * Opens a file from the class path.
+	 *
+	 * @param path path relative to the class path root
+	 * @return stream, or <code>null</code> if the file does not exist
+	 * @throws IOException in case of an error reading the file
+	 */
+	InputStream open(final String path) throws IOException {
+		byte[] data;
+		synchronized (this) {
+			data = contents.get(path);
+		}
+		if (data != null) {
+			return new ByteArrayInputStream(data);
+		}
+
+		final URL url = ResourceStore.class.getClassLoader().getResource(path);
+		if (url == null) {
+			return null;
+		}
+		final URLConnection connection = url.openConnection();
+		final long length = connection.getContentLengthLong();
+		final InputStream in = connection.getInputStream();
+		if ((length < 0) || (length > maxEntrySize)) {
+			return in;
+		}
+
+		try {
+			data = readFully(in, (int) length);
+		} finally {
+			in.close();
+		}
+		store(path, data);
+		return new ByteArrayInputStream(data);
+	}
+
+	private synchronized void store(final String path, final byte[] data) {
+		final byte[] old = contents.put(path, data);
+		if (old != null) {
+			totalSize -= old.length;
+		}
+		totalSize += data.length;
+
+		final Iterator<byte[]> itr = contents.values().iterator();
+		while ((totalSize > maxTotalSize) && itr.hasNext()) {
+			totalSize -= itr.next().length;
+			itr.remove();
+		}
+	}
+
+	private static byte[] readFully(final InputStream in, final int expectedLength) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream(expectedLength);
+		final byte[] buffer = new byte[8192];
+		int count;
+		while ((count = in.read(buffer)) > -1) {
+			out.write(buffer, 0, count);
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * Gets the number of files kept in memory.
+	 *
+	 * @return number of files
+	 */
+	synchronized int size() {
+		return contents.size();
+	}
+
+	/**
+	 * Gets the memory used by the files.
+	 *
+	 * @return size in bytes
+	 */
+	synchronized long getTotalSize() {
+		return totalSize;
+	}
+}
@@ -266,4 +266,14 @@ public class SingletonRepository {
 	public static CloneManager getCloneManager() {
 		return CloneManager.get();
 	}
+
+	/**
+	 * Retrieves the KillLogger.
+	 *
+	 * @return
+	 *     KillLogger instance.
+	 */
+	public static KillLogger getKillLogger() {
+		return KillLogger.get();
+	}
 }
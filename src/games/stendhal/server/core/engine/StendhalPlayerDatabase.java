@@ -1,5 +1,5 @@
 /***************************************************************************
- *                   (C) Copyright 2003-2023 - Stendhal                    *
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
  ***************************************************************************
  ***************************************************************************
  *                                                                         *
@@ -254,6 +254,13 @@ public class StendhalPlayerDatabase {
 		if (!transaction.doesColumnExist("shopinventoryinfo", "trade_for")) {
 			transaction.execute("ALTER TABLE shopinventoryinfo ADD COLUMN (trade_for VARCHAR(1000));", null);
 		}
+
+		// 1.49: content hash of the website dumps
+		for (String table : new String[] {"creatureinfo", "iteminfo", "npcs", "shopinfo", "zoneinfo"}) {
+			if (!transaction.doesColumnExist(table, "content_hash")) {
+				transaction.execute("ALTER TABLE " + table + " ADD COLUMN (content_hash VARCHAR(64));", null);
+			}
+		}
 	}
 
 
@@ -11,18 +11,17 @@
  ***************************************************************************/
 package games.stendhal.server.core.engine;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
@@ -51,6 +50,7 @@ import games.stendhal.server.entity.player.AfkTimeouter;
 import games.stendhal.server.entity.player.Player;
 import games.stendhal.server.events.PlayerLoggedOnEvent;
 import games.stendhal.server.events.PlayerLoggedOutEvent;
+import games.stendhal.server.events.PlayersOnlineEvent;
 import games.stendhal.server.extension.StendhalServerExtension;
 import marauroa.common.Configuration;
 import marauroa.common.Pair;
@@ -59,7 +59,6 @@ import marauroa.common.game.CharacterResult;
 import marauroa.common.game.IRPZone;
 import marauroa.common.game.RPAction;
 import marauroa.common.game.RPObject;
-import marauroa.common.io.UnicodeSupportingInputStreamReader;
 import marauroa.server.db.command.DBCommand;
 import marauroa.server.db.command.DBCommandPriority;
 import marauroa.server.db.command.DBCommandQueue;
@@ -82,15 +81,21 @@ public class StendhalRPRuleProcessor implements IRPRuleProcessor {
 	/** The Singleton instance. */
 	protected static StendhalRPRuleProcessor instance;
 
-	/** only log the first exception while reading welcome URL. */
-	private static boolean firstWelcomeException = true;
-	/** list of super admins read from admins.list. */
-	private static Map<String, String> adminNames;
 	/** welcome message unless overwritten by an URL */
 	private static String welcomeMessage = "Welcome to Stendhal. Need help? #https://stendhalgame.org/player-guide/ask-for-help.html - please report problems, suggestions and bugs. Remember to keep your password completely secret, never tell to another friend, player, or admin.";
 
+	/** logins taking longer than this are logged, in nanoseconds */
+	private static final long SLOW_LOGIN_NANOS = 100000000L;
+
 	private RPServerManager rpman;
 
+	/** number of logins handled by onInit */
+	private long loginCount;
+	/** total time spent in onInit in nanoseconds */
+	private long loginTime;
+	/** longest time spent in onInit in nanoseconds */
+	private long maxLoginTime;
+
 	/** a list of online players */
 	protected PlayerList onlinePlayers;
 	private final List<Player> playersRmText;
@@ -104,7 +109,23 @@ public class StendhalRPRuleProcessor implements IRPRuleProcessor {
 	/** a list of zone that should be removed (like vaults) */
 	private final List<StendhalRPZone> zonesToRemove = new LinkedList<StendhalRPZone>();
 
-	private LinkedList<marauroa.server.game.rp.GameEvent> gameEvents = new LinkedList<>();
+	/** game events to write, added to by the zone logic in parallel */
+	private final Queue<marauroa.server.game.rp.GameEvent> gameEvents = new ConcurrentLinkedQueue<>();
+
+	/** value of gameEventFlushTurn if no write of the game events is scheduled */
+	private static final int NO_GAME_EVENT_FLUSH = Integer.MIN_VALUE;
+
+	/** turns after which a scheduled write of the game events that did not run is considered lost */
+	private static final int GAME_EVENT_FLUSH_LOST_TURNS = 100;
+
+	/** turn in which the write of the game events was scheduled */
+	private final AtomicInteger gameEventFlushTurn = new AtomicInteger(NO_GAME_EVENT_FLUSH);
+
+	/** static files for the web client */
+	private final ResourceStore resourceStore = new ResourceStore();
+
+	/** executes the zone logic in parallel, <code>null</code> for sequential execution */
+	private ZoneTurnExecutor zoneExecutor;
 
 
 	/**
@@ -171,6 +192,9 @@ public class StendhalRPRuleProcessor implements IRPRuleProcessor {
 			/* actions registered to be executed at end of server startup */
 			CachedActionManager.get().run();
 
+			/* admins and welcome message are reloaded in the background */
+			LoginConfiguration.get().start();
+
 			final Configuration config = Configuration.getConfiguration();
 			try {
 				final String[] extensionsToLoad = config.get("server_extension").split(",");
@@ -189,6 +213,12 @@ public class StendhalRPRuleProcessor implements IRPRuleProcessor {
 				logger.info("No server extensions configured in ini file.");
 			}
 
+			final int zoneThreads = config.getInt("parallel_zone_logic_threads", 0);
+			if (zoneThreads > 1) {
+				logger.info("Running zone logic in " + zoneThreads + " threads");
+				zoneExecutor = new ZoneTurnExecutor(zoneThreads);
+			}
+
 			// Remove online info from database.
 			DAORegister.get().get(StendhalWebsiteDAO.class).clearOnlineStatus();
 		} catch (final Exception e) {
@@ -223,7 +253,12 @@ public class StendhalRPRuleProcessor implements IRPRuleProcessor {
 	 * @param killer
 	 */
 	public void killRPEntity(final RPEntity entity, final Entity killer) {
-		entityToKill.add(new Pair<RPEntity, Entity>(entity, killer));
+		ZoneTurnExecutor.runOrDefer(new Runnable() {
+			@Override
+			public void run() {
+				entityToKill.add(new Pair<RPEntity, Entity>(entity, killer));
+			}
+		});
 	}
 
 	/**
@@ -313,6 +348,12 @@ public class StendhalRPRuleProcessor implements IRPRuleProcessor {
 			logger.error("error in beginTurn", e);
 		}
 
+		try {
+			updateZoneDormancy();
+		} catch (final Exception e) {
+			logger.error("error in beginTurn", e);
+		}
+
 		try {
 			executeZonePreLogic();
 		} catch (final Exception e) {
@@ -374,10 +415,58 @@ public class StendhalRPRuleProcessor implements IRPRuleProcessor {
 		});
 	}
 
+	/**
+	 * Suspends the logic of zones that have been empty for a while, and
+	 * records the number of active and dormant zones.
+	 */
+	protected void updateZoneDormancy() {
+		final int turn = getTurn();
+		int active = 0;
+		int dormant = 0;
+		for (final IRPZone zoneI : SingletonRepository.getRPWorld()) {
+			if (((StendhalRPZone) zoneI).updateDormancy(turn)) {
+				dormant++;
+			} else {
+				active++;
+			}
+		}
+		Statistics.getStatistics().set("Zones active", active);
+		Statistics.getStatistics().set("Zones dormant", dormant);
+	}
+
 	protected void executeZonePreLogic() {
+		if (zoneExecutor != null) {
+			zoneExecutor.execute(getActiveZones(), new Task<StendhalRPZone>() {
+				@Override
+				public void execute(final StendhalRPZone zone) {
+					zone.preLogic();
+				}
+			});
+			return;
+		}
 		for (final IRPZone zoneI : SingletonRepository.getRPWorld()) {
-			((StendhalRPZone) zoneI).preLogic();
+			final StendhalRPZone zone = (StendhalRPZone) zoneI;
+			if (!zone.isDormant()) {
+				zone.preLogic();
+			}
+		}
+	}
+
+	/**
+	 * Gets the zones that are not dormant, in the iteration order of the
+	 * world.
+	 *
+	 * @return list of zones
+	 */
+	private List<StendhalRPZone> getActiveZones() {
+		final List<StendhalRPZone> zones = new ArrayList<StendhalRPZone>();
+		for (final IRPZone zoneI : SingletonRepository.getRPWorld()) {
+			final StendhalRPZone zone = (StendhalRPZone) zoneI;
+			if (!zone.isDormant()) {
+				zones.add(zone);
+			}
 		}
+		return zones;
 	}
 
 	protected void handleKilledEntities() {
@@ -405,9 +494,20 @@ public class StendhalRPRuleProcessor implements IRPRuleProcessor {
 
 			SingletonRepository.getTurnNotifier().logic(currentTurn);
 
-			for (final IRPZone zoneI : SingletonRepository.getRPWorld()) {
-				final StendhalRPZone zone = (StendhalRPZone) zoneI;
-				zone.logic();
+			if (zoneExecutor != null) {
+				zoneExecutor.execute(getActiveZones(), new Task<StendhalRPZone>() {
+					@Override
+					public void execute(final StendhalRPZone zone) {
+						zone.logic();
+					}
+				});
+			} else {
+				for (final IRPZone zoneI : SingletonRepository.getRPWorld()) {
+					final StendhalRPZone zone = (StendhalRPZone) zoneI;
+					if (!zone.isDormant()) {
+						zone.logic();
+					}
+				}
 			}
 
 			// run registered object's logic method for this turn
@@ -418,59 +518,40 @@ public class StendhalRPRuleProcessor implements IRPRuleProcessor {
 	}
 
 	/**
-	 * reads the admins from admins.list.
+	 * grants the admin level from admins.txt.
 	 *
 	 * @param player
 	 *            Player to check for super admin status.
 	 */
-	private static void readAdminsFromFile(final Player player) {
-		synchronized(StendhalRPRuleProcessor.class) {
-			if (adminNames == null) {
-				Map<String, String> tempAdminNames = new HashMap<String, String>();
-
-				String adminFilename = "data/conf/admins.txt";
-
-				try {
-					InputStream is = player.getClass().getClassLoader().getResourceAsStream(
-							adminFilename);
-
-					if (is == null) {
-						logger.info(adminFilename + " does not exist.");
-						return;
-					}
-
-					final BufferedReader in = new BufferedReader(
-							new UnicodeSupportingInputStreamReader(is));
-					try {
-						String line;
-						while ((line = in.readLine()) != null) {
-							String[] tokens = line.split("=");
-							if (tokens.length >= 2) {
-								tempAdminNames.put(tokens[0].trim(), tokens[1].trim());
-							} else {
-								tempAdminNames.put(tokens[0].trim(), Integer.toString(AdministrationAction.REQUIRED_ADMIN_LEVEL_FOR_SUPER));
-							}
-						}
-					} catch (final Exception e) {
-						logger.error("Error loading admin names from: "+ adminFilename, e);
-					} finally {
-						in.close();
-					}
-
-					adminNames = tempAdminNames;
-				} catch (final IOException e) {
-					logger.error("Error loading admin names from: " + adminFilename, e);
-				}
-			}
-		}
-
-		if (adminNames.get(player.getName()) != null) {
-			player.setAdminLevel(Integer.parseInt(adminNames.get(player.getName())));
+	private static void grantSuperAdminLevel(final Player player) {
+		final Integer level = LoginConfiguration.get().getAdminLevel(player.getName());
+		if (level != null) {
+			player.setAdminLevel(level.intValue());
 		}
 	}
 
 	@Override
 	public synchronized boolean onInit(final RPObject object) {
+		final long start = System.nanoTime();
+		try {
+			return initPlayer(object);
+		} finally {
+			final long duration = System.nanoTime() - start;
+			loginCount++;
+			loginTime += duration;
+			maxLoginTime = Math.max(maxLoginTime, duration);
+			final Statistics stats = Statistics.getStatistics();
+			stats.set("Logins handled", (int) loginCount);
+			stats.set("Login time average ms", (int) (loginTime / loginCount / 1000000));
+			stats.set("Login time max ms", (int) (maxLoginTime / 1000000));
+			if (duration > SLOW_LOGIN_NANOS) {
+				logger.warn("Login of " + ((object != null) ? object.get("name") : null) + " took "
+						+ duration / 1000000 + " ms");
+			}
+		}
+	}
+
+	private boolean initPlayer(final RPObject object) {
 		try {
 			if (object == null) {
 				logger.error("onInit: object = null", new Throwable());
@@ -502,7 +583,7 @@ public class StendhalRPRuleProcessor implements IRPRuleProcessor {
 				SingletonRepository.getLoginNotifier().onPlayerLoggedIn(player);
 				TutorialNotifier.login(player);
 
-				readAdminsFromFile(player);
+				grantSuperAdminLevel(player);
 				welcome(player);
 
 				// expire outfits
@@ -531,39 +612,16 @@ public class StendhalRPRuleProcessor implements IRPRuleProcessor {
 	/**
 	 * send a welcome message to the player which can be configured in
 	 * marauroa.ini file as "server_welcome". If the value is an http:// address,
-	 * the first line of that address is read and used as the message
+	 * the first line of that address is used as the message. It is read in
+	 * the background by {@link LoginConfiguration}.
 	 *
 	 * @param player
 	 *            Player
 	 */
 	static void welcome(final Player player) {
-		String msg = welcomeMessage;
-		try {
-			final Configuration config = Configuration.getConfiguration();
-			if (config.has("server_welcome")) {
-				msg = config.get("server_welcome");
-				if (msg.startsWith("http://") || msg.startsWith("https://")) {
-					final URL url = new URL(msg);
-					HttpURLConnection.setFollowRedirects(false);
-					final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-					try {
-						final BufferedReader br = new BufferedReader(
-							new InputStreamReader(connection.getInputStream(), "UTF-8"));
-						try {
-							msg = br.readLine();
-						} finally {
-							br.close();
-						}
-					} finally {
-						connection.disconnect();
-					}
-				}
-			}
-		} catch (final IOException e) {
-			if (firstWelcomeException) {
-				logger.warn("Can't read server_welcome from marauroa.ini", e);
-				firstWelcomeException = false;
-			}
+		String msg = LoginConfiguration.get().getWelcomeMessage();
+		if (msg == null) {
+			msg = welcomeMessage;
 		}
 		if (msg != null) {
 			/*
@@ -702,58 +760,59 @@ public class StendhalRPRuleProcessor implements IRPRuleProcessor {
 	}
 
 	/**
-	 * Notifies buddies about going online/offline.
+	 * Notifies buddies about going online/offline. Only the players who have
+	 * the player on their buddy list are visited.
 	 *
 	 * @param isOnline did the player login?
 	 * @param playerToNotifyAbout name of the player
 	 */
 	public void notifyOnlineStatus(final boolean isOnline, final Player playerToNotifyAbout) {
 		if (instance != null) {
-			if (isOnline) {
-				SingletonRepository.getRuleProcessor().getOnlinePlayers().forAllPlayersExecute(new Task<Player>() {
-					@Override
-					public void execute(final Player player) {
-						player.notifyOnline(playerToNotifyAbout.getName());
-					}
-				});
-
-			} else {
-				SingletonRepository.getRuleProcessor().getOnlinePlayers().forAllPlayersExecute(new Task<Player>() {
-					@Override
-					public void execute(final Player player) {
-						player.notifyOffline(playerToNotifyAbout.getName());
+			final String name = playerToNotifyAbout.getName();
+			SingletonRepository.getRuleProcessor().getOnlinePlayers().forBuddyWatchersExecute(name, new Task<Player>() {
+				@Override
+				public void execute(final Player player) {
+					if (isOnline) {
+						player.notifyOnline(name);
+					} else {
+						player.notifyOffline(name);
 					}
-				});
-			}
+				}
+			});
 		}
 	}
 
 	/**
-	 * Update all player's lists of online player names on login of a new player
+	 * Update all player's lists of online player names on login of a new player.
+	 * The new player gets the names of all visible players in one event.
 	 *
 	 * @param playerToNotifyAbout
 	 */
 	private void updatePlayerNameListForPlayersOnLogin(final Player playerToNotifyAbout) {
+		final List<String> roster = new ArrayList<String>();
 		SingletonRepository.getRuleProcessor().getOnlinePlayers().forAllPlayersExecute(new Task<Player>() {
 			@Override
 			public void execute(final Player player) {
-				if(playerToNotifyAbout.isGhost()) {
-					playerToNotifyAbout.addEvent(new PlayerLoggedOnEvent(player.getName()));
-					playerToNotifyAbout.notifyWorldAboutChanges();
-					if (player.isGhost() && (player != playerToNotifyAbout)) {
+				if (player == playerToNotifyAbout) {
+					roster.add(player.getName());
+				} else if (playerToNotifyAbout.isGhost()) {
+					roster.add(player.getName());
+					if (player.isGhost()) {
 						player.addEvent(new PlayerLoggedOnEvent(playerToNotifyAbout.getName()));
 						player.notifyWorldAboutChanges();
 					}
 				} else {
 					player.addEvent(new PlayerLoggedOnEvent(playerToNotifyAbout.getName()));
 					player.notifyWorldAboutChanges();
-					if (!player.isGhost() && (player != playerToNotifyAbout)) {
-						playerToNotifyAbout.addEvent(new PlayerLoggedOnEvent(player.getName()));
-						playerToNotifyAbout.notifyWorldAboutChanges();
+					if (!player.isGhost()) {
+						roster.add(player.getName());
 					}
 				}
 			}
 		});
+		Collections.sort(roster);
+		playerToNotifyAbout.addEvent(new PlayersOnlineEvent(roster));
+		playerToNotifyAbout.notifyWorldAboutChanges();
 	}
 
 	/**
@@ -777,7 +836,12 @@ public class StendhalRPRuleProcessor implements IRPRuleProcessor {
 	 * @param zone StendhalRPZone to remove
 	 */
 	public void removeZone(final StendhalRPZone zone) {
-		zonesToRemove.add(zone);
+		ZoneTurnExecutor.runOrDefer(new Runnable() {
+			@Override
+			public void run() {
+				zonesToRemove.add(zone);
+			}
+		});
 	}
 
 	/**
@@ -808,20 +872,44 @@ public class StendhalRPRuleProcessor implements IRPRuleProcessor {
 	public void logGameEvent(String source, String event, String... params) {
 		this.gameEvents.add(new marauroa.server.game.rp.GameEvent(source, event, params));
 
-		// we collect one second of game events and write them as batch to the database
-		if (this.gameEvents.size() == 1) {
+		// we collect one second of game events and write them as batch to the database.
+		// A write that did not happen long after it was due is lost, for example
+		// because its turn listener was removed, and is scheduled again.
+		final int turn = TurnNotifier.get().getCurrentTurnForDebugging();
+		final int scheduled = gameEventFlushTurn.get();
+		if (((scheduled == NO_GAME_EVENT_FLUSH) || (turn - scheduled > GAME_EVENT_FLUSH_LOST_TURNS))
+				&& gameEventFlushTurn.compareAndSet(scheduled, turn)) {
 			TurnNotifier.get().notifyInSeconds(1, new TurnListener() {
 				@Override
 				public void onTurnReached(int currentTurn) {
-					DBCommand command = new LogGameEventCommand(gameEvents);
-					gameEvents.clear();
-					DBCommandQueue.get().enqueue(command, DBCommandPriority.LOW);
-
+					List<marauroa.server.game.rp.GameEvent> events = drainGameEvents();
+					if (!events.isEmpty()) {
+						DBCommand command = new LogGameEventCommand(events);
+						DBCommandQueue.get().enqueue(command, DBCommandPriority.LOW);
+					}
 				}
 			});
 		}
 	}
 
+	/**
+	 * takes the game events that have not been written yet, so that the
+	 * next logged event schedules a new write
+	 *
+	 * @return game events
+	 */
+	List<marauroa.server.game.rp.GameEvent> drainGameEvents() {
+		// reset before polling, so that no event added meanwhile is left behind
+		gameEventFlushTurn.set(NO_GAME_EVENT_FLUSH);
+		List<marauroa.server.game.rp.GameEvent> events = new ArrayList<>();
+		marauroa.server.game.rp.GameEvent gameEvent = gameEvents.poll();
+		while (gameEvent != null) {
+			events.add(gameEvent);
+			gameEvent = gameEvents.poll();
+		}
+		return events;
+	}
+
 	/**
 	 * gets the content type for the requested resource
 	 *
@@ -830,14 +918,7 @@ public class StendhalRPRuleProcessor implements IRPRuleProcessor {
 	 */
 	@Override
 	public String getMimeTypeForResource(String resource) {
-		if (resource.endsWith(".tmx")) {
-			return "text/xml";
-		} else if (resource.endsWith(".tmx")) {
-			return "audio/ogg";
-		} else if (resource.endsWith(".png")) {
-			return "image/png";
-		}
-		return null;
+		return ResourceStore.getMimeType(resource);
 	}
 
 	/**
@@ -848,12 +929,20 @@ public class StendhalRPRuleProcessor implements IRPRuleProcessor {
 	 */
 	@Override
 	public InputStream getResource(String resource) {
+		String path = null;
 		if (resource.startsWith("/tiled") || resource.startsWith("/data")) {
-			return StendhalRPRuleProcessor.class.getClassLoader().getResourceAsStream(resource.substring(1));
+			path = resource.substring(1);
+		} else if (resource.startsWith("/tileset")) {
+			path = "tiled" + resource;
 		}
-		if (resource.startsWith("/tileset")) {
-			return StendhalRPRuleProcessor.class.getClassLoader().getResourceAsStream("tiled" + resource);
+		if (path == null) {
+			return null;
+		}
+		try {
+			return resourceStore.open(path);
+		} catch (final IOException e) {
+			logger.error("Error reading resource " + resource, e);
+			return null;
 		}
-		return null;
 	}
 }
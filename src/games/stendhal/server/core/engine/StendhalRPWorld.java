@@ -170,6 +170,8 @@ public class StendhalRPWorld extends RPWorld {
 	@Override
 	public void onFinish() {
 		super.onFinish();
+		SingletonRepository.getKillLogger().flush();
+		ItemLogBuffer.get().flush();
 		new GameEvent("server system", "shutdown").raise();
 		try {
 			//TODO: find a more appropriate way to do this
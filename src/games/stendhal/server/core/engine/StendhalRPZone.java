@@ -21,6 +21,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -47,6 +48,7 @@ import games.stendhal.common.tiled.TileSetDefinition;
 import games.stendhal.server.core.config.zone.TeleportationRules;
 import games.stendhal.server.core.events.MovementListener;
 import games.stendhal.server.core.events.ZoneEnterExitListener;
+import games.stendhal.server.core.pathfinder.ResistanceLayer;
 import games.stendhal.server.core.rp.StendhalRPAction;
 import games.stendhal.server.core.rule.EntityManager;
 import games.stendhal.server.entity.ActiveEntity;
@@ -122,6 +124,24 @@ public class StendhalRPZone extends MarauroaRPZone {
 
 	private final List<Player> players;
 
+	/**
+	 * Number of turns without players or their friends, after which the zone
+	 * logic is suspended.
+	 */
+	public static final int DORMANCY_TURNS = 200;
+
+	/** <code>true</code> while the zone logic is suspended. */
+	private volatile boolean dormant;
+
+	/** The last turn the zone had players or their friends in it. */
+	private int lastOccupiedTurn;
+
+	/** The turn the zone became dormant. */
+	private int dormantSince;
+
+	/** The turn of the latest dormancy check. */
+	private int dormancyCheckTurn;
+
 	/**
 	 * The blood spills.
 	 */
@@ -134,7 +154,13 @@ public class StendhalRPZone extends MarauroaRPZone {
 	/**
 	 * Objects that implement MovementListener.
 	 */
-	private final List<MovementListener> movementListeners;
+	private final MovementListenerIndex movementListeners = new MovementListenerIndex();
+
+	/** Number of movement notifications. */
+	private long movementNotifications;
+
+	/** Number of movement listener areas checked for the notifications. */
+	private long movementListenerChecks;
 
 
 	private final List<ZoneEnterExitListener> zoneListeners;
@@ -146,6 +172,15 @@ public class StendhalRPZone extends MarauroaRPZone {
 	 */
 	private final Set<Item> itemsOnGround;
 
+	/** Spatial index of the entities for position based lookups. */
+	private final ZoneEntityIndex entityIndex = new ZoneEntityIndex();
+
+	/** Spatial index of the players and their friends, for finding enemies of creatures. */
+	private final ZoneEntityIndex friendIndex = new ZoneEntityIndex();
+
+	/** Resistance of the stopped entities for the path finder. */
+	private final ResistanceLayer resistanceLayer = new ResistanceLayer();
+
 	/** contains data to if a certain area is walkable. */
 	public CollisionDetection collisionMap;
 
@@ -183,7 +218,6 @@ public class StendhalRPZone extends MarauroaRPZone {
 		players = new LinkedList<Player>();
 		playersAndFriends = new LinkedList<RPEntity>();
 
-		movementListeners = new LinkedList<MovementListener>();
 		zoneListeners = new LinkedList<ZoneEnterExitListener>();
 
 		collisionMap = new CollisionDetection();
@@ -362,15 +396,23 @@ public class StendhalRPZone extends MarauroaRPZone {
 	}
 
 	public void addLayer(final String name, final LayerDefinition layer) throws IOException {
-		final byte[] byteContents = layer.encode();
-		addToContent(name, byteContents);
+		addContent(name, layer.encode());
 	}
 
 	public void addTilesets(final String name, final List<TileSetDefinition> tilesets)
 			throws IOException {
-		/*
-		 * Serialize the tileset data to send it to client.
-		 */
+		addContent(name, encodeTilesets(tilesets));
+	}
+
+	/**
+	 * Serializes the tileset data to send it to client. This does not touch
+	 * any zone, so the zone loader calls it on its worker threads.
+	 *
+	 * @param tilesets tilesets of the map
+	 * @return serialized tilesets
+	 * @throws IOException in case of an serialization error
+	 */
+	public static byte[] encodeTilesets(final List<TileSetDefinition> tilesets) throws IOException {
 		final ByteArrayOutputStream array = new ByteArrayOutputStream();
 		final OutputSerializer out = new OutputSerializer(array);
 
@@ -390,16 +432,17 @@ public class StendhalRPZone extends MarauroaRPZone {
 			}
 		}
 
-		addToContent(name, array.toByteArray());
+		return array.toByteArray();
 	}
 
 	/**
 	 * Creates a new TransferContent for the specified data and adds it to the
 	 * contents list.
-	 * @param name
-	 * @param byteContents
+	 *
+	 * @param name name of the content
+	 * @param byteContents encoded layer or tilesets
 	 */
-	private void addToContent(final String name, final byte[] byteContents) {
+	public void addContent(final String name, final byte[] byteContents) {
 		// Remove old data by the same name if it exists
 		Iterator<TransferContent> it = contents.iterator();
 		while (it.hasNext()) {
@@ -459,7 +502,22 @@ public class StendhalRPZone extends MarauroaRPZone {
 	 */
 	public void addCollisionLayer(final String name, final LayerDefinition collisionLayer)
 			throws IOException {
-		addToContent(name, collisionLayer.encode());
+		addCollisionLayer(name, collisionLayer, collisionLayer.encode());
+	}
+
+	/**
+	 * Sets collision information for this zone.
+	 *
+	 * @param name
+	 *   Layer name.
+	 * @param collisionLayer
+	 *   Layer definition.
+	 * @param encoded
+	 *   The layer encoded for the client.
+	 */
+	public void addCollisionLayer(final String name, final LayerDefinition collisionLayer,
+			final byte[] encoded) {
+		addContent(name, encoded);
 		collisionMap.setCollisionData(collisionLayer);
 	}
 
@@ -473,7 +531,22 @@ public class StendhalRPZone extends MarauroaRPZone {
 	 */
 	public void addProtectionLayer(final String name, final LayerDefinition protectionLayer)
 			throws IOException {
-		addToContent(name, protectionLayer.encode());
+		addProtectionLayer(name, protectionLayer, protectionLayer.encode());
+	}
+
+	/**
+	 * Sets protection information for this zone.
+	 *
+	 * @param name
+	 *   Layer name.
+	 * @param protectionLayer
+	 *   Layer definition.
+	 * @param encoded
+	 *   The layer encoded for the client.
+	 */
+	public void addProtectionLayer(final String name, final LayerDefinition protectionLayer,
+			final byte[] encoded) {
+		addContent(name, encoded);
 		protectionMap.setCollisionData(protectionLayer);
 	}
 
@@ -907,6 +980,13 @@ public class StendhalRPZone extends MarauroaRPZone {
 		assignRPObjectID(object);
 		super.add(object);
 
+		if (object instanceof Entity) {
+			entityIndex.resize(getWidth(), getHeight());
+			entityIndex.add((Entity) object);
+			resistanceLayer.resize(getWidth(), getHeight());
+			resistanceLayer.add((Entity) object);
+		}
+
 		notifyAdded(object);
 
 		// Needs to be before adding an item, in case Item.onPutOnGround()
@@ -932,7 +1012,7 @@ public class StendhalRPZone extends MarauroaRPZone {
 		} else if (object instanceof Player) {
 			Player playerObject = (Player) object;
 			players.add(playerObject);
-			playersAndFriends.add(playerObject);
+			addPlayerOrFriend(playerObject);
 			/*
 			 * super.add() clears the events, so this needs to be after it for
 			 * the player to see the zone achievements. Also, Player.onAdded()
@@ -941,15 +1021,15 @@ public class StendhalRPZone extends MarauroaRPZone {
 			 */
 			SingletonRepository.getAchievementNotifier().onZoneEnter(playerObject);
 		} else if (object instanceof AttackableCreature) {
-			playersAndFriends.add((AttackableCreature) object);
+			addPlayerOrFriend((AttackableCreature) object);
 		} else if (object instanceof Sheep) {
 			if (((Sheep) object).wasOwned()) {
-				playersAndFriends.add((Sheep) object);
+				addPlayerOrFriend((Sheep) object);
 			}
 		} else if (object instanceof SheepFood) {
 			sheepFoods.add((SheepFood) object);
 		} else if (object instanceof BabyDragon) {
-			playersAndFriends.add((BabyDragon) object);
+			addPlayerOrFriend((BabyDragon) object);
 		} else if (object instanceof SpeakerNPC) {
 			SingletonRepository.getNPCList().add((SpeakerNPC) object);
 		} else if (object instanceof Portal) {
@@ -960,6 +1040,10 @@ public class StendhalRPZone extends MarauroaRPZone {
 			npcs.add((NPC) object);
 		}
 
+		if (dormant && (object instanceof RPEntity) && playersAndFriends.contains(object)) {
+			wakeUp();
+		}
+
 		// TODO: Move up to MarauroaRPZone?
 		SingletonRepository.getRPWorld().requestSync(object);
 	}
@@ -969,12 +1053,21 @@ public class StendhalRPZone extends MarauroaRPZone {
 	 *
 	 * @param object RPEntity
 	 */
-	public void addToPlayersAndFriends(RPEntity object) {
+	public synchronized void addToPlayersAndFriends(RPEntity object) {
 		if (!playersAndFriends.contains(object)) {
-			playersAndFriends.add(object);
+			addPlayerOrFriend(object);
+			if (dormant) {
+				wakeUp();
+			}
 		}
 	}
 
+	private void addPlayerOrFriend(final RPEntity entity) {
+		playersAndFriends.add(entity);
+		friendIndex.resize(getWidth(), getHeight());
+		friendIndex.add(entity);
+	}
+
 	private void notifyAdded(final RPObject object) {
 		for (final ZoneEnterExitListener l : zoneListeners) {
 				l.onEntered(object, this);
@@ -1028,6 +1121,12 @@ public class StendhalRPZone extends MarauroaRPZone {
 
 		super.remove(id);
 
+		if (object instanceof Entity) {
+			entityIndex.remove((Entity) object);
+			friendIndex.remove((Entity) object);
+			resistanceLayer.remove((Entity) object);
+		}
+
 		if (object instanceof Item) {
 			final Item item = (Item) object;
 			itemsOnGround.remove(item);
@@ -1180,23 +1279,35 @@ public class StendhalRPZone extends MarauroaRPZone {
 		return getCollidingObject(entity, area) != null;
 	}
 
-	private Entity getCollidingObject(final Entity entity, final Rectangle2D area) {
-		for (final RPObject other : objects.values()) {
-			// Ignore same object
-			if (entity != other) {
-				final Entity otherEntity = (Entity) other;
+	private synchronized Entity getCollidingObject(final Entity entity, final Rectangle2D area) {
+		// only the entities near the area need to be checked
+		return entityIndex.getCollidingEntity(entity, area);
+	}
 
-				// Check if the objects overlap
-				if (area.intersects(otherEntity.getX(), otherEntity.getY(), otherEntity.getWidth(), otherEntity.getHeight())) {
-					// Check if it's blocking
-					if (otherEntity.isObstacle(entity)) {
-						return otherEntity;
-					}
-				}
-			}
+	/**
+	 * Updates the position of an entity in the spatial index and its
+	 * resistance in the resistance layer. This is called by entities when
+	 * their position, size, resistance or movement state changes.
+	 *
+	 * @param entity entity that changed
+	 */
+	public synchronized void updateEntityIndex(final Entity entity) {
+		entityIndex.update(entity);
+		friendIndex.update(entity);
+		resistanceLayer.update(entity);
+		if (entity instanceof MovementListener) {
+			movementListeners.update((MovementListener) entity);
 		}
+	}
 
-		return null;
+	/**
+	 * Get the resistance of the stopped entities in the zone.
+	 *
+	 * @return resistance layer
+	 */
+	public synchronized ResistanceLayer getResistanceLayer() {
+		resistanceLayer.resize(getWidth(), getHeight());
+		return resistanceLayer;
 	}
 
 	/**
@@ -1207,15 +1318,7 @@ public class StendhalRPZone extends MarauroaRPZone {
 	 * @return the first entity found if there are more than one or null if there are none
 	 */
 	public synchronized Entity getEntityAt(final double x, final double y) {
-		for (final RPObject other : objects.values()) {
-			final Entity otherEntity = (Entity) other;
-
-			final Rectangle2D rect = otherEntity.getArea();
-			if (rect.contains(x, y)) {
-				return otherEntity;
-			}
-		}
-		return null;
+		return entityIndex.getEntityAt(x, y);
 	}
 
 	/**
@@ -1225,18 +1328,7 @@ public class StendhalRPZone extends MarauroaRPZone {
 	 * @return list of entities at (x, y)
 	 */
 	public synchronized List<Entity> getEntitiesAt(final double x, final double y) {
-		List<Entity> entities = new LinkedList<Entity>();
-
-		for (final RPObject other : objects.values()) {
-			final Entity entity = (Entity) other;
-
-			final Rectangle2D rect = entity.getArea();
-			if (rect.contains(x, y)) {
-				entities.add(entity);
-			}
-		}
-
-		return entities;
+		return getEntitiesAt(x, y, Entity.class);
 	}
 
 
@@ -1248,19 +1340,7 @@ public class StendhalRPZone extends MarauroaRPZone {
 	 */
 	public synchronized <T extends Entity> List<T> getEntitiesAt(final double x, final double y, Class<T> clazz) {
 		List<T> entities = new LinkedList<T>();
-
-		for (final RPObject other : objects.values()) {
-			final Entity entity = (Entity) other;
-			if (!clazz.isInstance(entity)) {
-				continue;
-			}
-
-			final Rectangle2D rect = entity.getArea();
-			if (rect.contains(x, y)) {
-				entities.add(clazz.cast(entity));
-			}
-		}
-
+		entityIndex.getEntitiesAt(x, y, clazz, entities);
 		return entities;
 	}
 
@@ -1327,13 +1407,12 @@ public class StendhalRPZone extends MarauroaRPZone {
 	 *            The new Y coordinate.
 	 */
 	public void notifyEntered(final ActiveEntity entity, final int newX, final int newY) {
-		Rectangle2D eArea;
+		final double width = entity.getWidth();
+		final double height = entity.getHeight();
+		final List<MovementListener> listeners = getMovementListeners(newX, newY, width, height);
 
-		eArea = entity.getArea(newX, newY);
-
-		for (final MovementListener l : movementListeners) {
-			Rectangle2D area = l.getArea();
-			if (area.intersects(eArea)) {
+		for (final MovementListener l : listeners) {
+			if (isMovementListener(l, listeners) && l.getArea().intersects(newX, newY, width, height)) {
 				l.onEntered(entity, this, newX, newY);
 			}
 		}
@@ -1350,13 +1429,12 @@ public class StendhalRPZone extends MarauroaRPZone {
 	 *            The old Y coordinate.
 	 */
 	public void notifyExited(final ActiveEntity entity, final int oldX, final int oldY) {
-		Rectangle2D eArea;
-
-		eArea = entity.getArea(oldX, oldY);
+		final double width = entity.getWidth();
+		final double height = entity.getHeight();
+		final List<MovementListener> listeners = getMovementListeners(oldX, oldY, width, height);
 
-		for (final MovementListener l : movementListeners) {
-			Rectangle2D area = l.getArea();
-			if (area.intersects(eArea)) {
+		for (final MovementListener l : listeners) {
+			if (isMovementListener(l, listeners) && l.getArea().intersects(oldX, oldY, width, height)) {
 				l.onExited(entity, this, oldX, oldY);
 			}
 		}
@@ -1378,19 +1456,22 @@ public class StendhalRPZone extends MarauroaRPZone {
 	 */
 	public void notifyMovement(final ActiveEntity entity, final int oldX, final int oldY,
 			final int newX, final int newY) {
-		Rectangle2D oeArea;
-		Rectangle2D neArea;
 		boolean oldIn;
 		boolean newIn;
 
-		oeArea = entity.getArea(oldX, oldY);
-		neArea = entity.getArea(newX, newY);
+		final double width = entity.getWidth();
+		final double height = entity.getHeight();
+		final List<MovementListener> listeners = getMovementListeners(Math.min(oldX, newX),
+				Math.min(oldY, newY), Math.abs(newX - oldX) + width, Math.abs(newY - oldY) + height);
 
-		for (final MovementListener l : movementListeners) {
+		for (final MovementListener l : listeners) {
+			if (!isMovementListener(l, listeners)) {
+				continue;
+			}
 			Rectangle2D area = l.getArea();
 
-			oldIn = area.intersects(oeArea);
-			newIn = area.intersects(neArea);
+			oldIn = area.intersects(oldX, oldY, width, height);
+			newIn = area.intersects(newX, newY, width, height);
 
 			if (!oldIn && newIn) {
 				l.onEntered(entity, this, newX, newY);
@@ -1408,21 +1489,71 @@ public class StendhalRPZone extends MarauroaRPZone {
 
 	public void notifyBeforeMovement(final ActiveEntity entity, final int oldX, final int oldY,
 			final int newX, final int newY) {
-		Rectangle2D neArea;
-		boolean newIn;
-
-		neArea = entity.getArea(newX, newY);
-
-		for (final MovementListener l : movementListeners) {
-			Rectangle2D area = l.getArea();
-
-			newIn = area.intersects(neArea);
+		final double width = entity.getWidth();
+		final double height = entity.getHeight();
+		final List<MovementListener> listeners = getMovementListeners(newX, newY, width, height);
 
-			if (newIn) {
+		for (final MovementListener l : listeners) {
+			if (isMovementListener(l, listeners) && l.getArea().intersects(newX, newY, width, height)) {
 				l.beforeMove(entity, this, oldX, oldY, newX, newY);
 			}
+		}
+	}
 
+	/**
+	 * Gets the movement listeners that may be affected by a movement within
+	 * an area, in the order they have been registered.
+	 *
+	 * @param x x coordinate of the area
+	 * @param y y coordinate of the area
+	 * @param width width of the area
+	 * @param height height of the area
+	 * @return candidate listeners
+	 */
+	private List<MovementListener> getMovementListeners(final double x, final double y,
+			final double width, final double height) {
+		movementNotifications++;
+		movementListeners.resize(getWidth(), getHeight());
+		if (movementListeners.size() == 0) {
+			return Collections.emptyList();
 		}
+
+		final List<MovementListener> res = new ArrayList<MovementListener>();
+		movementListeners.collect(x, y, width, height, res);
+		movementListenerChecks += res.size();
+		return res;
+	}
+
+	/**
+	 * Checks whether a candidate listener is still registered. A listener
+	 * may remove other listeners while the candidates are notified.
+	 *
+	 * @param listener candidate listener
+	 * @param candidates all candidates of the notification
+	 * @return <code>true</code> if the listener should be notified
+	 */
+	private boolean isMovementListener(final MovementListener listener, final List<MovementListener> candidates) {
+		return (candidates.size() == 1) || movementListeners.contains(listener);
+	}
+
+	/**
+	 * Gets the number of movement notifications in this zone.
+	 *
+	 * @return number of entered, exited and moved notifications
+	 */
+	public long getMovementNotificationCount() {
+		return movementNotifications;
+	}
+
+	/**
+	 * Gets the number of listener areas that have been checked for the
+	 * movement notifications in this zone. Without the spatial index every
+	 * notification would check all listeners.
+	 *
+	 * @return number of checked listener areas
+	 */
+	public long getMovementListenerCheckCount() {
+		return movementListenerChecks;
 	}
 
 	public void addZoneEnterExitListener(final ZoneEnterExitListener listener) {
@@ -1436,13 +1567,15 @@ public class StendhalRPZone extends MarauroaRPZone {
 
 
 	/**
-	 * Register a movement listener for notification. Eventually create a
-	 * macro-block hash to cut down on listeners to check.
+	 * Register a movement listener for notification. The listeners are
+	 * indexed by their area, so a movement only checks the listeners near
+	 * it.
 	 *
 	 * @param listener
 	 *            A movement listener to register.
 	 */
-	public void addMovementListener(final MovementListener listener) {
+	public synchronized void addMovementListener(final MovementListener listener) {
+		movementListeners.resize(getWidth(), getHeight());
 		movementListeners.add(listener);
 	}
 
@@ -1452,7 +1585,7 @@ public class StendhalRPZone extends MarauroaRPZone {
 	 * @param listener
 	 *            A movement listener to unregister.
 	 */
-	public void removeMovementListener(final MovementListener listener) {
+	public synchronized void removeMovementListener(final MovementListener listener) {
 		movementListeners.remove(listener);
 	}
 
@@ -1487,6 +1620,49 @@ public class StendhalRPZone extends MarauroaRPZone {
 		return playersAndFriends;
 	}
 
+	/**
+	 * Collects the players and friendly entities that are at most a given
+	 * distance away from an entity, nearest first. The distance is measured
+	 * like in {@link Entity#squaredDistance(Entity)}.
+	 *
+	 * @param entity entity in the center of the searched area, it is not
+	 * 	included in the result
+	 * @param range maximum distance
+	 * @param result list for the found entities. It is cleared first, so the
+	 * 	caller can reuse the same list
+	 */
+	public synchronized void getPlayerAndFriendsNear(final Entity entity, final double range,
+			final List<RPEntity> result) {
+		result.clear();
+		final Rectangle2D area = entity.getArea();
+		friendIndex.getEntitiesNear(area.getX() - range, area.getY() - range,
+				area.getWidth() + 2 * range, area.getHeight() + 2 * range, RPEntity.class, result);
+
+		// drop the entities out of range, and sort the rest by distance
+		final double squaredRange = range * range;
+		int size = 0;
+		for (int i = 0; i < result.size(); i++) {
+			final RPEntity candidate = result.get(i);
+			if (candidate == entity) {
+				continue;
+			}
+			final double distance = entity.squaredDistance(candidate);
+			if (distance > squaredRange) {
+				continue;
+			}
+			int pos = size;
+			while ((pos > 0) && (entity.squaredDistance(result.get(pos - 1)) > distance)) {
+				result.set(pos, result.get(pos - 1));
+				pos--;
+			}
+			result.set(pos, candidate);
+			size++;
+		}
+		while (result.size() > size) {
+			result.remove(result.size() - 1);
+		}
+	}
+
 	/**
 	 * Can moveto (mouse movement using pathfinding) be done on this map?
 	 *
@@ -1528,6 +1704,8 @@ public class StendhalRPZone extends MarauroaRPZone {
 			os.append("blood: " + bloods.size() + "\n");
 			os.append("itemsOnGround: " + itemsOnGround.size() + "\n");
 			os.append("movementListeners: " + movementListeners.size() + "\n");
+			os.append("movementNotifications: " + movementNotifications + "\n");
+			os.append("movementListenerChecks: " + movementListenerChecks + "\n");
 			os.append("npcs: " + npcs.size() + "\n");
 			os.append("plantGrowers: " + plantGrowers.size() + "\n");
 			os.append("players: " + players.size() + "\n");
@@ -1540,6 +1718,61 @@ public class StendhalRPZone extends MarauroaRPZone {
 		}
 	}
 
+	/**
+	 * Update the dormancy state of the zone. Zones that have had no players
+	 * or their friends for {@link #DORMANCY_TURNS} turns become dormant, and
+	 * their logic is not run until someone enters again.
+	 *
+	 * @param turn current turn
+	 * @return <code>true</code> if the zone is dormant
+	 */
+	public synchronized boolean updateDormancy(final int turn) {
+		dormancyCheckTurn = turn;
+		if (!playersAndFriends.isEmpty()) {
+			lastOccupiedTurn = turn;
+			if (dormant) {
+				wakeUp();
+			}
+		} else if (!dormant && (turn - lastOccupiedTurn >= DORMANCY_TURNS)) {
+			dormant = true;
+			dormantSince = turn;
+		}
+		return dormant;
+	}
+
+	/**
+	 * Check if the zone logic is currently suspended.
+	 *
+	 * @return <code>true</code> if the zone is dormant
+	 */
+	public boolean isDormant() {
+		return dormant;
+	}
+
+	/**
+	 * Resume the zone logic, and catch up with what the creatures and
+	 * spawners would have done while the zone was dormant.
+	 */
+	private void wakeUp() {
+		dormant = false;
+		final int turn = dormancyCheckTurn;
+		lastOccupiedTurn = turn;
+		final int turns = Math.max(0, turn - dormantSince);
+
+		for (final NPC npc : new ArrayList<NPC>(npcs)) {
+			if (npc instanceof Creature) {
+				((Creature) npc).fastForward(turns);
+			}
+		}
+		for (final CreatureRespawnPoint point : new ArrayList<CreatureRespawnPoint>(respawnPoints)) {
+			point.onZoneAwakened(turn);
+		}
+		for (final PassiveEntityRespawnPoint grower : new ArrayList<PassiveEntityRespawnPoint>(plantGrowers)) {
+			grower.onZoneAwakened(turn);
+		}
+		logger.debug("Zone " + getName() + " woke up after " + turns + " turns");
+	}
+
 	public void preLogic() {
 		for (final NPC npc : npcs) {
 			try {
@@ -1582,42 +1815,24 @@ public class StendhalRPZone extends MarauroaRPZone {
 	 * Return whether the zone contains one or more players.
 	 * @return if there are players in zone
 	 */
-	public boolean containsPlayer() {
-		for (final RPObject obj : objects.values()) {
-			if (obj instanceof Player) {
-				return true;
-			}
-		}
-
-		return false;
+	public synchronized boolean containsPlayer() {
+		return entityIndex.containsInstanceOf(Player.class);
 	}
 
 	/**
 	 * Return whether the zone contains one or more animals.
 	 * @return true if there are domesticalanimals in zone
 	 */
-	public boolean containsAnimal() {
-		for (final RPObject obj : objects.values()) {
-			if (obj instanceof DomesticAnimal) {
-				return true;
-			}
-		}
-
-		return false;
+	public synchronized boolean containsAnimal() {
+		return entityIndex.containsInstanceOf(DomesticAnimal.class);
 	}
 
 	/**
 	 * Return whether the zone contains any creature including players and animals.
 	 * @return true if there are creatures in zone
 	 */
-	public boolean containsCreature() {
-		for (final RPObject obj : objects.values()) {
-			if (obj instanceof Creature) {
-				return true;
-			}
-		}
-
-		return false;
+	public synchronized boolean containsCreature() {
+		return entityIndex.containsInstanceOf(Creature.class);
 	}
 
 	/**
@@ -1651,17 +1866,11 @@ public class StendhalRPZone extends MarauroaRPZone {
 	 * @return
 	 *   List of entities of type {@code clazz}.
 	 */
-	public List<? extends Entity> getEntitiesOfClass(Class<? extends Entity> clazz,
+	public synchronized List<? extends Entity> getEntitiesOfClass(Class<? extends Entity> clazz,
 			boolean subclasses) {
-		return getFilteredEntities(new FilterCriteria<Entity>() {
-			@Override
-			public boolean passes(Entity o) {
-				if (subclasses) {
-					return clazz.isInstance(o);
-				}
-				return o.getClass() == clazz;
-			}
-		});
+		final List<Entity> result = new LinkedList<Entity>();
+		entityIndex.getEntitiesOfClass(clazz, subclasses, result);
+		return result;
 	}
 
 	/**
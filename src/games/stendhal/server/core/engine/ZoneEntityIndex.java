@@ -0,0 +1,394 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import games.stendhal.server.entity.Entity;
+
+/**
+ * Spatial index of the entities in a zone.
+ * <p>
+ * The zone is split into square cells of {@link #CELL_SIZE} tiles. Every
+ * entity is stored in all cells its area touches, so that position based
+ * queries only have to look at the entities close to that position.
+ * Coordinates outside of the zone are mapped to the border cells. In
+ * addition the entities are grouped by their concrete class for typed
+ * lookups.
+ */
+final class ZoneEntityIndex {
+
+	/** width and height of a cell in tiles */
+	static final int CELL_SIZE = 8;
+
+	private int columns = 1;
+
+	private int rows = 1;
+
+	/** entities by cell, cells are allocated on first use */
+	private List<List<Entity>> cells = createCells(1);
+
+	/** cell ranges (min x, min y, max x, max y) of the indexed entities */
+	private final Map<Entity, int[]> ranges = new IdentityHashMap<Entity, int[]>();
+
+	/** entities by their concrete class */
+	private final Map<Class<?>, Set<Entity>> byClass = new HashMap<Class<?>, Set<Entity>>();
+
+	/** cache of the concrete classes that are assignable to a queried class */
+	private final Map<Class<?>, List<Class<?>>> assignableClasses = new HashMap<Class<?>, List<Class<?>>>();
+
+	/**
+	 * Adjusts the grid to the zone size. The index is rebuilt if the size
+	 * has changed.
+	 *
+	 * @param width zone width
+	 * @param height zone height
+	 */
+	void resize(final int width, final int height) {
+		final int newColumns = Math.max(1, (width + CELL_SIZE - 1) / CELL_SIZE);
+		final int newRows = Math.max(1, (height + CELL_SIZE - 1) / CELL_SIZE);
+		if ((newColumns == columns) && (newRows == rows)) {
+			return;
+		}
+
+		columns = newColumns;
+		rows = newRows;
+		cells = createCells(columns * rows);
+		for (final Map.Entry<Entity, int[]> entry : ranges.entrySet()) {
+			final int[] range = entry.getValue();
+			computeRange(entry.getKey().getArea(), range);
+			addToCells(entry.getKey(), range);
+		}
+	}
+
+	/**
+	 * Adds an entity.
+	 *
+	 * @param entity entity
+	 */
+	void add(final Entity entity) {
+		if (ranges.containsKey(entity)) {
+			update(entity);
+			return;
+		}
+
+		final int[] range = new int[4];
+		computeRange(entity.getArea(), range);
+		ranges.put(entity, range);
+		addToCells(entity, range);
+
+		Set<Entity> set = byClass.get(entity.getClass());
+		if (set == null) {
+			set = Collections.newSetFromMap(new IdentityHashMap<Entity, Boolean>());
+			byClass.put(entity.getClass(), set);
+			assignableClasses.clear();
+		}
+		set.add(entity);
+	}
+
+	/**
+	 * Removes an entity.
+	 *
+	 * @param entity entity
+	 */
+	void remove(final Entity entity) {
+		final int[] range = ranges.remove(entity);
+		if (range == null) {
+			return;
+		}
+
+		removeFromCells(entity, range);
+		final Set<Entity> set = byClass.get(entity.getClass());
+		if (set != null) {
+			set.remove(entity);
+		}
+	}
+
+	/**
+	 * Moves an entity to the cells matching its current area.
+	 *
+	 * @param entity entity that moved or changed its size
+	 */
+	void update(final Entity entity) {
+		final int[] range = ranges.get(entity);
+		if (range == null) {
+			return;
+		}
+
+		final Rectangle2D area = entity.getArea();
+		final int minX = cellX(area.getX());
+		final int minY = cellY(area.getY());
+		final int maxX = cellX(area.getX() + area.getWidth());
+		final int maxY = cellY(area.getY() + area.getHeight());
+		if ((minX == range[0]) && (minY == range[1]) && (maxX == range[2]) && (maxY == range[3])) {
+			return;
+		}
+
+		removeFromCells(entity, range);
+		range[0] = minX;
+		range[1] = minY;
+		range[2] = maxX;
+		range[3] = maxY;
+		addToCells(entity, range);
+	}
+
+	/**
+	 * Finds an entity overlapping an area that is an obstacle for the
+	 * specified entity.
+	 *
+	 * @param entity entity to check for, this entity itself is ignored
+	 * @param area area to check
+	 * @return colliding entity, or <code>null</code> if there is none
+	 */
+	Entity getCollidingEntity(final Entity entity, final Rectangle2D area) {
+		final int minX = cellX(area.getX());
+		final int minY = cellY(area.getY());
+		final int maxX = cellX(area.getX() + area.getWidth());
+		final int maxY = cellY(area.getY() + area.getHeight());
+
+		for (int cy = minY; cy <= maxY; cy++) {
+			for (int cx = minX; cx <= maxX; cx++) {
+				final List<Entity> cell = cells.get(cy * columns + cx);
+				if (cell == null) {
+					continue;
+				}
+				for (int i = 0; i < cell.size(); i++) {
+					final Entity other = cell.get(i);
+					if ((other == entity) || !isFirstCommonCell(other, cx, cy, minX, minY)) {
+						continue;
+					}
+
+					if (area.intersects(other.getX(), other.getY(), other.getWidth(), other.getHeight())
+							&& other.isObstacle(entity)) {
+						return other;
+					}
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Finds an entity at a position.
+	 *
+	 * @param x x coordinate
+	 * @param y y coordinate
+	 * @return an entity whose area contains the position, or <code>null</code>
+	 */
+	Entity getEntityAt(final double x, final double y) {
+		final List<Entity> cell = cells.get(cellY(y) * columns + cellX(x));
+		if (cell != null) {
+			for (int i = 0; i < cell.size(); i++) {
+				final Entity entity = cell.get(i);
+				if (entity.getArea().contains(x, y)) {
+					return entity;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Collects the entities of a class at a position.
+	 *
+	 * @param x x coordinate
+	 * @param y y coordinate
+	 * @param clazz required class, including subclasses
+	 * @param result list to add the found entities to
+	 */
+	<T extends Entity> void getEntitiesAt(final double x, final double y, final Class<T> clazz, final List<? super T> result) {
+		final List<Entity> cell = cells.get(cellY(y) * columns + cellX(x));
+		if (cell != null) {
+			for (int i = 0; i < cell.size(); i++) {
+				final Entity entity = cell.get(i);
+				if (clazz.isInstance(entity) && entity.getArea().contains(x, y)) {
+					result.add(clazz.cast(entity));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Collects the entities of a class in the cells overlapping an area. Each
+	 * entity is added only once, but the result can contain entities that
+	 * are close to the area without overlapping it.
+	 *
+	 * @param x left x coordinate of the area
+	 * @param y top y coordinate of the area
+	 * @param width width of the area
+	 * @param height height of the area
+	 * @param clazz required class, including subclasses
+	 * @param result list to add the found entities to
+	 */
+	<T extends Entity> void getEntitiesNear(final double x, final double y, final double width, final double height,
+			final Class<T> clazz, final List<? super T> result) {
+		final int minX = cellX(x);
+		final int minY = cellY(y);
+		final int maxX = cellX(x + width);
+		final int maxY = cellY(y + height);
+
+		for (int cy = minY; cy <= maxY; cy++) {
+			for (int cx = minX; cx <= maxX; cx++) {
+				final List<Entity> cell = cells.get(cy * columns + cx);
+				if (cell == null) {
+					continue;
+				}
+				for (int i = 0; i < cell.size(); i++) {
+					final Entity entity = cell.get(i);
+					if (clazz.isInstance(entity) && isFirstCommonCell(entity, cx, cy, minX, minY)) {
+						result.add(clazz.cast(entity));
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Collects all entities of a class.
+	 *
+	 * @param clazz class
+	 * @param subclasses <code>true</code>, if instances of subclasses should
+	 * 	be included
+	 * @param result list to add the found entities to
+	 */
+	void getEntitiesOfClass(final Class<?> clazz, final boolean subclasses, final List<? super Entity> result) {
+		if (!subclasses) {
+			final Set<Entity> set = byClass.get(clazz);
+			if (set != null) {
+				result.addAll(set);
+			}
+			return;
+		}
+
+		for (final Class<?> concreteClass : getAssignableClasses(clazz)) {
+			result.addAll(byClass.get(concreteClass));
+		}
+	}
+
+	/**
+	 * Checks whether there is at least one entity of a class.
+	 *
+	 * @param clazz class, including subclasses
+	 * @return <code>true</code>, if there is such an entity
+	 */
+	boolean containsInstanceOf(final Class<?> clazz) {
+		for (final Class<?> concreteClass : getAssignableClasses(clazz)) {
+			if (!byClass.get(concreteClass).isEmpty()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Gets the number of indexed entities.
+	 *
+	 * @return number of entities
+	 */
+	int size() {
+		return ranges.size();
+	}
+
+	private List<Class<?>> getAssignableClasses(final Class<?> clazz) {
+		List<Class<?>> res = assignableClasses.get(clazz);
+		if (res == null) {
+			res = new ArrayList<Class<?>>();
+			for (final Class<?> concreteClass : byClass.keySet()) {
+				if (clazz.isAssignableFrom(concreteClass)) {
+					res.add(concreteClass);
+				}
+			}
+			assignableClasses.put(clazz, res);
+		}
+		return res;
+	}
+
+	/**
+	 * Checks whether a cell is the first one of the cells shared by an
+	 * entity and a queried area, so that entities covering several cells
+	 * are only looked at once.
+	 */
+	private boolean isFirstCommonCell(final Entity entity, final int cx, final int cy, final int minX, final int minY) {
+		final int[] range = ranges.get(entity);
+		return (cx == Math.max(range[0], minX)) && (cy == Math.max(range[1], minY));
+	}
+
+	private void computeRange(final Rectangle2D area, final int[] range) {
+		range[0] = cellX(area.getX());
+		range[1] = cellY(area.getY());
+		range[2] = cellX(area.getX() + area.getWidth());
+		range[3] = cellY(area.getY() + area.getHeight());
+	}
+
+	private void addToCells(final Entity entity, final int[] range) {
+		for (int cy = range[1]; cy <= range[3]; cy++) {
+			for (int cx = range[0]; cx <= range[2]; cx++) {
+				final int index = cy * columns + cx;
+				List<Entity> cell = cells.get(index);
+				if (cell == null) {
+					cell = new ArrayList<Entity>(4);
+					cells.set(index, cell);
+				}
+				cell.add(entity);
+			}
+		}
+	}
+
+	private void removeFromCells(final Entity entity, final int[] range) {
+		for (int cy = range[1]; cy <= range[3]; cy++) {
+			for (int cx = range[0]; cx <= range[2]; cx++) {
+				final List<Entity> cell = cells.get(cy * columns + cx);
+				if (cell == null) {
+					continue;
+				}
+				for (int i = cell.size() - 1; i >= 0; i--) {
+					if (cell.get(i) == entity) {
+						// order within a cell does not matter
+						final int last = cell.size() - 1;
+						cell.set(i, cell.get(last));
+						cell.remove(last);
+						break;
+					}
+				}
+			}
+		}
+	}
+
+	private int cellX(final double x) {
+		return clamp((int) Math.floor(x / CELL_SIZE), columns);
+	}
+
+	private int cellY(final double y) {
+		return clamp((int) Math.floor(y / CELL_SIZE), rows);
+	}
+
+	private static int clamp(final int value, final int count) {
+		if (value < 0) {
+			return 0;
+		}
+		if (value >= count) {
+			return count - 1;
+		}
+		return value;
+	}
+
+	private static List<List<Entity>> createCells(final int count) {
+		return new ArrayList<List<Entity>>(Collections.nCopies(count, (List<Entity>) null));
+	}
+}
@@ -0,0 +1,171 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Runs a phase of the zone logic in parallel.
+ * <p>
+ * The zones are partitioned into work units which are executed on a fork join
+ * pool. A phase returns only after all units have been completed. Effects that
+ * reach beyond a single zone, such as zone changes, kills and turn
+ * notifications, must be passed to {@link #runOrDefer(Runnable)}. While a
+ * phase is running they are collected per unit, and executed afterwards on
+ * the calling thread in the order of the units and zones, so that the result
+ * does not depend on the thread scheduling.
+ */
+public final class ZoneTurnExecutor {
+	private static final Logger logger = Logger.getLogger(ZoneTurnExecutor.class);
+
+	/** Number of work units per thread, to even out differently busy zones. */
+	private static final int UNITS_PER_THREAD = 4;
+
+	/** Deferred actions of the work unit executed by the current thread. */
+	private static final ThreadLocal<List<Runnable>> deferred = new ThreadLocal<List<Runnable>>();
+
+	private final ForkJoinPool pool;
+
+	/**
+	 * Creates a new ZoneTurnExecutor.
+	 *
+	 * @param parallelism number of threads
+	 */
+	public ZoneTurnExecutor(final int parallelism) {
+		pool = new ForkJoinPool(parallelism);
+	}
+
+	/**
+	 * Executes an action, or defers it to the end of the current phase if the
+	 * calling thread is executing zone logic in parallel.
+	 *
+	 * @param action action that may affect other zones or global state
+	 */
+	public static void runOrDefer(final Runnable action) {
+		final List<Runnable> actions = deferred.get();
+		if (actions != null) {
+			actions.add(action);
+		} else {
+			action.run();
+		}
+	}
+
+	/**
+	 * Checks whether the current thread is executing zone logic in parallel.
+	 *
+	 * @return <code>true</code> if actions are deferred
+	 */
+	public static boolean isDeferring() {
+		return deferred.get() != null;
+	}
+
+	/**
+	 * Executes a task for all zones and waits for completion. Afterwards the
+	 * deferred actions are executed.
+	 *
+	 * @param zones zones
+	 * @param task task to execute for each zone
+	 */
+	public void execute(final List<StendhalRPZone> zones, final Task<StendhalRPZone> task) {
+		final List<List<StendhalRPZone>> units = partition(zones, pool.getParallelism() * UNITS_PER_THREAD);
+		final List<List<Runnable>> actions = new ArrayList<List<Runnable>>(units.size());
+		final List<Callable<Void>> callables = new ArrayList<Callable<Void>>(units.size());
+		for (final List<StendhalRPZone> unit : units) {
+			final List<Runnable> unitActions = new ArrayList<Runnable>();
+			actions.add(unitActions);
+			callables.add(new Callable<Void>() {
+				@Override
+				public Void call() {
+					deferred.set(unitActions);
+					try {
+						for (final StendhalRPZone zone : unit) {
+							try {
+								task.execute(zone);
+							} catch (final RuntimeException e) {
+								logger.error("Error in logic of zone " + zone.getName(), e);
+							}
+						}
+					} finally {
+						deferred.remove();
+					}
+					return null;
+				}
+			});
+		}
+
+		// invokeAll returns when all units are done
+		for (final Future<Void> future : pool.invokeAll(callables)) {
+			try {
+				future.get();
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (final ExecutionException e) {
+				logger.error("Error in parallel zone logic", e);
+			}
+		}
+
+		for (final List<Runnable> unitActions : actions) {
+			for (final Runnable action : unitActions) {
+				try {
+					action.run();
+				} catch (final RuntimeException e) {
+					logger.error("Error in deferred zone action", e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Splits zones into work units of about the same amount of work. The
+	 * split only depends on the zones, so that the deferred actions are
+	 * always executed in the same order.
+	 *
+	 * @param zones zones
+	 * @param count maximum number of units
+	 * @return work units
+	 */
+	static List<List<StendhalRPZone>> partition(final List<StendhalRPZone> zones, final int count) {
+		final int unitCount = Math.max(1, Math.min(count, zones.size()));
+		final List<List<StendhalRPZone>> units = new ArrayList<List<StendhalRPZone>>(unitCount);
+		final int[] loads = new int[unitCount];
+		for (int i = 0; i < unitCount; i++) {
+			units.add(new ArrayList<StendhalRPZone>());
+		}
+
+		// busiest zones first, each to the least loaded unit
+		final List<StendhalRPZone> sorted = new ArrayList<StendhalRPZone>(zones);
+		Collections.sort(sorted, (a, b) -> Integer.compare(getLoad(b), getLoad(a)));
+		for (final StendhalRPZone zone : sorted) {
+			int best = 0;
+			for (int i = 1; i < unitCount; i++) {
+				if (loads[i] < loads[best]) {
+					best = i;
+				}
+			}
+			units.get(best).add(zone);
+			loads[best] += getLoad(zone);
+		}
+		return units;
+	}
+
+	private static int getLoad(final StendhalRPZone zone) {
+		return 1 + zone.getNPCList().size();
+	}
+}
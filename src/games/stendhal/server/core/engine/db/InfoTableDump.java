@@ -0,0 +1,245 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine.db;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+
+import marauroa.server.db.DBTransaction;
+
+/**
+ * Writes the rows of one of the info tables used on the website.
+ * <p>
+ * Every row carries a hash of its content. Rows are only written if they are
+ * new or their content differs from the last dump, and only rows that are no
+ * longer present are marked as inactive. On an unchanged world, a dump just
+ * reads the names and hashes of the table.
+ */
+final class InfoTableDump {
+	private static final Logger logger = Logger.getLogger(InfoTableDump.class);
+
+	private final String table;
+	private final String[] columns;
+
+	/** rows to write by name, in the order they were added */
+	private final Map<String, Row> rows = new LinkedHashMap<String, Row>();
+
+	/**
+	 * Creates a new InfoTableDump.
+	 *
+	 * @param table name of the table
+	 * @param columns columns to write, besides active, name and content_hash
+	 */
+	InfoTableDump(final String table, final String... columns) {
+		this.table = table;
+		this.columns = columns;
+	}
+
+	/**
+	 * Adds a row. A later row with the same name replaces an earlier one.
+	 *
+	 * @param name value of the name column
+	 * @param values values of the columns
+	 */
+	void add(final String name, final Object[] values) {
+		add(name, values, null);
+	}
+
+	/**
+	 * Adds a row.
+	 *
+	 * @param name value of the name column
+	 * @param values values of the columns
+	 * @param details data stored elsewhere that belongs to the row, and
+	 * 	should be rewritten whenever it changes. It is included in the hash
+	 */
+	void add(final String name, final Object[] values, final String details) {
+		if (values.length != columns.length) {
+			throw new IllegalArgumentException("Expected " + columns.length + " values for " + table
+					+ " but got " + values.length);
+		}
+		rows.put(name, new Row(values, hash(columns, values, details)));
+	}
+
+	/**
+	 * Writes the changed rows, and deactivates the rows that were not added.
+	 *
+	 * @param transaction DBTransaction
+	 * @return names of the rows that were inserted, updated or deactivated
+	 * @throws SQLException in case of an database error
+	 */
+	Set<String> write(final DBTransaction transaction) throws SQLException {
+		final Map<String, String> stored = new HashMap<String, String>();
+		final Set<String> active = new HashSet<String>();
+		final ResultSet resultSet = transaction.query("SELECT name, active, content_hash FROM " + table, null);
+		while (resultSet.next()) {
+			final String name = resultSet.getString(1);
+			final boolean isActive = resultSet.getInt(2) == 1;
+			String hash = isActive ? resultSet.getString(3) : null;
+			if (stored.containsKey(name) && !String.valueOf(stored.get(name)).equals(hash)) {
+				// duplicated rows that differ have to be updated
+				hash = null;
+			}
+			stored.put(name, hash);
+			if (isActive) {
+				active.add(name);
+			}
+		}
+		resultSet.close();
+
+		final Set<String> changed = new HashSet<String>();
+		final PreparedStatement update = transaction.prepareStatement(createUpdate(), null);
+		final PreparedStatement insert = transaction.prepareStatement(createInsert(), null);
+		for (final Map.Entry<String, Row> entry : rows.entrySet()) {
+			final String name = entry.getKey();
+			final Row row = entry.getValue();
+			if (stored.containsKey(name)) {
+				if (row.hash.equals(stored.get(name))) {
+					continue;
+				}
+				setValues(update, 1, row);
+				update.setString(columns.length + 2, name);
+				update.addBatch();
+			} else {
+				insert.setString(1, name);
+				setValues(insert, 2, row);
+				insert.addBatch();
+			}
+			changed.add(name);
+		}
+		update.executeBatch();
+		update.close();
+		insert.executeBatch();
+		insert.close();
+		final int written = changed.size();
+
+		active.removeAll(rows.keySet());
+		if (!active.isEmpty()) {
+			final PreparedStatement deactivate = transaction.prepareStatement(
+					"UPDATE " + table + " SET active=0 WHERE name=?", null);
+			for (final String name : active) {
+				deactivate.setString(1, name);
+				deactivate.addBatch();
+			}
+			deactivate.executeBatch();
+			deactivate.close();
+			changed.addAll(active);
+		}
+
+		logger.debug("Dumped " + table + ": " + written + " rows written, " + active.size()
+				+ " deactivated, " + (rows.size() - written) + " unchanged.");
+		return changed;
+	}
+
+	/**
+	 * Sets the column values, followed by the hash, as parameters of a statement.
+	 *
+	 * @param stmt statement
+	 * @param first index of the parameter for the first value
+	 * @param row row to write
+	 * @throws SQLException in case of an database error
+	 */
+	private void setValues(final PreparedStatement stmt, final int first, final Row row) throws SQLException {
+		for (int i = 0; i < columns.length; i++) {
+			final Object value = row.values[i];
+			if (value == null) {
+				stmt.setNull(first + i, Types.VARCHAR);
+			} else {
+				stmt.setObject(first + i, value);
+			}
+		}
+		stmt.setString(first + columns.length, row.hash);
+	}
+
+	private String createUpdate() {
+		final StringBuilder sql = new StringBuilder("UPDATE " + table + " SET active=1, ");
+		for (final String column : columns) {
+			sql.append(column).append("=?, ");
+		}
+		sql.append("content_hash=? WHERE name=?");
+		return sql.toString();
+	}
+
+	private String createInsert() {
+		final StringBuilder sql = new StringBuilder("INSERT INTO " + table + " (name, ");
+		final StringBuilder values = new StringBuilder("VALUES (?, ");
+		for (final String column : columns) {
+			sql.append(column).append(", ");
+			values.append("?, ");
+		}
+		sql.append("content_hash, active) ");
+		values.append("?, 1)");
+		return sql.append(values).toString();
+	}
+
+	/**
+	 * Calculates the content hash of a row.
+	 *
+	 * @param columns column names
+	 * @param values column values
+	 * @param details additional data, may be <code>null</code>
+	 * @return hash as hex string
+	 */
+	static String hash(final String[] columns, final Object[] values, final String details) {
+		final StringBuilder content = new StringBuilder();
+		for (int i = 0; i < columns.length; i++) {
+			content.append(columns[i]);
+			if (values[i] == null) {
+				content.append('\u0001');
+			} else {
+				content.append('=').append(values[i]);
+			}
+			content.append('\u0000');
+		}
+		if (details != null) {
+			content.append(details);
+		}
+
+		final byte[] digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256").digest(content.toString().getBytes(StandardCharsets.UTF_8));
+		} catch (final NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		final StringBuilder res = new StringBuilder(2 * digest.length);
+		for (final byte b : digest) {
+			res.append(Character.forDigit((b >> 4) & 0xf, 16));
+			res.append(Character.forDigit(b & 0xf, 16));
+		}
+		return res.toString();
+	}
+
+	/**
+	 * A row to write.
+	 */
+	private static final class Row {
+		private final Object[] values;
+		private final String hash;
+
+		Row(final Object[] values, final String hash) {
+			this.values = values;
+			this.hash = hash;
+		}
+	}
+}
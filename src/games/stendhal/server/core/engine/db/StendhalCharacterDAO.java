@@ -1,5 +1,5 @@
 /***************************************************************************
- *                    (C) Copyright 2003-2020 - Stendhal                   *
+ *                    (C) Copyright 2003-2026 - Stendhal                   *
  ***************************************************************************
  ***************************************************************************
  *                                                                         *
@@ -69,6 +69,8 @@ public class StendhalCharacterDAO extends CharacterDAO {
 				DAORegister.get().get(StendhalBuddyDAO.class).saveRelations(transaction, character, instance);
 			} catch (final SQLException sqle) {
 				logger.warn("error storing character", sqle);
+				// the transaction is rolled back, so write everything next time
+				((Player) player).getCharacterStatsTracker().reset();
 				throw sqle;
 			}
 		} else {
@@ -1,5 +1,5 @@
 /***************************************************************************
- *                    (C) Copyright 2003-2023 - Stendhal                   *
+ *                    (C) Copyright 2003-2026 - Stendhal                   *
  ***************************************************************************
  ***************************************************************************
  *                                                                         *
@@ -11,12 +11,8 @@
  ***************************************************************************/
 package games.stendhal.server.core.engine.db;
 
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
 
 import org.apache.log4j.Logger;
 
@@ -33,50 +29,22 @@ import marauroa.server.db.DBTransaction;
 public class StendhalCreatureDAO {
 	private static Logger logger = Logger.getLogger(StendhalCreatureDAO.class);
 
+	/** columns of the creature dump */
+	private static final String[] COLUMNS = {
+		"tile_id", "class", "subclass", "shadow_style", "width", "height", "description",
+		"blood_class", "corpse_name", "harmless_corpse_name", "corpse_width", "corpse_height",
+		"hp", "atk", "ratk", "def", "xp", "level", "respawn_time", "speed",
+		"status_attack", "status_attack_probability", "damage_type", "ranged_damage_type"
+	};
 
 	/**
-	 * Dumps the properties of the specified object into the prepared statement as an operation in
-	 * a batch.
+	 * Gets the values of the website columns of a creature.
 	 *
-	 * @param stmt
-	 *   PreparedStatement in batch mode.
 	 * @param creature
 	 *   DefaultCreature
-	 * @throws
-	 *   SQLException in case a database error is thrown.
+	 * @return values in the order of {@link #COLUMNS}
 	 */
-	private void dump(PreparedStatement stmt, DefaultCreature creature) throws SQLException {
-		stmt.setInt(1, 1);
-		stmt.setString(2, creature.getCreatureName());
-		stmt.setString(3, creature.getTileId());
-
-		stmt.setString(4, creature.getCreatureClass());
-		stmt.setString(5, creature.getCreatureSubclass());
-		stmt.setString(6, creature.getShadowStyle());
-		stmt.setInt(7, (int) creature.getWidth());
-		stmt.setInt(8, (int) creature.getHeight());
-		stmt.setString(9, creature.getDescription());
-
-		stmt.setString(10, creature.getBloodClass());
-		stmt.setString(11, creature.getCorpseName());
-		stmt.setString(12, creature.getHarmlessCorpseName());
-		stmt.setInt(13, creature.getCorpseWidth());
-		stmt.setInt(14, creature.getCorpseHeight());
-
-		stmt.setInt(15, creature.getHP());
-		stmt.setInt(16, creature.getAtk());
-		stmt.setInt(17, creature.getRatk());
-		stmt.setInt(18, creature.getDef());
-		stmt.setInt(19, creature.getXP());
-		stmt.setInt(20, creature.getLevel());
-		stmt.setInt(21, creature.getRespawnTime());
-		stmt.setDouble(22, creature.getSpeed());
-
-		stmt.setString(23, creature.getStatusAttack());
-		stmt.setDouble(24, creature.getStatusAttackProbability());
-		stmt.setString(25, toStringOrNull(creature.getDamageType()));
-		stmt.setString(26, toStringOrNull(creature.getRangedDamageType()));
-
+	private Object[] getValues(DefaultCreature creature) {
 		/*
 		List<EquipItem> getEquipedItems() {
 		List<DropItem> getDropsItems() {
@@ -87,8 +55,36 @@ public class StendhalCreatureDAO {
 		Map<String, String> getAiProfiles() {
 		Map<Nature, Double> getSusceptibilities() {
 		*/
-
-		stmt.addBatch();
+		return new Object[] {
+			creature.getTileId(),
+
+			creature.getCreatureClass(),
+			creature.getCreatureSubclass(),
+			creature.getShadowStyle(),
+			Integer.valueOf((int) creature.getWidth()),
+			Integer.valueOf((int) creature.getHeight()),
+			creature.getDescription(),
+
+			creature.getBloodClass(),
+			creature.getCorpseName(),
+			creature.getHarmlessCorpseName(),
+			Integer.valueOf(creature.getCorpseWidth()),
+			Integer.valueOf(creature.getCorpseHeight()),
+
+			Integer.valueOf(creature.getHP()),
+			Integer.valueOf(creature.getAtk()),
+			Integer.valueOf(creature.getRatk()),
+			Integer.valueOf(creature.getDef()),
+			Integer.valueOf(creature.getXP()),
+			Integer.valueOf(creature.getLevel()),
+			Integer.valueOf(creature.getRespawnTime()),
+			Double.valueOf(creature.getSpeed()),
+
+			creature.getStatusAttack(),
+			Double.valueOf(creature.getStatusAttackProbability()),
+			toStringOrNull(creature.getDamageType()),
+			toStringOrNull(creature.getRangedDamageType())
+		};
 	}
 
 	private String toStringOrNull(Enum<?> enumValue) {
@@ -99,50 +95,20 @@ public class StendhalCreatureDAO {
 	}
 
 	/**
-	 * dumps all creatures
+	 * dumps all creatures that changed since the last dump
 	 *
 	 * @param transaction DBTransaction
 	 * @throws SQLException in case of an database error
 	 */
 	public void dump(DBTransaction transaction) throws SQLException {
 		long start = System.currentTimeMillis();
-
-		// update existing
-		transaction.execute("UPDATE creatureinfo SET active=0", null);
-		PreparedStatement stmt = transaction.prepareStatement("UPDATE creatureinfo SET "
-			+ "active=?, name=?, tile_id=?, class=?, subclass=?, shadow_style=?, width=?, height=?, description=?, "
-			+ "blood_class=?, corpse_name=?, harmless_corpse_name=?, corpse_width=?, corpse_height=?, "
-			+ "hp=?, atk=?, ratk=?, def=?, xp=?, level=?, respawn_time=?, speed=?, "
-			+ "status_attack=?, status_attack_probability=?, damage_type=?, ranged_damage_type=? "
-			+ "WHERE name=?", null);
-
+		InfoTableDump dump = new InfoTableDump("creatureinfo", COLUMNS);
 		EntityManager entityManager = SingletonRepository.getEntityManager();
 		Collection<DefaultCreature> defaultCreatures = entityManager.getDefaultCreatures();
-		Map<String, DefaultCreature> unknown = new HashMap<>();
 		for (DefaultCreature creature : defaultCreatures) {
-			unknown.put(creature.getCreatureName().trim(), creature);
-			stmt.setString(27, creature.getCreatureName());
-			dump(stmt, creature);
-		}
-		stmt.executeBatch();
-
-
-		// add new
-		ResultSet resultSet = transaction.query("SELECT name FROM creatureinfo", null);
-		while (resultSet.next()) {
-			unknown.remove(resultSet.getString(1));
-		}
-
-		stmt = transaction.prepareStatement("INSERT INTO creatureinfo "
-				+ "(active, name, tile_id, class, subclass, shadow_style, width, height, description, "
-				+ "blood_class, corpse_name, harmless_corpse_name, corpse_width, corpse_height, "
-				+ "hp, atk, ratk, def, xp, level, respawn_time, speed, "
-				+ "status_attack, status_attack_probability, damage_type, ranged_damage_type) " +
-				"VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?);", null);
-		for (DefaultCreature creature : unknown.values()) {
-			dump(stmt, creature);
+			dump.add(creature.getCreatureName(), getValues(creature));
 		}
-		stmt.executeBatch();
+		dump.write(transaction);
 
 		logger.debug("Completed dumping of creatures in " + (System.currentTimeMillis() - start) + " milliseconds.");
 	}
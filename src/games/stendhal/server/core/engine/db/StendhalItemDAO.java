@@ -12,7 +12,6 @@
 package games.stendhal.server.core.engine.db;
 
 import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.Collection;
@@ -40,6 +39,16 @@ public class StendhalItemDAO {
 	public static final String ATTR_ITEM_LOGID = "logid";
 	private static final Logger logger = Logger.getLogger(StendhalItemDAO.class);
 
+	/** columns of the item dump */
+	private static final String[] COLUMNS = {
+		"class", "subclass", "description", "weight", "value", "min_level",
+		"atk", "ratk", "rate", "def", "projectile_range", "damage_type", "lifesteal",
+		"amount", "regen", "frequency", "immunization", "antipoison", "life_support",
+		"implementation", "use_behavior", "itemdata", "menu", "use_sound", "persistent",
+		"slot_name", "slot_size", "undroppableondeath", "autobind", "max_quantity",
+		"deterioration", "unattainable"
+	};
+
 	/**
 	 * Assigns the next logid to the specified item in case it does not already have one.
 	 *
@@ -49,6 +58,19 @@ public class StendhalItemDAO {
 	 * @throws SQLException in case of a database error
 	 */
 	public void itemLogAssignIDIfNotPresent(final DBTransaction transaction, final RPObject item, Timestamp timestamp) throws SQLException {
+		itemLogAssignIDIfNotPresent(transaction, null, item, timestamp);
+	}
+
+	/**
+	 * Assigns the next logid to the specified item in case it does not already have one.
+	 *
+	 * @param transaction database transaction
+	 * @param batch statement collecting the itemlog entries, or <code>null</code> to write them directly
+	 * @param item item
+	 * @param timestamp timestamp
+	 * @throws SQLException in case of a database error
+	 */
+	public void itemLogAssignIDIfNotPresent(final DBTransaction transaction, final PreparedStatement batch, final RPObject item, Timestamp timestamp) throws SQLException {
 		if (item.has(ATTR_ITEM_LOGID)) {
 			return;
 		}
@@ -62,7 +84,7 @@ public class StendhalItemDAO {
 
 		// get the insert id and store it into the item
 		item.put(ATTR_ITEM_LOGID, transaction.getLastInsertId("item", "id"));
-		itemLogInsertName(transaction, item, timestamp);
+		itemLogInsertName(transaction, batch, item, timestamp);
 	}
 
 
@@ -70,12 +92,13 @@ public class StendhalItemDAO {
 	 * Logs the name of the item on first.
 	 *
 	 * @param transaction
+	 * @param batch statement collecting the itemlog entries, or <code>null</code>
 	 * @param item
 	 * @param timestamp timestamp
 	 * @throws SQLException
 	 */
-	private void itemLogInsertName(final DBTransaction transaction, final RPObject item, Timestamp timestamp) throws SQLException {
-		itemLogWriteEntry(transaction, timestamp, item, null, "register", getAttribute(item, "name"), getAttribute(item, "quantity"), getAttribute(item, "itemdata"), getAttribute(item, "bound"));
+	private void itemLogInsertName(final DBTransaction transaction, final PreparedStatement batch, final RPObject item, Timestamp timestamp) throws SQLException {
+		itemLogWriteEntry(transaction, batch, timestamp, item, null, "register", getAttribute(item, "name"), getAttribute(item, "quantity"), getAttribute(item, "itemdata"), getAttribute(item, "bound"));
 	}
 	/**
 	 * writes a log entry
@@ -92,8 +115,27 @@ public class StendhalItemDAO {
 	 * @throws SQLException in case of an database error
 	 */
 	public  void itemLogWriteEntry(final DBTransaction transaction, Timestamp timestamp, final RPObject item, final RPEntity player, final String event, final String param1, final String param2, final String param3, final String param4) throws SQLException {
+		itemLogWriteEntry(transaction, null, timestamp, item, player, event, param1, param2, param3, param4);
+	}
+
+	/**
+	 * writes a log entry
+	 *
+	 * @param transaction DBTransaction
+	 * @param batch statement collecting the itemlog entries, or <code>null</code> to write them directly
+	 * @param timestamp timestamp
+	 * @param item item
+	 * @param player player object
+	 * @param event  name of event
+	 * @param param1 param 1
+	 * @param param2 param 2
+	 * @param param3 param 3
+	 * @param param4 param 4
+	 * @throws SQLException in case of an database error
+	 */
+	public  void itemLogWriteEntry(final DBTransaction transaction, final PreparedStatement batch, Timestamp timestamp, final RPObject item, final RPEntity player, final String event, final String param1, final String param2, final String param3, final String param4) throws SQLException {
 		int itemid = item.getInt(StendhalItemDAO.ATTR_ITEM_LOGID);
-		itemLogWriteEntry(transaction, timestamp, itemid, player, event, param1, param2, param3, param4);
+		itemLogWriteEntry(transaction, batch, timestamp, itemid, player, event, param1, param2, param3, param4);
 	}
 
 	/**
@@ -111,10 +153,44 @@ public class StendhalItemDAO {
 	 * @throws SQLException in case of an database error
 	 */
 	public void itemLogWriteEntry(final DBTransaction transaction, Timestamp timestamp, final int itemid, final RPEntity player, final String event, final String param1, final String param2, final String param3, final String param4) throws SQLException {
+		itemLogWriteEntry(transaction, null, timestamp, itemid, player, event, param1, param2, param3, param4);
+	}
+
+	/**
+	 * writes a log entry
+	 *
+	 * @param transaction DBTransaction
+	 * @param batch statement collecting the itemlog entries, or <code>null</code> to write them directly
+	 * @param timestamp timestamp
+	 * @param itemid itemid of item
+	 * @param player player object
+	 * @param event  name of event
+	 * @param param1 param 1
+	 * @param param2 param 2
+	 * @param param3 param 3
+	 * @param param4 param 4
+	 * @throws SQLException in case of an database error
+	 */
+	public void itemLogWriteEntry(final DBTransaction transaction, final PreparedStatement batch, Timestamp timestamp, final int itemid, final RPEntity player, final String event, final String param1, final String param2, final String param3, final String param4) throws SQLException {
 		String playerName = null;
 		if (player != null) {
 			playerName = player.getName();
 		}
+
+		if (batch != null) {
+			// the template substitution writes empty strings for null values
+			batch.setInt(1, itemid);
+			batch.setString(2, emptyIfNull(StringUtils.trimTo(playerName, 64)));
+			batch.setString(3, emptyIfNull(StringUtils.trimTo(event, 64)));
+			batch.setString(4, emptyIfNull(StringUtils.trimTo(param1, 64)));
+			batch.setString(5, emptyIfNull(StringUtils.trimTo(param2, 64)));
+			batch.setString(6, emptyIfNull(StringUtils.trimTo(param3, 64)));
+			batch.setString(7, emptyIfNull(StringUtils.trimTo(param4, 64)));
+			batch.setTimestamp(8, timestamp);
+			batch.addBatch();
+			return;
+		}
+
 		final String query = "INSERT INTO itemlog (itemid, source, event, "
 			+ "param1, param2, param3, param4, timedate) VALUES ("
 			+ "[itemid], '[source]', '[event]', '[param1]', '[param2]', '[param3]', '[param4]', '[timedate]');";
@@ -132,6 +208,27 @@ public class StendhalItemDAO {
 		transaction.execute(query, params);
 	}
 
+	/**
+	 * Prepares a statement to collect itemlog entries, so that they can be
+	 * inserted in one batch. The caller owns the statement and has to
+	 * execute and close it.
+	 *
+	 * @param transaction DBTransaction
+	 * @return statement to pass to {@link #itemLogWriteEntry(DBTransaction, PreparedStatement, Timestamp, int, RPEntity, String, String, String, String, String)}
+	 * @throws SQLException in case of an database error
+	 */
+	public PreparedStatement itemLogPrepareBatch(final DBTransaction transaction) throws SQLException {
+		return transaction.prepareStatement("INSERT INTO itemlog (itemid, source, event, "
+				+ "param1, param2, param3, param4, timedate) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", null);
+	}
+
+	private static String emptyIfNull(final String value) {
+		if (value == null) {
+			return "";
+		}
+		return value;
+	}
+
 	/**
 	 * gets an optional attribute .
 	 *
@@ -147,56 +244,13 @@ public class StendhalItemDAO {
 		}
 	}
 	/**
-	 * Dumps the properties of the specified object into the prepared statement as an operation in
-	 * a batch.
+	 * Gets the values of the website columns of an item.
 	 *
-	 * @param stmt
-	 *   PreparedStatement in batch mode.
 	 * @param item
 	 *   DefaultItem
-	 * @throws
-	 *   SQLException in case a database error is thrown.
+	 * @return values in the order of {@link #COLUMNS}
 	 */
-	private void dump(PreparedStatement stmt, DefaultItem item) throws SQLException {
-		stmt.setInt(1, 1);
-		stmt.setString(2, item.getItemName());
-		stmt.setString(3, item.getItemClass());
-		stmt.setString(4, item.getItemSubclass());
-		stmt.setString(5, item.getDescription());
-		stmt.setDouble(6, item.getWeight());
-		stmt.setInt(7, item.getValue());
-		stmt.setString(8, item.getAttributes().get("min_level"));
-
-		stmt.setString(9, item.getAttributes().get("atk"));
-		stmt.setString(10, item.getAttributes().get("ratk"));
-		stmt.setString(11, item.getAttributes().get("rate"));
-		stmt.setString(12, item.getAttributes().get("def"));
-		stmt.setString(13, item.getAttributes().get("range"));
-		stmt.setString(14, toStringOrNull(item.getDamageType()));
-		stmt.setString(15, item.getAttributes().get("lifesteal"));
-
-		stmt.setString(16, item.getAttributes().get("amount"));
-		stmt.setString(17, item.getAttributes().get("regen"));
-		stmt.setString(18, item.getAttributes().get("frequency"));
-		stmt.setString(19, item.getAttributes().get("immunization"));
-		stmt.setString(20, item.getAttributes().get("antipoison"));
-		stmt.setString(21, item.getAttributes().get("life_support"));
-
-		stmt.setString(22, toStringOrNull(toClassNameOrNull(item.getImplementation())));
-		stmt.setString(23, toClassStringOrNull(item.getUseBehavior()));
-		stmt.setString(24, item.getAttributes().get("itemdata"));
-		stmt.setString(25, item.getAttributes().get("menu"));
-		stmt.setString(26, item.getAttributes().get("use_sound"));
-		stmt.setString(27, item.getAttributes().get("persistent"));
-		stmt.setString(28, item.getAttributes().get("slot_name"));
-		stmt.setString(29, item.getAttributes().get("slot_size"));
-
-		stmt.setString(30, item.getAttributes().get("undroppableondeath"));
-		stmt.setInt(31, MathHelper.parseIntDefault(item.getAttributes().get("autobind"), 0));
-		stmt.setString(32, item.getAttributes().get("max_quantity"));
-		stmt.setString(33, item.getAttributes().get("deterioration"));
-		stmt.setInt(34, item.isUnattainable() ? 1: 0);
-
+	private Object[] getValues(DefaultItem item) {
 		/*
 		private List<String> slots = null;
 		private Map<String, String> attributes = null;
@@ -205,7 +259,44 @@ public class StendhalItemDAO {
 		private String[] statusAttacks;
 		private List<String> activeSlotsList;
 		 */
-		stmt.addBatch();
+		return new Object[] {
+			item.getItemClass(),
+			item.getItemSubclass(),
+			item.getDescription(),
+			Double.valueOf(item.getWeight()),
+			Integer.valueOf(item.getValue()),
+			item.getAttributes().get("min_level"),
+
+			item.getAttributes().get("atk"),
+			item.getAttributes().get("ratk"),
+			item.getAttributes().get("rate"),
+			item.getAttributes().get("def"),
+			item.getAttributes().get("range"),
+			toStringOrNull(item.getDamageType()),
+			item.getAttributes().get("lifesteal"),
+
+			item.getAttributes().get("amount"),
+			item.getAttributes().get("regen"),
+			item.getAttributes().get("frequency"),
+			item.getAttributes().get("immunization"),
+			item.getAttributes().get("antipoison"),
+			item.getAttributes().get("life_support"),
+
+			toStringOrNull(toClassNameOrNull(item.getImplementation())),
+			toClassStringOrNull(item.getUseBehavior()),
+			item.getAttributes().get("itemdata"),
+			item.getAttributes().get("menu"),
+			item.getAttributes().get("use_sound"),
+			item.getAttributes().get("persistent"),
+			item.getAttributes().get("slot_name"),
+			item.getAttributes().get("slot_size"),
+
+			item.getAttributes().get("undroppableondeath"),
+			Integer.valueOf(MathHelper.parseIntDefault(item.getAttributes().get("autobind"), 0)),
+			item.getAttributes().get("max_quantity"),
+			item.getAttributes().get("deterioration"),
+			Integer.valueOf(item.isUnattainable() ? 1 : 0)
+		};
 	}
 
 	public String toStringOrNull(Object o) {
@@ -231,52 +322,20 @@ public class StendhalItemDAO {
 
 
 	/**
-	 * dumps all NPCs
+	 * dumps all items that changed since the last dump
 	 *
 	 * @param transaction DBTransaction
 	 * @throws SQLException in case of an database error
 	 */
 	public void dump(DBTransaction transaction) throws SQLException {
 		long start = System.currentTimeMillis();
-		transaction.execute("UPDATE iteminfo SET active=0", null);
-		PreparedStatement stmt = transaction.prepareStatement("UPDATE iteminfo SET "
-				+ "active=?, name=?, class=?, subclass=?, description=?, weight=?, value=?, min_level=?, "
-				+ "atk=?, ratk=?, rate=?, def=?, projectile_range=?, damage_type=?, lifesteal=?, "
-				+ "amount=?, regen=?, frequency=?, immunization=?, antipoison=?, life_support=?, "
-				+ "implementation=?, use_behavior=?, itemdata=?, menu=?, use_sound=?, persistent=?, "
-				+ "slot_name=?, slot_size=?, undroppableondeath=?, autobind=?, max_quantity=?, "
-				+ "deterioration=?, unattainable=? "
-				+ "WHERE name=?", null);
-		Map<String, DefaultItem> unknown = new HashMap<>();
+		InfoTableDump dump = new InfoTableDump("iteminfo", COLUMNS);
 		EntityManager entityManager = SingletonRepository.getEntityManager();
 		Collection<DefaultItem> defaultItems = entityManager.getDefaultItems();
 		for (DefaultItem item : defaultItems) {
-			unknown.put(item.getItemName().trim(), item);
-			stmt.setString(35, item.getItemName());
-			dump(stmt, item);
-		}
-		stmt.executeBatch();
-
-
-		// add new
-		ResultSet resultSet = transaction.query("SELECT name FROM iteminfo", null);
-		while (resultSet.next()) {
-			unknown.remove(resultSet.getString(1));
-		}
-
-		stmt = transaction.prepareStatement("INSERT INTO iteminfo "
-				+ "(active, name, class, subclass, description, weight, value, min_level, "
-				+ "atk, ratk, rate, def, projectile_range, damage_type, lifesteal, "
-				+ "amount, regen, frequency, immunization, antipoison, life_support, "
-				+ "implementation, use_behavior, itemdata, menu, use_sound, persistent, "
-				+ "slot_name, slot_size, undroppableondeath, autobind, max_quantity, "
-				+ "deterioration, unattainable) " +
-			"VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?);", null);
-
-		for (DefaultItem item : unknown.values()) {
-			dump(stmt, item);
+			dump.add(item.getItemName(), getValues(item));
 		}
-		stmt.executeBatch();
+		dump.write(transaction);
 		logger.debug("Completed dumping of items in " + (System.currentTimeMillis() - start) + " milliseconds.");
 	}
 
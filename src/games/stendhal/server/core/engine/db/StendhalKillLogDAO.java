@@ -1,5 +1,5 @@
 /***************************************************************************
- *                    (C) Copyright 2003-2020 - Stendhal                   *
+ *                    (C) Copyright 2003-2026 - Stendhal                   *
  ***************************************************************************
  ***************************************************************************
  *                                                                         *
@@ -11,11 +11,16 @@
  ***************************************************************************/
 package games.stendhal.server.core.engine.db;
 
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.text.SimpleDateFormat;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 import games.stendhal.server.entity.Entity;
 import games.stendhal.server.entity.Killer;
@@ -31,36 +36,126 @@ import marauroa.server.db.DBTransaction;
 public class StendhalKillLogDAO {
 
 	/**
-	 * Logs a kill.
+	 * Logs aggregated kills. The counters of existing combinations are
+	 * increased in one batch, missing combinations are inserted in a second
+	 * batch.
 	 *
 	 * @param transaction transaction
-	 * @param killed killed entity
-	 * @param killer killer
+	 * @param kills number of kills by combination
 	 * @throws SQLException in case of an database error
 	 */
-	public void logKill(final DBTransaction transaction, final Entity killed, final Killer killer, Timestamp timestamp) throws SQLException {
-		// try update in case we already have this combination
-		String query = "UPDATE kills SET cnt = cnt+1"
-			+ " WHERE killed = '[killed]' AND killed_type = '[killed_type]'"
-			+ " AND killer = '[killer]' AND killer_type = '[killer_type]'"
-			+ " AND day = '[day]';";
-
-		Map<String, Object> params = new HashMap<String, Object>();
-		params.put("killed", killed.getName());
-		params.put("killed_type", entityToType(killed));
-		params.put("killer", killer.getName());
-		params.put("killer_type", entityToType(killer));
-		params.put("day", new SimpleDateFormat("yyyy-MM-dd").format(timestamp));
-
-		final int rowCount = transaction.execute(query, params);
-
-		// in case we did not have this combination yet, make an insert
-		if (rowCount == 0) {
-			query = "INSERT INTO kills (killed, killed_type, killer, killer_type, day, cnt)"
-				+ " VALUES ('[killed]', '[killed_type]', '[killer]', '[killer_type]', '[day]', 1)";
-			transaction.execute(query, params);
+	public void logKills(final DBTransaction transaction, final Map<KillKey, Integer> kills) throws SQLException {
+		if (kills.isEmpty()) {
+			return;
+		}
+		final List<Map.Entry<KillKey, Integer>> entries = new ArrayList<Map.Entry<KillKey, Integer>>(kills.entrySet());
+
+		PreparedStatement update = null;
+		PreparedStatement insert = null;
+		try {
+			// try update in case we already have this combination
+			update = transaction.prepareStatement("UPDATE kills SET cnt = cnt + ?"
+					+ " WHERE killed = ? AND killed_type = ? AND killer = ? AND killer_type = ? AND day = ?", null);
+			for (final Map.Entry<KillKey, Integer> entry : entries) {
+				final KillKey key = entry.getKey();
+				update.setInt(1, entry.getValue().intValue());
+				setKey(update, 2, key);
+				update.addBatch();
+			}
+			final int[] rowCounts = update.executeBatch();
+
+			// in case we did not have a combination yet, make an insert
+			insert = transaction.prepareStatement("INSERT INTO kills"
+					+ " (killed, killed_type, killer, killer_type, day, cnt) VALUES (?, ?, ?, ?, ?, ?)", null);
+			boolean inserts = false;
+			for (int i = 0; i < entries.size(); i++) {
+				final KillKey key = entries.get(i).getKey();
+				if (wasUpdated(transaction, rowCounts, i, key)) {
+					continue;
+				}
+				setKey(insert, 1, key);
+				insert.setInt(6, entries.get(i).getValue().intValue());
+				insert.addBatch();
+				inserts = true;
+			}
+			if (inserts) {
+				insert.executeBatch();
+			}
+		} finally {
+			if (update != null) {
+				update.close();
+			}
+			if (insert != null) {
+				insert.close();
+			}
 		}
+	}
+
+	/**
+	 * Checks if a statement of the update batch has found its row.
+	 *
+	 * @param transaction transaction
+	 * @param rowCounts results of the update batch
+	 * @param index index of the statement
+	 * @param key key of the row
+	 * @return <code>true</code> if the row exists and has been updated
+	 * @throws SQLException in case of an database error
+	 */
+	private boolean wasUpdated(final DBTransaction transaction, final int[] rowCounts, final int index,
+			final KillKey key) throws SQLException {
+		if (index < rowCounts.length) {
+			if (rowCounts[index] > 0) {
+				return true;
+			} else if (rowCounts[index] == 0) {
+				return false;
+			}
+		}
+
+		// The driver did not report the count (SUCCESS_NO_INFO, e.g. MySQL with
+		// rewriteBatchedStatements). As the update did not create the row, the
+		// row exists exactly if it has been updated.
+		final PreparedStatement query = transaction.prepareStatement("SELECT 1 FROM kills"
+				+ " WHERE killed = ? AND killed_type = ? AND killer = ? AND killer_type = ? AND day = ?", null);
+		try {
+			setKey(query, 1, key);
+			final ResultSet resultSet = query.executeQuery();
+			try {
+				return resultSet.next();
+			} finally {
+				resultSet.close();
+			}
+		} finally {
+			query.close();
+		}
+	}
+
+	/**
+	 * Sets the columns of a key as five consecutive parameters.
+	 *
+	 * @param stmt statement
+	 * @param first index of the first parameter
+	 * @param key key
+	 * @throws SQLException in case of an database error
+	 */
+	private void setKey(final PreparedStatement stmt, final int first, final KillKey key) throws SQLException {
+		stmt.setString(first, key.killed);
+		stmt.setString(first + 1, key.killedType);
+		stmt.setString(first + 2, key.killer);
+		stmt.setString(first + 3, key.killerType);
+		stmt.setDate(first + 4, Date.valueOf(key.day));
+	}
 
+	/**
+	 * Creates the key for a kill.
+	 *
+	 * @param killed killed entity
+	 * @param killer killer
+	 * @param timestamp time of the kill
+	 * @return key
+	 */
+	public KillKey createKey(final Entity killed, final Killer killer, final Timestamp timestamp) {
+		return new KillKey(killed.getName(), entityToType(killed), killer.getName(), entityToType(killer),
+				new SimpleDateFormat("yyyy-MM-dd").format(timestamp));
 	}
 
 	/**
@@ -79,4 +174,47 @@ public class StendhalKillLogDAO {
 		}
 	}
 
+	/**
+	 * A row of the kill log: the killed entity and the killer on one day.
+	 */
+	public static final class KillKey {
+		final String killed;
+		final String killedType;
+		final String killer;
+		final String killerType;
+		final String day;
+
+		KillKey(final String killed, final String killedType, final String killer, final String killerType,
+				final String day) {
+			this.killed = killed;
+			this.killedType = killedType;
+			this.killer = killer;
+			this.killerType = killerType;
+			this.day = day;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(killed, killedType, killer, killerType, day);
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof KillKey)) {
+				return false;
+			}
+			final KillKey other = (KillKey) obj;
+			return Objects.equals(killed, other.killed) && Objects.equals(killedType, other.killedType)
+					&& Objects.equals(killer, other.killer) && Objects.equals(killerType, other.killerType)
+					&& Objects.equals(day, other.day);
+		}
+
+		@Override
+		public String toString() {
+			return killerType + " " + killer + " killed " + killedType + " " + killed + " on " + day;
+		}
+	}
 }
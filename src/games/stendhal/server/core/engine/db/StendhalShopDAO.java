@@ -1,5 +1,5 @@
 /***************************************************************************
- *                    (C) Copyright 2003-2023 - Stendhal                   *
+ *                    (C) Copyright 2003-2026 - Stendhal                   *
  ***************************************************************************
  ***************************************************************************
  *                                                                         *
@@ -13,7 +13,11 @@ package games.stendhal.server.core.engine.db;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -57,64 +61,14 @@ public class StendhalShopDAO extends CharacterDAO {
 	 */
 
 	/**
-	 * Dumps the properties of the specified object into the prepared statement as
-	 * an operation in a batch.
+	 * Gets the inventory rows of a shop.
 	 *
-	 * @param stmt PreparedStatement in batch mode.
 	 * @param shop Shop
-	 * @throws SQLException in case a database error is thrown.
+	 * @param itemInfoIdMap ids of the items
+	 * @return values of name, price, iteminfo_id, outfit and trade_for
 	 */
-	private void dumpShop(PreparedStatement stmt, ShopInventory<?, ?> shop) throws SQLException {
-		stmt.setInt(1, 1);
-		stmt.setString(2, shop.getName());
-		stmt.setString(3, shop.getShopType().toString());
-		stmt.addBatch();
-	}
-
-	/**
-	 * dumps all creatures
-	 *
-	 * @param transaction DBTransaction
-	 * @throws SQLException in case of an database error
-	 */
-	public void dumpShops(DBTransaction transaction) throws SQLException {
-
-		// update existing
-		transaction.execute("UPDATE shopinfo SET active=0", null);
-		PreparedStatement stmt = transaction.prepareStatement("UPDATE shopinfo SET "
-				+ "active=?, name=?, shop_type=? "
-				+ "WHERE name=?", null);
-
-		Map<String, ShopInventory<?, ?>> unknown = new HashMap<>();
-		List<ShopInventory<?, ?>> shops = getShops();
-		for (ShopInventory<?, ?> shop : shops) {
-			unknown.put(shop.getName(), shop);
-			stmt.setString(4, shop.getName());
-			dumpShop(stmt, shop);
-		}
-		stmt.executeBatch();
-
-		// add new
-		Set<String> known = getShopIdMap(transaction).keySet();
-		for (String knownEntry : known) {
-			unknown.remove(knownEntry);
-		}
-
-		stmt = transaction.prepareStatement("INSERT INTO shopinfo "
-				+ "(active, name, shop_type) "
-				+ "VALUES (?, ?, ?);", null);
-		for (ShopInventory<?, ?> shop : unknown.values()) {
-			dumpShop(stmt, shop);
-		}
-		stmt.executeBatch();
-	}
-
-	private void dumpShopInventory(PreparedStatement stmt, ShopInventory<?, ?> shop,
-			Map<String, Integer> shopIdMap,
-			Map<String, Integer> itemInfoIdMap) throws SQLException {
-		String shopName = shop.getName();
-		Integer shopId = shopIdMap.get(shopName);
-
+	private List<Object[]> getInventoryRows(ShopInventory<?, ?> shop, Map<String, Integer> itemInfoIdMap) {
+		List<Object[]> rows = new LinkedList<>();
 		for (String name : shop.keySet()) {
 			String outfit = null;
 			Integer itemId = null;
@@ -134,69 +88,108 @@ public class StendhalShopDAO extends CharacterDAO {
 					tradeFor += tradeItem.first() + ":" + tradeItem.second();
 				}
 			}
-
-			stmt.setInt(1, 1);
-			stmt.setObject(2, shopId);
-			stmt.setString(3, name);
-			stmt.setObject(4, shop.getPrice(name));
-			stmt.setObject(5, itemId);
-			stmt.setObject(6, outfit);
-			stmt.setObject(7, tradeFor);
-			stmt.addBatch();
+			rows.add(new Object[] {name, shop.getPrice(name), itemId, outfit, tradeFor});
 		}
+		return rows;
 	}
 
-	private void dumpShopIventories(DBTransaction transaction) throws SQLException {
-		transaction.execute("DELETE FROM shopinventoryinfo", null);
-
-		List<ShopInventory<?, ?>> shops = getShops();
-		PreparedStatement stmt = transaction.prepareStatement("INSERT INTO shopinventoryinfo "
-				+ "(active, shopinfo_id, name, price, iteminfo_id, outfit, trade_for) "
-				+ "VALUES (?, ?, ?, ?, ?, ?, ?);", null);
-		Map<String, Integer> shopIdMap = getShopIdMap(transaction);
-		Map<String, Integer> itemInfoIdMap = DAORegister.get().get(StendhalItemDAO.class).getItemInfoIdMap(transaction);
-		for (ShopInventory<?, ?> shop : shops) {
-			dumpShopInventory(stmt, shop, shopIdMap, itemInfoIdMap);
-		}
-		stmt.executeBatch();
-	}
-
-	private void dumpShopOwner(PreparedStatement stmt, ShopInventory<?, ?> shop,
-			Map<String, Integer> shopIdMap,
-			Map<String, Integer> npcIdMap) throws SQLException {
-
-		String shopName = shop.getName();
-		Integer shopId = shopIdMap.get(shopName);
-
+	/**
+	 * Gets the owner rows of a shop.
+	 *
+	 * @param shop Shop
+	 * @param npcIdMap ids of the NPCs
+	 * @return values of npcinfo_id and price_factor
+	 */
+	private List<Object[]> getOwnerRows(ShopInventory<?, ?> shop, Map<String, Integer> npcIdMap) {
+		List<Object[]> rows = new LinkedList<>();
 		for (MerchantConfigurator mc : shop.getMerchantConfigurators()) {
 			float priceFactor = 1;
 			if (mc.factor != null) {
 				priceFactor = mc.factor.floatValue();
 			}
-
-			stmt.setInt(1, 1);
-			stmt.setObject(2, npcIdMap.get(mc.npc));
-			stmt.setObject(3, shopId);
-			stmt.setFloat(4, priceFactor);
-			stmt.addBatch();
+			rows.add(new Object[] {npcIdMap.get(mc.npc), Float.valueOf(priceFactor)});
 		}
-		stmt.executeBatch();
+		return rows;
+	}
 
+	/**
+	 * Describes rows in an order independent way, so that changes can be detected.
+	 *
+	 * @param description description to append to
+	 * @param rows rows
+	 */
+	private void describe(StringBuilder description, List<Object[]> rows) {
+		List<String> lines = new ArrayList<>();
+		for (Object[] row : rows) {
+			lines.add(Arrays.toString(row));
+		}
+		Collections.sort(lines);
+		for (String line : lines) {
+			description.append(line).append('\n');
+		}
 	}
 
-	private void dumpShopOwners(DBTransaction transaction) throws SQLException {
-		transaction.execute("DELETE FROM shopownerinfo", null);
+	/**
+	 * Rewrites the inventories and owners of shops.
+	 *
+	 * @param transaction DBTransaction
+	 * @param shops shops to write
+	 * @param changed names of the shops whose rows have to be replaced
+	 * @param itemInfoIdMap ids of the items
+	 * @param npcIdMap ids of the NPCs
+	 * @throws SQLException in case of an database error
+	 */
+	private void dumpShopContents(DBTransaction transaction, List<ShopInventory<?, ?>> shops, Set<String> changed,
+			Map<String, Integer> itemInfoIdMap, Map<String, Integer> npcIdMap) throws SQLException {
+		Map<String, Integer> shopIdMap = getShopIdMap(transaction);
 
-		List<ShopInventory<?, ?>> shops = getShops();
-		PreparedStatement stmt = transaction.prepareStatement("INSERT INTO shopownerinfo "
+		PreparedStatement deleteInventory = transaction.prepareStatement(
+				"DELETE FROM shopinventoryinfo WHERE shopinfo_id=?", null);
+		PreparedStatement deleteOwners = transaction.prepareStatement(
+				"DELETE FROM shopownerinfo WHERE shopinfo_id=?", null);
+		for (String name : changed) {
+			Integer shopId = shopIdMap.get(name);
+			if (shopId != null) {
+				deleteInventory.setInt(1, shopId.intValue());
+				deleteInventory.addBatch();
+				deleteOwners.setInt(1, shopId.intValue());
+				deleteOwners.addBatch();
+			}
+		}
+		deleteInventory.executeBatch();
+		deleteOwners.executeBatch();
+
+		PreparedStatement inventory = transaction.prepareStatement("INSERT INTO shopinventoryinfo "
+				+ "(active, shopinfo_id, name, price, iteminfo_id, outfit, trade_for) "
+				+ "VALUES (?, ?, ?, ?, ?, ?, ?);", null);
+		PreparedStatement owners = transaction.prepareStatement("INSERT INTO shopownerinfo "
 				+ "(active, npcinfo_id, shopinfo_id, price_factor) "
 				+ "VALUES (?, ?, ?, ?);", null);
-		Map<String, Integer> shopIdMap = getShopIdMap(transaction);
-		Map<String, Integer> npcIdMap = DAORegister.get().get(StendhalNPCDAO.class).getIdMap(transaction);
 		for (ShopInventory<?, ?> shop : shops) {
-			dumpShopOwner(stmt, shop, shopIdMap, npcIdMap);
+			if (!changed.contains(shop.getName())) {
+				continue;
+			}
+			Integer shopId = shopIdMap.get(shop.getName());
+			for (Object[] row : getInventoryRows(shop, itemInfoIdMap)) {
+				inventory.setInt(1, 1);
+				inventory.setObject(2, shopId);
+				inventory.setString(3, (String) row[0]);
+				inventory.setObject(4, row[1]);
+				inventory.setObject(5, row[2]);
+				inventory.setObject(6, row[3]);
+				inventory.setObject(7, row[4]);
+				inventory.addBatch();
+			}
+			for (Object[] row : getOwnerRows(shop, npcIdMap)) {
+				owners.setInt(1, 1);
+				owners.setObject(2, row[0]);
+				owners.setObject(3, shopId);
+				owners.setFloat(4, ((Float) row[1]).floatValue());
+				owners.addBatch();
+			}
 		}
-		stmt.executeBatch();
+		inventory.executeBatch();
+		owners.executeBatch();
 	}
 
 	private List<ShopInventory<?, ?>> getShops() {
@@ -213,11 +206,50 @@ public class StendhalShopDAO extends CharacterDAO {
 	}
 
 
+	/**
+	 * dumps all shops that changed since the last dump, together with their
+	 * inventories and owners
+	 *
+	 * @param transaction DBTransaction
+	 * @throws SQLException in case of an database error
+	 */
 	public void dump(DBTransaction transaction) throws SQLException {
+		dump(transaction, getShops());
+	}
+
+	/**
+	 * dumps the specified shops, and deactivates all others
+	 *
+	 * @param transaction DBTransaction
+	 * @param shops shops to dump
+	 * @throws SQLException in case of an database error
+	 */
+	void dump(DBTransaction transaction, List<ShopInventory<?, ?>> shops) throws SQLException {
 		long start = System.currentTimeMillis();
-		dumpShops(transaction);
-		dumpShopIventories(transaction);
-		dumpShopOwners(transaction);
+		Map<String, Integer> itemInfoIdMap = DAORegister.get().get(StendhalItemDAO.class).getItemInfoIdMap(transaction);
+		Map<String, Integer> npcIdMap = DAORegister.get().get(StendhalNPCDAO.class).getIdMap(transaction);
+
+		// the inventory and owners are part of the content of a shop
+		Map<String, String> types = new LinkedHashMap<>();
+		Map<String, StringBuilder> details = new HashMap<>();
+		for (ShopInventory<?, ?> shop : shops) {
+			types.put(shop.getName(), shop.getShopType().toString());
+			StringBuilder description = details.get(shop.getName());
+			if (description == null) {
+				description = new StringBuilder();
+				details.put(shop.getName(), description);
+			}
+			describe(description, getInventoryRows(shop, itemInfoIdMap));
+			describe(description, getOwnerRows(shop, npcIdMap));
+		}
+		InfoTableDump dump = new InfoTableDump("shopinfo", "shop_type");
+		for (Map.Entry<String, String> entry : types.entrySet()) {
+			dump.add(entry.getKey(), new Object[] {entry.getValue()}, details.get(entry.getKey()).toString());
+		}
+		Set<String> changed = dump.write(transaction);
+		if (!changed.isEmpty()) {
+			dumpShopContents(transaction, shops, changed, itemInfoIdMap, npcIdMap);
+		}
 		logger.debug("Completed dumping of shops in " + (System.currentTimeMillis() - start) + " milliseconds.");
 	}
 }
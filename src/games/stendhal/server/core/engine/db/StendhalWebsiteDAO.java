@@ -1,5 +1,5 @@
 /***************************************************************************
- *                    (C) Copyright 2003-2020 - Stendhal                   *
+ *                    (C) Copyright 2003-2026 - Stendhal                   *
  ***************************************************************************
  ***************************************************************************
  *                                                                         *
@@ -13,19 +13,24 @@ package games.stendhal.server.core.engine.db;
 
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.log4j.Logger;
 
 import games.stendhal.common.MathHelper;
 import games.stendhal.server.core.engine.StendhalRPZone;
 import games.stendhal.server.entity.item.Item;
+import games.stendhal.server.entity.player.CharacterStatsTracker;
 import games.stendhal.server.entity.player.Player;
 import marauroa.common.game.RPObject;
 import marauroa.common.game.RPSlot;
 import marauroa.server.db.DBTransaction;
 import marauroa.server.db.TransactionPool;
+import marauroa.server.game.Statistics;
 
 
 /**
@@ -34,6 +39,10 @@ import marauroa.server.db.TransactionPool;
 public class StendhalWebsiteDAO {
 	private static Logger logger = Logger.getLogger(StendhalWebsiteDAO.class);
 
+	/** columns of character_stats that are not written as quoted strings */
+	private static final Set<String> NUMERIC_COLUMNS = new HashSet<String>(Arrays.asList(
+			"admin", "age", "level", "outfit", "xp"));
+
 	/**
 	 * clears the online status of all players (used on server startup)
 	 *
@@ -112,7 +121,9 @@ public class StendhalWebsiteDAO {
 	}
 
 	/**
-	 * updates the statistics information about a player
+	 * updates the statistics information about a player. Only the columns
+	 * that changed since the player was last stored are written, and just
+	 * lastseen if there are no changes.
 	 *
 	 * @param transaction DBTransaction
 	 * @param player Player
@@ -121,6 +132,49 @@ public class StendhalWebsiteDAO {
 	 * @throws SQLException in case of an database error
 	 */
 	protected int updateCharStats(final DBTransaction transaction, final Player player, Timestamp timestamp) throws SQLException {
+		final Map<String, Object> params = getParamsFromPlayer(player);
+		final CharacterStatsTracker tracker = player.getCharacterStatsTracker();
+		final Map<String, Object> changes = tracker.getChanges(params);
+		if (changes == null) {
+			return updateAllCharStats(transaction, params, tracker, timestamp);
+		}
+
+		// params includes the name, which is not written
+		final Statistics stats = Statistics.getStatistics();
+		stats.add("Character stats columns skipped", params.size() - 1 - changes.size());
+
+		final StringBuilder query = new StringBuilder("UPDATE character_stats SET ");
+		for (final String column : changes.keySet()) {
+			appendAssignment(query, column);
+			query.append(", ");
+		}
+		query.append("lastseen='[lastseen]' WHERE name='[name]'");
+
+		changes.put("name", player.getName());
+		changes.put("lastseen", timestamp);
+		logger.debug("storeCharacter is running: " + query);
+		final int count = transaction.execute(query.toString(), changes);
+		if (count > 0) {
+			tracker.stored(changes);
+		} else {
+			tracker.reset();
+		}
+		stats.add("Character stats columns written", changes.size() - 1);
+		return count;
+	}
+
+	/**
+	 * writes all columns of the statistics information about a player
+	 *
+	 * @param transaction DBTransaction
+	 * @param params values from the player
+	 * @param tracker tracker of the stored values
+	 * @param timestamp timestamp
+	 * @return number of updates rows
+	 * @throws SQLException in case of an database error
+	 */
+	private int updateAllCharStats(final DBTransaction transaction, final Map<String, Object> params,
+			final CharacterStatsTracker tracker, Timestamp timestamp) throws SQLException {
 		final String query = "UPDATE character_stats SET "
 			+ " admin=[admin], sentence='[sentence]', age=[age], level=[level],"
 			+ " outfit=[outfit], outfit_colors='[outfit_colors]', outfit_layers='[outfit_layers]', xp=[xp], money='[money]',"
@@ -130,13 +184,31 @@ public class StendhalWebsiteDAO {
 			+ " finger='[finger]', zone='[zone]'"
 			+ " WHERE name='[name]'";
 
-		Map<String, Object> params = getParamsFromPlayer(player);
 		params.put("lastseen", timestamp);
 		logger.debug("storeCharacter is running: " + query);
 		final int count = transaction.execute(query, params);
+		if (count > 0) {
+			tracker.stored(params);
+		}
+		Statistics.getStatistics().add("Character stats columns written", params.size() - 1);
 		return count;
 	}
 
+	/**
+	 * appends the assignment of a parameter to the column of the same name
+	 *
+	 * @param query query to append to
+	 * @param column column name
+	 */
+	private static void appendAssignment(final StringBuilder query, final String column) {
+		query.append(column);
+		if (NUMERIC_COLUMNS.contains(column)) {
+			query.append("=[").append(column).append(']');
+		} else {
+			query.append("='[").append(column).append("]'");
+		}
+	}
+
 	/**
 	 * gets the attributes from a player object.
 	 *
@@ -193,13 +265,14 @@ public class StendhalWebsiteDAO {
 			+ " legs, feet, cloak, finger, zone, lastseen)"
 			+ " VALUES ('[name]', '[admin]', '[sentence]', '[age]', '[level]',"
 			+ " '[outfit]', '[outfit_colors]', '[outfit_layers]', '[xp]', '[money]', '[married]',"
-			+ " '[atk]', '[atk]', '[hp]', '[karma]', '[head]', '[armor]',"
+			+ " '[atk]', '[def]', '[hp]', '[karma]', '[head]', '[armor]',"
 			+ " '[lhand]', '[rhand]', '[legs]', '[feet]', '[cloak]', '[finger]',"
 			+ " '[zone]', '[lastseen]')";
 		Map<String, Object> params = getParamsFromPlayer(player);
 		params.put("lastseen", timestamp);
 		logger.debug("storeCharacter is running: " + query);
 		transaction.execute(query, params);
+		player.getCharacterStatsTracker().stored(params);
 	}
 
 	/**
@@ -1,5 +1,5 @@
 /***************************************************************************
- *                    (C) Copyright 2007-2013 - Stendhal                   *
+ *                    (C) Copyright 2007-2026 - Stendhal                   *
  ***************************************************************************
  ***************************************************************************
  *                                                                         *
@@ -11,6 +11,7 @@
  ***************************************************************************/
 package games.stendhal.server.core.engine.dbcommand;
 
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
 import marauroa.common.game.RPObject;
@@ -24,6 +25,8 @@ import marauroa.server.db.command.AbstractDBCommand;
  */
 public abstract class AbstractLogItemEventCommand extends AbstractDBCommand {
 
+	/** statement collecting the itemlog entries, owned by the enclosing batch command */
+	private PreparedStatement batch;
 
 	@Override
 	public void execute(DBTransaction transaction) throws SQLException {
@@ -39,6 +42,24 @@ public abstract class AbstractLogItemEventCommand extends AbstractDBCommand {
 	 */
 	protected abstract void log(DBTransaction transaction) throws SQLException;
 
+	/**
+	 * sets the statement to add the itemlog entries to, instead of writing them directly
+	 *
+	 * @param batch statement collecting the itemlog entries, or <code>null</code>
+	 */
+	void setBatch(final PreparedStatement batch) {
+		this.batch = batch;
+	}
+
+	/**
+	 * gets the statement to add the itemlog entries to
+	 *
+	 * @return statement collecting the itemlog entries, or <code>null</code> to write them directly
+	 */
+	protected PreparedStatement getBatch() {
+		return batch;
+	}
+
 	/**
 	 * gets the quantity from an item; correctly handles non stackable items
 	 *
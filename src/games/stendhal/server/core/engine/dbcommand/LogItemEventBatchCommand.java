@@ -0,0 +1,91 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine.dbcommand;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+import com.google.common.base.MoreObjects;
+
+import games.stendhal.server.core.engine.db.StendhalItemDAO;
+import marauroa.server.db.DBTransaction;
+import marauroa.server.db.command.AbstractDBCommand;
+import marauroa.server.game.Statistics;
+import marauroa.server.game.db.DAORegister;
+
+/**
+ * logs several item events, writing their itemlog entries in one batch
+ *
+ * @author hendrik
+ */
+public class LogItemEventBatchCommand extends AbstractDBCommand {
+
+	private final List<AbstractLogItemEventCommand> commands;
+
+	/**
+	 * creates a new LogItemEventBatchCommand
+	 *
+	 * @param commands item log commands in the order they should be executed
+	 */
+	public LogItemEventBatchCommand(final List<AbstractLogItemEventCommand> commands) {
+		this.commands = commands;
+	}
+
+	@Override
+	public void execute(final DBTransaction transaction) throws SQLException {
+		final StendhalItemDAO stendhalItemDAO = DAORegister.get().get(StendhalItemDAO.class);
+		// the statement belongs to this command only, so a failed batch that
+		// rolls back the transaction does not leave it behind
+		final PreparedStatement batch = stendhalItemDAO.itemLogPrepareBatch(transaction);
+		int entries;
+		try {
+			for (final AbstractLogItemEventCommand command : commands) {
+				command.setBatch(batch);
+				try {
+					command.execute(transaction);
+				} finally {
+					command.setBatch(null);
+				}
+			}
+			entries = batch.executeBatch().length;
+		} finally {
+			batch.close();
+		}
+
+		final Statistics stats = Statistics.getStatistics();
+		stats.set("Itemlog batch size", entries);
+		if (!commands.isEmpty() && (commands.get(0).getEnqueueTime() != null)) {
+			final long latency = System.currentTimeMillis() - commands.get(0).getEnqueueTime().getTime();
+			stats.set("Itemlog flush latency", (int) latency);
+		}
+	}
+
+	/**
+	 * gets the number of item events
+	 *
+	 * @return number of events
+	 */
+	public int size() {
+		return commands.size();
+	}
+
+	/**
+	 * returns a string suitable for debug output of this DBCommand.
+	 *
+	 * @return debug string
+	 */
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this).add("events", commands.size()).toString();
+	}
+}
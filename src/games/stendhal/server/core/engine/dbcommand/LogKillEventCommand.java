@@ -12,10 +12,10 @@
 package games.stendhal.server.core.engine.dbcommand;
 
 import java.sql.SQLException;
+import java.util.Map;
 
 import games.stendhal.server.core.engine.db.StendhalKillLogDAO;
-import games.stendhal.server.entity.Entity;
-import games.stendhal.server.entity.Killer;
+import games.stendhal.server.core.engine.db.StendhalKillLogDAO.KillKey;
 import marauroa.server.db.DBTransaction;
 import marauroa.server.db.command.AbstractDBCommand;
 import marauroa.server.game.db.DAORegister;
@@ -27,24 +27,21 @@ import marauroa.server.game.db.DAORegister;
  */
 public class LogKillEventCommand extends AbstractDBCommand {
 
-	private Entity frozenKilled;
-	private Killer frozenKiller;
+	private final Map<KillKey, Integer> kills;
 
 	/**
 	 * creates a new LogKillEventCommand
 	 *
-	 * @param killed killed entity
-	 * @param killer killer entity
+	 * @param kills number of kills by killed entity, killer and day
 	 */
-	public LogKillEventCommand(Entity killed, Killer killer) {
-		this.frozenKilled = (Entity) killed.clone();
-		this.frozenKiller = (Killer) killer.clone();
+	public LogKillEventCommand(Map<KillKey, Integer> kills) {
+		this.kills = kills;
 	}
 
 	@Override
 	public void execute(DBTransaction transaction) throws SQLException {
 		StendhalKillLogDAO killLog = DAORegister.get().get(StendhalKillLogDAO.class);
-		killLog.logKill(transaction, frozenKilled, frozenKiller, getEnqueueTime());
+		killLog.logKills(transaction, kills);
 	}
 
 	/**
@@ -54,7 +51,6 @@ public class LogKillEventCommand extends AbstractDBCommand {
 	 */
 	@Override
 	public String toString() {
-		return "LogKillEventCommand [frozenKilled=" + frozenKilled
-				+ ", frozenKiller=" + frozenKiller + "]";
+		return "LogKillEventCommand [kills=" + kills + "]";
 	}
 }
@@ -1,5 +1,5 @@
 /***************************************************************************
- *                    (C) Copyright 2007-2013 - Stendhal                   *
+ *                    (C) Copyright 2007-2026 - Stendhal                   *
  ***************************************************************************
  ***************************************************************************
  *                                                                         *
@@ -66,8 +66,8 @@ public class LogSimpleItemEventCommand extends AbstractLogItemEventCommand {
 			return;
 		}
 		StendhalItemDAO stendhalItemDAO = DAORegister.get().get(StendhalItemDAO.class);
-		stendhalItemDAO.itemLogAssignIDIfNotPresent(transaction, item, getEnqueueTime());
-		stendhalItemDAO.itemLogWriteEntry(transaction, getEnqueueTime(), item, player, event, param1, param2, param3, param4);
+		stendhalItemDAO.itemLogAssignIDIfNotPresent(transaction, getBatch(), item, getEnqueueTime());
+		stendhalItemDAO.itemLogWriteEntry(transaction, getBatch(), getEnqueueTime(), item, player, event, param1, param2, param3, param4);
 	}
 
 	/**
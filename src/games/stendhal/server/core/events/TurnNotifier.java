@@ -12,10 +12,6 @@
  ***************************************************************************/
 package games.stendhal.server.core.events;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -24,6 +20,7 @@ import org.apache.log4j.Logger;
 
 import games.stendhal.server.core.engine.SingletonRepository;
 import games.stendhal.server.core.engine.StendhalRPWorld;
+import games.stendhal.server.core.engine.ZoneTurnExecutor;
 
 /**
  * Other classes can register here to be notified at some time in the future.
@@ -40,11 +37,11 @@ public final class TurnNotifier {
 	private int currentTurn = -1;
 
 	/**
-	 * This Map maps each turn to the set of all events that will take place at
-	 * this turn. Turns at which no event should take place needn't be
-	 * registered here.
+	 * The timing wheel holding all events that will take place in the
+	 * future. It keeps an index from each listener to its events, so that
+	 * cancellation does not need to look at other listeners.
 	 */
-	private final Map<Integer, Set<TurnListener>> register = new HashMap<Integer, Set<TurnListener>>();
+	private final TurnTimerWheel register = new TurnTimerWheel();
 
 	/** Used for multi-threading synchronization. * */
 	private final Object sync = new Object();
@@ -85,33 +82,24 @@ public final class TurnNotifier {
 
 		this.currentTurn = currentTurn;
 
-		// get and remove the set for this turn
-		Set<TurnListener> set = null;
+		// get and remove the listeners for this turn
+		List<TurnListener> set = null;
 		synchronized (sync) {
-			set = register.remove(Integer.valueOf(currentTurn));
+			set = register.poll(currentTurn);
 		}
 
 		if (logger.isDebugEnabled()) {
 			final StringBuilder os = new StringBuilder();
 			os.append("register: " + register.size() + "\n");
-			int setSize;
-			if (set != null) {
-				setSize = set.size();
-			} else {
-				setSize = 0;
-			}
-			os.append("set: " + setSize + "\n");
+			os.append("set: " + set.size() + "\n");
 			logger.info(os);
 		}
 
-		if (set != null) {
-			for (final TurnListener turnListener : set) {
-
-				try {
-					turnListener.onTurnReached(currentTurn);
-				} catch (final RuntimeException e) {
-					logger.error("Exception in " + turnListener, e);
-				}
+		for (final TurnListener turnListener : set) {
+			try {
+				turnListener.onTurnReached(currentTurn);
+			} catch (final RuntimeException e) {
+				logger.error("Exception in " + turnListener, e);
 			}
 		}
 	}
@@ -143,7 +131,8 @@ public final class TurnNotifier {
 	}
 
 	/**
-	 * Notifies the <i>turnListener</i> at turn number <i>turn</i>.
+	 * Notifies the <i>turnListener</i> at turn number <i>turn</i>. Listeners
+	 * for the same turn are notified in the order they have been registered.
 	 *
 	 * @param turn
 	 *            the number of the turn
@@ -176,17 +165,16 @@ public final class TurnNotifier {
 			return;
 		}
 
-		synchronized (sync) {
-			// do we have other events for this turn?
-			final Integer turnInt = Integer.valueOf(turn);
-			Set<TurnListener> set = register.get(turnInt);
-			if (set == null) {
-				set = new HashSet<TurnListener>();
-				register.put(turnInt, set);
+		// registrations from parallel zone logic are merged after the phase
+		ZoneTurnExecutor.runOrDefer(new Runnable() {
+			@Override
+			public void run() {
+				synchronized (sync) {
+					// a listener is notified only once per turn
+					register.add(turn, turnListener, currentTurn);
+				}
 			}
-			// add it to the list
-			set.add(turnListener);
-		}
+		});
 	}
 
 	/**
@@ -198,19 +186,14 @@ public final class TurnNotifier {
 
 	public void dontNotify(final TurnListener turnListener) {
 		// all events that are equal to this one should be forgotten.
-		// TurnEvent turnEvent = new TurnEvent(turnListener);
-		for (final Map.Entry<Integer, Set<TurnListener>> mapEntry : register.entrySet()) {
-			final Set<TurnListener> set = mapEntry.getValue();
-			// We don't remove directly, but first store in this
-			// set. This is to avoid ConcurrentModificationExceptions.
-			final Set<TurnListener> toBeRemoved = new HashSet<TurnListener>();
-			if (set.contains(turnListener)) {
-					toBeRemoved.add(turnListener);
-			}
-			for (final TurnListener event : toBeRemoved) {
-				set.remove(event);
+		ZoneTurnExecutor.runOrDefer(new Runnable() {
+			@Override
+			public void run() {
+				synchronized (sync) {
+					register.remove(turnListener);
+				}
 			}
-		}
+		});
 	}
 
 	/**
@@ -224,21 +207,12 @@ public final class TurnNotifier {
 
 	public int getRemainingTurns(final TurnListener turnListener) {
 		// all events match that are equal to this.
-		// TurnEvent turnEvent = new TurnEvent(turnListener);
-		// the HashMap is unsorted, so we need to run through
-		// all of it.
-		final List<Integer> matchingTurns = new ArrayList<Integer>();
-		for (final Map.Entry<Integer, Set<TurnListener>> mapEntry : register.entrySet()) {
-			final Set<TurnListener> set = mapEntry.getValue();
-			for (final TurnListener currentEvent : set) {
-				if (currentEvent.equals(turnListener)) {
-					matchingTurns.add(mapEntry.getKey());
-				}
-			}
+		Integer turn;
+		synchronized (sync) {
+			turn = register.getNextTurn(turnListener);
 		}
-		if (matchingTurns.size() > 0) {
-			Collections.sort(matchingTurns);
-			return matchingTurns.get(0).intValue() - currentTurn;
+		if (turn != null) {
+			return turn.intValue() - currentTurn;
 		} else {
 			return -1;
 		}
@@ -259,13 +233,25 @@ public final class TurnNotifier {
 	}
 
 	/**
-	 * Returns the list of events. Note this is only for debugging the
-	 * TurnNotifier
+	 * Returns a snapshot of the list of events. Note this is only for
+	 * debugging the TurnNotifier
 	 *
 	 * @return eventList
 	 */
 	public Map<Integer, Set<TurnListener>> getEventListForDebugging() {
-		return register;
+		synchronized (sync) {
+			return register.toMap();
+		}
+	}
+
+	/**
+	 * Forgets all registered events. Note this is only for debugging the
+	 * TurnNotifier
+	 */
+	public void clearForDebugging() {
+		synchronized (sync) {
+			register.clear();
+		}
 	}
 
 	/**
@@ -0,0 +1,279 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.events;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * A hashed hierarchical timing wheel for turn based notifications.
+ * <p>
+ * Level 0 has one slot per turn for the next 256 turns, every higher level
+ * covers 256 times the range of the level below it. Entries are moved down
+ * a level when the turn notifier reaches their window. Each listener is
+ * additionally linked to all of its entries, so that cancellation and
+ * lookup of the remaining time only touch the entries of that listener.
+ * <p>
+ * This class is not thread safe, TurnNotifier takes care of that.
+ */
+final class TurnTimerWheel {
+
+	private static final int SLOT_BITS = 8;
+	private static final int SLOTS = 1 << SLOT_BITS;
+	private static final int SLOT_MASK = SLOTS - 1;
+	private static final int LEVELS = 4;
+
+	/**
+	 * A scheduled notification. It is linked into the slot list of its
+	 * wheel level and into the list of entries of its listener.
+	 */
+	private static final class Entry {
+		final TurnListener listener;
+		final int turn;
+		final long sequence;
+		int level;
+		int slot;
+		Entry previous;
+		Entry next;
+		Entry nextOfListener;
+
+		Entry(final TurnListener listener, final int turn, final long sequence) {
+			this.listener = listener;
+			this.turn = turn;
+			this.sequence = sequence;
+		}
+	}
+
+	/** slot lists of all levels */
+	private final Entry[][] wheel = new Entry[LEVELS][SLOTS];
+
+	/** maps each listener to the first of its entries */
+	private final Map<TurnListener, Entry> byListener = new HashMap<TurnListener, Entry>();
+
+	/** number of scheduled entries */
+	private int size;
+
+	/** increasing counter to keep the registration order within a turn */
+	private long sequence;
+
+	/**
+	 * Schedules a listener. If the listener is already scheduled for the
+	 * same turn, this call has no effect.
+	 *
+	 * @param turn turn to notify at
+	 * @param listener listener to notify
+	 * @param currentTurn current turn
+	 */
+	void add(final int turn, final TurnListener listener, final int currentTurn) {
+		final Entry first = byListener.get(listener);
+		for (Entry entry = first; entry != null; entry = entry.nextOfListener) {
+			if (entry.turn == turn) {
+				return;
+			}
+		}
+
+		final Entry entry = new Entry(listener, turn, sequence++);
+		entry.nextOfListener = first;
+		byListener.put(listener, entry);
+		link(entry, currentTurn);
+		size++;
+	}
+
+	/**
+	 * Removes all entries of a listener.
+	 *
+	 * @param listener listener
+	 */
+	void remove(final TurnListener listener) {
+		Entry entry = byListener.remove(listener);
+		while (entry != null) {
+			unlink(entry);
+			size--;
+			entry = entry.nextOfListener;
+		}
+	}
+
+	/**
+	 * Gets the earliest turn a listener is scheduled for.
+	 *
+	 * @param listener listener
+	 * @return turn, or <code>null</code> if the listener is not scheduled
+	 */
+	Integer getNextTurn(final TurnListener listener) {
+		Integer res = null;
+		for (Entry entry = byListener.get(listener); entry != null; entry = entry.nextOfListener) {
+			if ((res == null) || (entry.turn < res.intValue())) {
+				res = Integer.valueOf(entry.turn);
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * Removes all listeners scheduled for exactly the specified turn and
+	 * returns them in the order they have been registered.
+	 *
+	 * @param turn turn that has been reached
+	 * @return due listeners
+	 */
+	List<TurnListener> poll(final int turn) {
+		// move entries of the current window down to the lower levels
+		for (int level = LEVELS - 1; level > 0; level--) {
+			final int shift = level * SLOT_BITS;
+			Entry entry = wheel[level][(turn >>> shift) & SLOT_MASK];
+			while (entry != null) {
+				final Entry next = entry.next;
+				if ((entry.turn >>> shift) == (turn >>> shift)) {
+					unlink(entry);
+					link(entry, turn);
+				}
+				entry = next;
+			}
+		}
+
+		final List<Entry> due = new ArrayList<Entry>();
+		Entry entry = wheel[0][turn & SLOT_MASK];
+		while (entry != null) {
+			final Entry next = entry.next;
+			if (entry.turn == turn) {
+				unlink(entry);
+				forget(entry);
+				due.add(entry);
+			}
+			entry = next;
+		}
+
+		final List<TurnListener> res = new ArrayList<TurnListener>(due.size());
+		if (due.size() > 1) {
+			due.sort((a, b) -> Long.compare(a.sequence, b.sequence));
+		}
+		for (final Entry dueEntry : due) {
+			res.add(dueEntry.listener);
+		}
+		return res;
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	void clear() {
+		for (final Entry[] slots : wheel) {
+			Arrays.fill(slots, null);
+		}
+		byListener.clear();
+		size = 0;
+	}
+
+	/**
+	 * Gets the number of scheduled entries.
+	 *
+	 * @return number of entries
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Creates a snapshot of all scheduled entries sorted by turn.
+	 *
+	 * @return turn to listeners map
+	 */
+	Map<Integer, Set<TurnListener>> toMap() {
+		final Map<Integer, Set<TurnListener>> res = new TreeMap<Integer, Set<TurnListener>>();
+		for (final Entry first : byListener.values()) {
+			for (Entry entry = first; entry != null; entry = entry.nextOfListener) {
+				Set<TurnListener> set = res.get(Integer.valueOf(entry.turn));
+				if (set == null) {
+					set = new LinkedHashSet<TurnListener>();
+					res.put(Integer.valueOf(entry.turn), set);
+				}
+				set.add(entry.listener);
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * Puts an entry into the lowest level which covers its distance from
+	 * the reference turn.
+	 *
+	 * @param entry entry
+	 * @param referenceTurn turn to measure the distance from
+	 */
+	private void link(final Entry entry, final int referenceTurn) {
+		final int reference = Math.max(referenceTurn, 0);
+		int level = 0;
+		while ((level < LEVELS - 1)
+				&& ((entry.turn >>> (level * SLOT_BITS)) - (reference >>> (level * SLOT_BITS)) >= SLOTS)) {
+			level++;
+		}
+		final int slot = (entry.turn >>> (level * SLOT_BITS)) & SLOT_MASK;
+		entry.level = level;
+		entry.slot = slot;
+		entry.previous = null;
+		entry.next = wheel[level][slot];
+		if (entry.next != null) {
+			entry.next.previous = entry;
+		}
+		wheel[level][slot] = entry;
+	}
+
+	/**
+	 * Removes an entry from its slot list.
+	 *
+	 * @param entry entry
+	 */
+	private void unlink(final Entry entry) {
+		if (entry.previous != null) {
+			entry.previous.next = entry.next;
+		} else {
+			wheel[entry.level][entry.slot] = entry.next;
+		}
+		if (entry.next != null) {
+			entry.next.previous = entry.previous;
+		}
+		entry.previous = null;
+		entry.next = null;
+	}
+
+	/**
+	 * Removes an entry from the list of entries of its listener.
+	 *
+	 * @param entry entry
+	 */
+	private void forget(final Entry entry) {
+		final Entry first = byListener.get(entry.listener);
+		if (first == entry) {
+			if (entry.nextOfListener == null) {
+				byListener.remove(entry.listener);
+			} else {
+				byListener.put(entry.listener, entry.nextOfListener);
+			}
+		} else {
+			Entry previous = first;
+			while ((previous != null) && (previous.nextOfListener != entry)) {
+				previous = previous.nextOfListener;
+			}
+			if (previous != null) {
+				previous.nextOfListener = entry.nextOfListener;
+			}
+		}
+		entry.nextOfListener = null;
+		size--;
+	}
+}
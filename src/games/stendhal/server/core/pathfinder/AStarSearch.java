@@ -0,0 +1,355 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.pathfinder;
+
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+
+/**
+ * Allocation free A* search on a tile grid.
+ * <p>
+ * All node data is kept in primitive arrays indexed by
+ * <code>x + y * width</code>. The arrays are reused by all searches of a
+ * thread and grow to the size of the largest zone searched. A generation
+ * counter marks which entries belong to the current search, so the arrays do
+ * not need to be cleared between searches. The open list is a binary heap of
+ * node indices that breaks ties exactly like {@link java.util.PriorityQueue},
+ * so the found paths are the same as those of the former object based
+ * implementation.
+ */
+final class AStarSearch {
+	/** Node weight bonus for nodes that do not change the walking direction. */
+	private static final double STRAIGHT_PATH_PREFERENCE_FACTOR = 0.2;
+
+	/** Maximum number of children of a node. */
+	private static final int MAX_CHILDREN = 4;
+
+	/** No parent. */
+	private static final int NONE = -1;
+
+	private static final ThreadLocal<AStarSearch> INSTANCES = new ThreadLocal<AStarSearch>() {
+		@Override
+		protected AStarSearch initialValue() {
+			return new AStarSearch();
+		}
+	};
+
+	/** Generation each node was last touched in. */
+	private int[] generations = new int[0];
+	/** The g-values. */
+	private double[] g = new double[0];
+	/** The f-values. */
+	private double[] weights = new double[0];
+	/** Movement costs of the nodes. */
+	private double[] costs = new double[0];
+	/** Parent node indices. */
+	private int[] parents = new int[0];
+	/** Nodes created from each node, {@link #MAX_CHILDREN} slots per node. */
+	private int[] children = new int[0];
+	/** Number of children of each node. */
+	private byte[] childCounts = new byte[0];
+	/** Open flags. */
+	private boolean[] open = new boolean[0];
+
+	/** The open list. */
+	private int[] heap = new int[16];
+	private int heapSize;
+
+	/** Work stack for updating closed sub trees. */
+	private int[] stack = new int[16];
+
+	private int generation;
+
+	// data of the current search
+	private Pathfinder pathfinder;
+	private int width;
+	/** Index of the start node. The start may be outside of the grid. */
+	private int startIndex;
+	private int startX;
+	private int startY;
+	private int goalX;
+	private int goalY;
+	private double maxDistance;
+
+	/**
+	 * Get the search engine of the current thread.
+	 *
+	 * @return search engine
+	 */
+	static AStarSearch get() {
+		return INSTANCES.get();
+	}
+
+	private AStarSearch() {
+		// use get()
+	}
+
+	/**
+	 * Searches a path.
+	 *
+	 * @param pathfinder pathfinder providing node validity and costs
+	 * @param width width of the grid
+	 * @param height height of the grid
+	 * @param startX x coordinate of the start
+	 * @param startY y coordinate of the start
+	 * @param goalArea destination area
+	 * @param minMaxDistance the minimum value used for the maximum distance
+	 * @return the path as pairs of x and y coordinates, or <code>null</code>
+	 * 	if there is no path
+	 */
+	int[] search(final Pathfinder pathfinder, final int width, final int height, final int startX,
+			final int startY, final Rectangle2D goalArea, final double minMaxDistance) {
+		this.pathfinder = pathfinder;
+		try {
+			prepare(width, height, startX, startY);
+			goalX = (int) goalArea.getCenterX();
+			goalY = (int) goalArea.getCenterY();
+
+			// calculate shortest distance and allow a variance of X percent
+			final double startF = 1.1 * getHeuristic(startX, startY) + 1;
+			maxDistance = Math.max(minMaxDistance, startF);
+
+			// the start node
+			generations[startIndex] = generation;
+			g[startIndex] = 0.0;
+			weights[startIndex] = 0.0;
+			costs[startIndex] = 1.0;
+			parents[startIndex] = NONE;
+			childCounts[startIndex] = 0;
+			open[startIndex] = true;
+			offer(startIndex);
+
+			while (heapSize > 0) {
+				final int best = poll();
+				open[best] = false;
+				final int x = getX(best);
+				final int y = getY(best);
+				if (goalArea.contains(x, y)) {
+					return createPath(best);
+				}
+
+				if (g[best] < maxDistance) {
+					linkChild(best, x - 1, y);
+					linkChild(best, x + 1, y);
+					linkChild(best, x, y - 1);
+					linkChild(best, x, y + 1);
+				}
+			}
+			return null;
+		} finally {
+			this.pathfinder = null;
+		}
+	}
+
+	/**
+	 * Prepares the arrays for a new search.
+	 */
+	private void prepare(final int width, final int height, final int startX, final int startY) {
+		this.width = width;
+		this.startX = startX;
+		this.startY = startY;
+
+		// one extra slot for a start position outside of the grid
+		final int size = width * height;
+		if ((startX >= 0) && (startX < width) && (startY >= 0) && (startY < height)) {
+			startIndex = startX + startY * width;
+		} else {
+			startIndex = size;
+		}
+		ensureCapacity(size + 1);
+
+		heapSize = 0;
+		generation++;
+		if (generation == 0) {
+			// the counter wrapped, so old marks could be mistaken as current
+			Arrays.fill(generations, 0);
+			generation = 1;
+		}
+	}
+
+	private void ensureCapacity(final int size) {
+		if (generations.length >= size) {
+			return;
+		}
+		generations = new int[size];
+		g = new double[size];
+		weights = new double[size];
+		costs = new double[size];
+		parents = new int[size];
+		children = new int[size * MAX_CHILDREN];
+		childCounts = new byte[size];
+		open = new boolean[size];
+		generation = 0;
+	}
+
+	/**
+	 * Links a neighbour to a node, and may also update the parent path, if a
+	 * shorter path is found.
+	 */
+	private void linkChild(final int node, final int x, final int y) {
+		if (!pathfinder.isValid(x, y)) {
+			return;
+		}
+
+		final int child = x + y * width;
+		if (generations[child] != generation) {
+			// new node
+			generations[child] = generation;
+			costs[child] = pathfinder.getCost(x, y);
+			childCounts[child] = 0;
+			children[node * MAX_CHILDREN + childCounts[node]++] = child;
+			updateChild(node, child);
+			offer(child);
+			open[child] = true;
+		} else {
+			// closed nodes may get a better parent, too
+			if (g[child] > (g[node] + costs[child])) {
+				updateChild(node, child);
+			}
+
+			// update parents for closed nodes only
+			if (!open[child]) {
+				updateSubTree(child);
+			}
+		}
+	}
+
+	private void updateChild(final int node, final int child) {
+		parents[child] = node;
+		g[child] = g[node] + costs[child];
+
+		final int childX = getX(child);
+		final int childY = getY(child);
+		double weight = g[child] + getHeuristic(childX, childY);
+
+		// Prefer nodes that do not result in direction change
+		final int parent = parents[node];
+		if (parent != NONE) {
+			final int x = getX(node);
+			final int y = getY(node);
+			if ((getX(parent) - x == x - childX) && (getY(parent) - y == y - childY)) {
+				weight -= STRAIGHT_PATH_PREFERENCE_FACTOR;
+			}
+		}
+		weights[child] = weight;
+	}
+
+	/**
+	 * Update the parents for the new route.
+	 */
+	private void updateSubTree(final int root) {
+		int stackSize = 0;
+		stack[stackSize++] = root;
+
+		while (stackSize > 0) {
+			final int node = stack[--stackSize];
+			final int count = childCounts[node];
+			for (int i = 0; i < count; i++) {
+				final int child = children[node * MAX_CHILDREN + i];
+				if (g[node] + costs[child] < g[child]) {
+					updateChild(node, child);
+					if (stackSize == stack.length) {
+						stack = Arrays.copyOf(stack, stackSize * 2);
+					}
+					stack[stackSize++] = child;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Calculates the heuristic for the move from a position to the goal.
+	 * Manhattan distance with a 1% square distance tie breaker, so that
+	 * nodes closer to the goal are preferred.
+	 */
+	private double getHeuristic(final int x, final int y) {
+		final int dx = x - goalX;
+		final int dy = y - goalY;
+		return (Math.abs(dx) + Math.abs(dy)) + 0.01 * (dx * dx + dy * dy);
+	}
+
+	private int[] createPath(final int last) {
+		int length = 0;
+		for (int node = last; node != NONE; node = parents[node]) {
+			length++;
+		}
+
+		final int[] path = new int[2 * length];
+		int pos = path.length;
+		for (int node = last; node != NONE; node = parents[node]) {
+			path[--pos] = getY(node);
+			path[--pos] = getX(node);
+		}
+		return path;
+	}
+
+	private int getX(final int node) {
+		if (node == startIndex) {
+			return startX;
+		}
+		return node % width;
+	}
+
+	private int getY(final int node) {
+		if (node == startIndex) {
+			return startY;
+		}
+		return node / width;
+	}
+
+	private int compare(final int a, final int b) {
+		return (int) Math.signum(weights[a] - weights[b]);
+	}
+
+	private void offer(final int node) {
+		if (heapSize == heap.length) {
+			heap = Arrays.copyOf(heap, heapSize * 2);
+		}
+		int k = heapSize++;
+		while (k > 0) {
+			final int parent = (k - 1) >>> 1;
+			final int e = heap[parent];
+			if (compare(node, e) >= 0) {
+				break;
+			}
+			heap[k] = e;
+			k = parent;
+		}
+		heap[k] = node;
+	}
+
+	private int poll() {
+		final int result = heap[0];
+		final int n = --heapSize;
+		if (n > 0) {
+			final int x = heap[n];
+			int k = 0;
+			final int half = n >>> 1;
+			while (k < half) {
+				int child = (k << 1) + 1;
+				int c = heap[child];
+				final int right = child + 1;
+				if ((right < n) && (compare(c, heap[right]) > 0)) {
+					child = right;
+					c = heap[child];
+				}
+				if (compare(x, c) <= 0) {
+					break;
+				}
+				heap[k] = c;
+				k = child;
+			}
+			heap[k] = x;
+		}
+		return result;
+	}
+}
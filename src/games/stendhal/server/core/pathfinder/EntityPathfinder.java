@@ -12,14 +12,19 @@
  ***************************************************************************/
 package games.stendhal.server.core.pathfinder;
 
-import java.awt.Point;
 import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
 
 import games.stendhal.server.core.engine.StendhalRPZone;
 import games.stendhal.server.entity.Entity;
 import games.stendhal.server.entity.mapstuff.portal.Portal;
 import games.stendhal.server.entity.player.Player;
-import marauroa.common.game.RPObject;
 
 /**
  * Server side path finder.
@@ -69,78 +74,70 @@ class EntityPathfinder extends games.stendhal.server.core.pathfinder.Pathfinder
 	 * considered as not valid if they:
 	 * <li> are next to the start position or
 	 * <li> have stopped
+	 * <p>The stopped entities are taken from the resistance layer of the zone,
+	 * only the exceptions of this search are collected here.
 	 */
 	private void createEntityCollisionMap() {
-		Point targetPoint = new Point(goalNode.getX(), goalNode.getY());
-		resistanceMap = new ResistanceMap(zone.getWidth(), zone.getHeight());
-		for (final RPObject obj : zone) {
-			final Entity otherEntity = (Entity) obj;
-			if (!entity.getID().equals(otherEntity.getID())
-					&& (otherEntity.stopped()|| (otherEntity.squaredDistance(startNode.getX(), startNode.getY()) < COLLISION_DISTANCE_SQUARED))) {
-				final Rectangle2D area = otherEntity.getArea();
-				// Hack: Allow players to move onto portals as destination
-				if ((entity instanceof Player) && (otherEntity instanceof Portal) && area.contains(targetPoint)) {
-					continue;
+		final ResistanceLayer layer = zone.getResistanceLayer();
+		final List<Entity> excluded = new ArrayList<Entity>();
+		excluded.add(entity);
+		// Hack: Allow players to move onto portals as destination
+		if (entity instanceof Player) {
+			final List<Entity> atTarget = new ArrayList<Entity>();
+			layer.getEntitiesAt(getGoalX(), getGoalY(), atTarget);
+			for (final Entity otherEntity : atTarget) {
+				if (otherEntity instanceof Portal) {
+					excluded.add(otherEntity);
 				}
-				int resistance = otherEntity.getResistance(entity);
-				resistanceMap.addResistance(area, resistance);
 			}
 		}
+
+		resistanceMap = new ResistanceMap(layer, zone.getWidth(), zone.getHeight(), entity.getResistance(), excluded);
+		for (final Entity otherEntity : layer.getMovingEntities()) {
+			if ((otherEntity != entity)
+					&& (otherEntity.squaredDistance(getStartX(), getStartY()) < COLLISION_DISTANCE_SQUARED)) {
+				resistanceMap.addResistance(otherEntity.getArea(), otherEntity.getResistance(entity));
+			}
+		}
+	}
+
+	@Override
+	protected int getWidth() {
+		return zone.getWidth();
 	}
 
 	@Override
-	public TreeNode createNode(int x, int y) {
-		return new PathTreeNode(x, y);
+	protected int getHeight() {
+		return zone.getHeight();
 	}
 
 	/**
-	 * Pathfinder node
+	 * Modify movement cost by resistance.
 	 */
-	private class PathTreeNode extends TreeNode {
-		private final double cost;
-
-		protected PathTreeNode(int x, int y) {
-			super(x, y);
-
-			/*
-			 * Modify movement cost by resistance
-			 */
-			if (resistanceMap != null) {
-				int resistance = resistanceMap.getResistance(x, y , entity.getWidth(), entity.getHeight());
-				cost = 100.0 / (100 - resistance);
-			} else {
-				cost = 1.0;
-			}
-		}
-
-		@Override
-		protected double getCost() {
-			return cost;
-		}
-
-		@Override
-		public TreeNode createNode(int x, int y) {
-			return new PathTreeNode(x, y);
+	@Override
+	protected double getCost(int x, int y) {
+		if (resistanceMap != null) {
+			int resistance = resistanceMap.getResistance(x, y , entity.getWidth(), entity.getHeight());
+			return 100.0 / (100 - resistance);
 		}
+		return 1.0;
+	}
 
-		@Override
-		protected int createNodeID(int x, int y) {
-			return x + y * zone.getWidth();
+	@Override
+	protected boolean isValid(int x, int y) {
+		boolean result = !zone.simpleCollides(entity, x, y, entity.getWidth(), entity.getHeight());
+		if (checkEntities && result) {
+			result = !resistanceMap.collides(x, y, entity.getWidth(), entity.getHeight());
 		}
 
-		@Override
-		public boolean isValid(int x, int y) {
-			boolean result = !zone.simpleCollides(entity, x, y, entity.getWidth(), entity.getHeight());
-			if (checkEntities && result) {
-				result = !resistanceMap.collides(x, y, entity.getWidth(), entity.getHeight());
-			}
-
-			return result;
-		}
+		return result;
 	}
 
 	/**
-	 * Resistance data for entities.
+	 * Resistance data for entities. The data of the zone resistance layer is
+	 * used for all tiles, except for those that are affected by the
+	 * exceptions of a single search. The values of these are kept in a small
+	 * overlay.
 	 */
 	private static class ResistanceMap {
 		/** Resistance that corresponds to collision */
@@ -148,19 +145,55 @@ class EntityPathfinder extends games.stendhal.server.core.pathfinder.Pathfinder
 		/** Minimum resistance that is considered a collision */
 		private static final int COLLIDE_THRESHOLD = 95;
 
+		private final ResistanceLayer layer;
 		private final int width, height;
-		private final int[][] map;
+		/** resistance of the searching entity */
+		private final int scale;
+
+		/** tile indices of the overlay */
+		private int[] overlayTiles = new int[8];
+		/** resistances of the overlay tiles */
+		private int[] overlayValues = new int[8];
+		private int overlaySize;
+		/** bounds of the overlay tiles, to skip the lookup for other tiles */
+		private int overlayMinX = Integer.MAX_VALUE;
+		private int overlayMinY = Integer.MAX_VALUE;
+		private int overlayMaxX = Integer.MIN_VALUE;
+		private int overlayMaxY = Integer.MIN_VALUE;
 
 		/**
 		 * Create a new ResistanceMap.
 		 *
+		 * @param layer resistance layer of the zone
 		 * @param width width of the area
 		 * @param height height of the area
+		 * @param scale resistance of the searching entity
+		 * @param excluded entities whose resistance should be ignored
 		 */
-		public ResistanceMap(int width, int height) {
+		ResistanceMap(final ResistanceLayer layer, final int width, final int height, final int scale,
+				final Collection<Entity> excluded) {
+			this.layer = layer;
 			this.width = width;
 			this.height = height;
-			map = new int[width][height];
+			this.scale = scale;
+
+			final Set<Entity> excludedSet = Collections.newSetFromMap(new IdentityHashMap<Entity, Boolean>());
+			excludedSet.addAll(excluded);
+			for (final Entity excludedEntity : excluded) {
+				final ResistanceLayer.Contribution contribution = layer.getContribution(excludedEntity);
+				if (contribution == null) {
+					continue;
+				}
+				final int startx = Math.max(0, contribution.x);
+				final int endx = Math.min(width, contribution.x + contribution.width);
+				final int starty = Math.max(0, contribution.y);
+				final int endy = Math.min(height, contribution.y + contribution.height);
+				for (int k = startx; k < endx; k++) {
+					for (int i = starty; i < endy; i++) {
+						setOverlay(k, i, layer.getResistance(k, i, scale, excludedSet));
+					}
+				}
+			}
 		}
 
 		/**
@@ -194,24 +227,9 @@ class EntityPathfinder extends games.stendhal.server.core.pathfinder.Pathfinder
 			final int starty = (int) Math.max(0, y);
 			final int endy = (int) Math.min(height, y + h);
 
-			// Fill the area
 			for (int k = startx; k < endx; k++) {
 				for (int i = starty; i < endy; i++) {
-					/*
-					 * There can be multiple entities covering an area. (Such
-					 * as blood covering a grower). Can we have multiple
-					 * non-zero resistances? Cover the case anyway, in case we
-					 * want to give something like corpses some resistance to
-					 * make it harder to wade through a pile of bodies.
-					 */
-					int old = map[k][i];
-					/*
-					 * Add up like probabilities. Several slightly resistant
-					 * entities can still add up to a completely impassable
-					 * barrier, when the resistance grows over
-					 * COLLIDE_THRESHOLD.
-					 */
-					map[k][i] = 100 - ((100 - old) * (100 - resistance)) / 100;
+					setOverlay(k, i, ResistanceLayer.combine(getTileResistance(k, i), resistance));
 				}
 			}
 		}
@@ -243,7 +261,7 @@ class EntityPathfinder extends games.stendhal.server.core.pathfinder.Pathfinder
 			int resistance = 0;
 			for (int k = startx; k < endx; k++) {
 				for (int i = starty; i < endy; i++) {
-					int r = map[k][i];
+					int r = getTileResistance(k, i);
 					if (r > COLLIDE_THRESHOLD) {
 						/*
 						 * A full collision is always collision, regardless of
@@ -265,5 +283,38 @@ class EntityPathfinder extends games.stendhal.server.core.pathfinder.Pathfinder
 
 			return resistance;
 		}
+
+		private int getTileResistance(final int x, final int y) {
+			if ((x >= overlayMinX) && (x <= overlayMaxX) && (y >= overlayMinY) && (y <= overlayMaxY)) {
+				final int tile = x + y * width;
+				for (int j = 0; j < overlaySize; j++) {
+					if (overlayTiles[j] == tile) {
+						return overlayValues[j];
+					}
+				}
+			}
+			return layer.getResistance(x, y, scale, null);
+		}
+
+		private void setOverlay(final int x, final int y, final int resistance) {
+			final int tile = x + y * width;
+			for (int j = 0; j < overlaySize; j++) {
+				if (overlayTiles[j] == tile) {
+					overlayValues[j] = resistance;
+					return;
+				}
+			}
+			if (overlaySize == overlayTiles.length) {
+				overlayTiles = Arrays.copyOf(overlayTiles, overlaySize * 2);
+				overlayValues = Arrays.copyOf(overlayValues, overlaySize * 2);
+			}
+			overlayTiles[overlaySize] = tile;
+			overlayValues[overlaySize] = resistance;
+			overlaySize++;
+			overlayMinX = Math.min(overlayMinX, x);
+			overlayMinY = Math.min(overlayMinY, y);
+			overlayMaxX = Math.max(overlayMaxX, x);
+			overlayMaxY = Math.max(overlayMaxY, y);
+		}
 	}
 }
@@ -0,0 +1,307 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.pathfinder;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import games.stendhal.server.entity.Entity;
+
+/**
+ * Resistance of the stopped entities of a zone, kept up to date as the
+ * entities are added, removed, moved or start and stop moving.
+ * <p>
+ * The layer stores the entities covering each tile and the combined
+ * resistance they have on an entity with full resistance. Path searches read
+ * it through an overlay for the exceptions of a single search, so that the
+ * zone does not need to be scanned for every search.
+ * <p>
+ * This class is not thread safe, the zone takes care of that.
+ */
+public final class ResistanceLayer {
+	/** Resistance of a searching entity that gets the stored values unscaled. */
+	static final int FULL_SCALE = 100;
+
+	/**
+	 * Resistance an entity has on the tiles it covers.
+	 */
+	static final class Contribution {
+		final Entity entity;
+		final int resistance;
+		final int x;
+		final int y;
+		final int width;
+		final int height;
+
+		Contribution(final Entity entity, final int resistance) {
+			this.entity = entity;
+			this.resistance = resistance;
+			this.x = entity.getX();
+			this.y = entity.getY();
+			this.width = (int) entity.getWidth();
+			this.height = (int) entity.getHeight();
+		}
+
+		/**
+		 * Checks whether the contribution still matches the entity state.
+		 */
+		boolean matches(final int resistance) {
+			return (this.resistance == resistance) && (x == entity.getX()) && (y == entity.getY())
+					&& (width == (int) entity.getWidth()) && (height == (int) entity.getHeight());
+		}
+	}
+
+	private int width;
+	private int height;
+
+	/** contributions by tile, <code>null</code> for tiles without any */
+	private Contribution[][] tiles = new Contribution[0][];
+	/** number of contributions of each tile */
+	private int[] counts = new int[0];
+	/** combined resistance of each tile for an entity with full resistance */
+	private int[] combined = new int[0];
+
+	/** all entities of the zone */
+	private final Set<Entity> members = Collections.newSetFromMap(new IdentityHashMap<Entity, Boolean>());
+	/** entities that are currently moving */
+	private final Set<Entity> moving = Collections.newSetFromMap(new IdentityHashMap<Entity, Boolean>());
+	/** contributions of the stopped entities that have resistance */
+	private final Map<Entity, Contribution> contributions = new IdentityHashMap<Entity, Contribution>();
+
+	/**
+	 * Adjusts the layer to the zone size. The tiles are rebuilt if the size
+	 * has changed.
+	 *
+	 * @param width zone width
+	 * @param height zone height
+	 */
+	public void resize(final int width, final int height) {
+		if ((width == this.width) && (height == this.height)) {
+			return;
+		}
+
+		this.width = width;
+		this.height = height;
+		final int size = width * height;
+		tiles = new Contribution[size][];
+		counts = new int[size];
+		combined = new int[size];
+		for (final Contribution contribution : contributions.values()) {
+			apply(contribution);
+		}
+	}
+
+	/**
+	 * Adds an entity.
+	 *
+	 * @param entity entity
+	 */
+	public void add(final Entity entity) {
+		members.add(entity);
+		update(entity);
+	}
+
+	/**
+	 * Removes an entity.
+	 *
+	 * @param entity entity
+	 */
+	public void remove(final Entity entity) {
+		if (!members.remove(entity)) {
+			return;
+		}
+		moving.remove(entity);
+		final Contribution old = contributions.remove(entity);
+		if (old != null) {
+			unapply(old);
+		}
+	}
+
+	/**
+	 * Updates the resistance of an entity after its position, size,
+	 * resistance or movement state has changed. Entities that are not in the
+	 * layer are ignored.
+	 *
+	 * @param entity entity
+	 */
+	public void update(final Entity entity) {
+		if (!members.contains(entity)) {
+			return;
+		}
+
+		final Contribution old = contributions.get(entity);
+		if (!entity.stopped()) {
+			moving.add(entity);
+			if (old != null) {
+				contributions.remove(entity);
+				unapply(old);
+			}
+			return;
+		}
+
+		moving.remove(entity);
+		final int resistance = entity.getResistance();
+		if ((old != null) && old.matches(resistance)) {
+			return;
+		}
+		if (old != null) {
+			contributions.remove(entity);
+			unapply(old);
+		}
+		if (resistance > 0) {
+			final Contribution contribution = new Contribution(entity, resistance);
+			contributions.put(entity, contribution);
+			apply(contribution);
+		}
+	}
+
+	/**
+	 * Gets the entities that are currently moving.
+	 *
+	 * @return moving entities
+	 */
+	Collection<Entity> getMovingEntities() {
+		return moving;
+	}
+
+	/**
+	 * Gets the contribution of an entity.
+	 *
+	 * @param entity entity
+	 * @return contribution, or <code>null</code> if the entity is moving or
+	 * 	has no resistance
+	 */
+	Contribution getContribution(final Entity entity) {
+		return contributions.get(entity);
+	}
+
+	/**
+	 * Collects the entities that have resistance on a tile.
+	 *
+	 * @param x x coordinate
+	 * @param y y coordinate
+	 * @param result collection to add the entities to
+	 */
+	void getEntitiesAt(final int x, final int y, final Collection<Entity> result) {
+		if (!isInside(x, y)) {
+			return;
+		}
+		final int index = x + y * width;
+		for (int i = 0; i < counts[index]; i++) {
+			result.add(tiles[index][i].entity);
+		}
+	}
+
+	/**
+	 * Gets the combined resistance of a tile.
+	 *
+	 * @param x x coordinate
+	 * @param y y coordinate
+	 * @param scale resistance of the entity the resistance is calculated for
+	 * @param excluded entities to be ignored, or <code>null</code>
+	 * @return resistance between 0 and 100
+	 */
+	int getResistance(final int x, final int y, final int scale, final Set<Entity> excluded) {
+		if (!isInside(x, y)) {
+			return 0;
+		}
+		final int index = x + y * width;
+		if ((scale == FULL_SCALE) && (excluded == null)) {
+			return combined[index];
+		}
+
+		final Contribution[] tile = tiles[index];
+		int resistance = 0;
+		for (int i = 0; i < counts[index]; i++) {
+			final Contribution contribution = tile[i];
+			if ((excluded == null) || !excluded.contains(contribution.entity)) {
+				resistance = combine(resistance, contribution.resistance * scale / 100);
+			}
+		}
+		return resistance;
+	}
+
+	/**
+	 * Add up resistances like probabilities. Several slightly resistant
+	 * entities can still add up to a completely impassable barrier.
+	 *
+	 * @param old current resistance
+	 * @param resistance added resistance
+	 * @return combined resistance
+	 */
+	static int combine(final int old, final int resistance) {
+		return 100 - ((100 - old) * (100 - resistance)) / 100;
+	}
+
+	private boolean isInside(final int x, final int y) {
+		return (x >= 0) && (x < width) && (y >= 0) && (y < height);
+	}
+
+	private void apply(final Contribution contribution) {
+		final int startx = Math.max(0, contribution.x);
+		final int endx = Math.min(width, contribution.x + contribution.width);
+		final int starty = Math.max(0, contribution.y);
+		final int endy = Math.min(height, contribution.y + contribution.height);
+		for (int y = starty; y < endy; y++) {
+			for (int x = startx; x < endx; x++) {
+				final int index = x + y * width;
+				Contribution[] tile = tiles[index];
+				if (tile == null) {
+					tile = new Contribution[2];
+					tiles[index] = tile;
+				} else if (counts[index] == tile.length) {
+					tile = Arrays.copyOf(tile, tile.length * 2);
+					tiles[index] = tile;
+				}
+				tile[counts[index]++] = contribution;
+				combined[index] = combine(combined[index], contribution.resistance);
+			}
+		}
+	}
+
+	private void unapply(final Contribution contribution) {
+		final int startx = Math.max(0, contribution.x);
+		final int endx = Math.min(width, contribution.x + contribution.width);
+		final int starty = Math.max(0, contribution.y);
+		final int endy = Math.min(height, contribution.y + contribution.height);
+		for (int y = starty; y < endy; y++) {
+			for (int x = startx; x < endx; x++) {
+				final int index = x + y * width;
+				final Contribution[] tile = tiles[index];
+				if (tile == null) {
+					continue;
+				}
+				// the combination is not reversible, so recalculate the tile
+				int resistance = 0;
+				int count = 0;
+				for (int i = 0; i < counts[index]; i++) {
+					if (tile[i] != contribution) {
+						tile[count++] = tile[i];
+						resistance = combine(resistance, tile[i].resistance);
+					}
+				}
+				for (int i = count; i < counts[index]; i++) {
+					tile[i] = null;
+				}
+				counts[index] = count;
+				combined[index] = resistance;
+				if (count == 0) {
+					tiles[index] = null;
+				}
+			}
+		}
+	}
+}
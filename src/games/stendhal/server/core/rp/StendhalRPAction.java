@@ -29,6 +29,7 @@ import games.stendhal.server.core.engine.DataProvider;
 import games.stendhal.server.core.engine.GameEvent;
 import games.stendhal.server.core.engine.SingletonRepository;
 import games.stendhal.server.core.engine.StendhalRPZone;
+import games.stendhal.server.core.engine.ZoneTurnExecutor;
 import games.stendhal.server.core.engine.db.StendhalKillLogDAO;
 import games.stendhal.server.core.events.TutorialNotifier;
 import games.stendhal.server.core.events.ZoneNotifier;
@@ -592,6 +593,7 @@ public class StendhalRPAction {
 	 *     Zone Y coordinate.
 	 * @return
 	 *     <code>true</code> if it was possible to place the entity, false otherwise.
+	 *     For a deferred move to another zone, only that it was scheduled.
 	 */
 	public static boolean placeat(final StendhalRPZone zone, final Entity entity,
 			final int x, final int y) {
@@ -624,6 +626,10 @@ public class StendhalRPAction {
 	 *     new position.
 	 * @return
 	 *     <code>true</code> if it was possible to place the entity, false otherwise.
+	 *     A move to another zone from the parallel zone logic is deferred to
+	 *     the end of the phase. In that case <code>true</code> only reports
+	 *     that the move was scheduled, and callers that act on the result
+	 *     should defer themselves, see {@link ZoneTurnExecutor#runOrDefer(Runnable)}.
 	 */
 	public static boolean placeat(final StendhalRPZone zone, final Entity entity,
 			int x, int y, final Shape allowedArea) {
@@ -631,6 +637,19 @@ public class StendhalRPAction {
 			return false;
 		}
 
+		if ((entity.getZone() != zone) && ZoneTurnExecutor.isDeferring()) {
+			// zone changes from parallel zone logic are done after the phase
+			final int targetX = x;
+			final int targetY = y;
+			ZoneTurnExecutor.runOrDefer(new Runnable() {
+				@Override
+				public void run() {
+					placeat(zone, entity, targetX, targetY, allowedArea);
+				}
+			});
+			return true;
+		}
+
 		Player player = null;
 		if (entity instanceof Player) {
 			player = (Player) entity;
@@ -1,6 +1,6 @@
 /* $Id$ */
 /***************************************************************************
- *                   (C) Copyright 2003-2023 - Stendhal                    *
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
  ***************************************************************************
  ***************************************************************************
  *                                                                         *
@@ -12,6 +12,8 @@
  ***************************************************************************/
 package games.stendhal.server.core.rp.achievement;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 import games.stendhal.server.entity.npc.ChatCondition;
 import games.stendhal.server.entity.player.Player;
 /**
@@ -49,6 +51,11 @@ public class Achievement {
 
 	private final ChatCondition condition;
 
+	/** number of evaluations of the condition */
+	private final AtomicLong evaluations = new AtomicLong();
+
+	/** total time spent evaluating the condition in nanoseconds */
+	private final AtomicLong evaluationTime = new AtomicLong();
 
 
 	/**
@@ -120,7 +127,34 @@ public class Achievement {
 	 * @return true iff this achievement's condition evaluates to true
 	 */
 	public boolean isFulfilled(Player p) {
-		return condition.fire(p, null, null);
+		final long start = System.nanoTime();
+		try {
+			return condition.fire(p, null, null);
+		} finally {
+			evaluationTime.addAndGet(System.nanoTime() - start);
+			evaluations.incrementAndGet();
+		}
+	}
+
+	/**
+	 * @return the condition of this achievement
+	 */
+	ChatCondition getCondition() {
+		return condition;
+	}
+
+	/**
+	 * @return number of times the condition has been evaluated
+	 */
+	public long getEvaluationCount() {
+		return evaluations.get();
+	}
+
+	/**
+	 * @return total time spent evaluating the condition in nanoseconds
+	 */
+	public long getEvaluationTime() {
+		return evaluationTime.get();
 	}
 
 	@Override
@@ -0,0 +1,158 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.rp.achievement;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import games.stendhal.server.entity.npc.ChatCondition;
+import games.stendhal.server.entity.npc.condition.AndCondition;
+import games.stendhal.server.entity.npc.condition.PlayerHasKilledNumberOfCreaturesCondition;
+import games.stendhal.server.entity.npc.condition.QuestSlotCondition;
+
+/**
+ * The achievements of a category, indexed by the quest slots or creatures
+ * their conditions depend on.
+ * <p>
+ * An achievement that only depends on some quest slots cannot be reached by
+ * changing another quest slot, so it does not have to be checked then. The
+ * same applies to achievements that only depend on the kills of some
+ * creatures. Achievements with other conditions are always checked.
+ */
+final class AchievementIndex {
+	/** all achievements */
+	private final List<Achievement> all = new ArrayList<Achievement>();
+	/** achievements that depend on other things than quest slots or kills */
+	private final List<Achievement> general = new ArrayList<Achievement>();
+	/** achievements that only depend on quest slots */
+	private final List<Achievement> questDependent = new ArrayList<Achievement>();
+	/** achievements that only depend on kills */
+	private final List<Achievement> killDependent = new ArrayList<Achievement>();
+	/** achievements that only depend on quest slots, by quest slot */
+	private final Map<String, List<Achievement>> byQuestSlot = new HashMap<String, List<Achievement>>();
+	/** achievements that only depend on kills, by creature */
+	private final Map<String, List<Achievement>> byCreature = new HashMap<String, List<Achievement>>();
+
+	/**
+	 * Adds an achievement.
+	 *
+	 * @param achievement achievement
+	 */
+	void add(final Achievement achievement) {
+		all.add(achievement);
+
+		final Set<String> questSlots = new HashSet<String>();
+		final Set<String> creatures = new HashSet<String>();
+		if (!collectDependencies(achievement.getCondition(), questSlots, creatures)) {
+			general.add(achievement);
+		} else if (creatures.isEmpty()) {
+			questDependent.add(achievement);
+			addTo(byQuestSlot, questSlots, achievement);
+		} else if (questSlots.isEmpty()) {
+			killDependent.add(achievement);
+			addTo(byCreature, creatures, achievement);
+		} else {
+			general.add(achievement);
+		}
+	}
+
+	/**
+	 * Collects the quest slots and creatures a condition depends on.
+	 *
+	 * @param condition condition
+	 * @param questSlots set to add the quest slots to
+	 * @param creatures set to add the creatures to
+	 * @return <code>false</code> if the condition depends on something else
+	 */
+	private static boolean collectDependencies(final ChatCondition condition, final Set<String> questSlots,
+			final Set<String> creatures) {
+		if (condition instanceof QuestSlotCondition) {
+			final String slot = ((QuestSlotCondition) condition).getQuestSlot();
+			// slot names with variables change over time
+			if (slot.indexOf('[') > -1) {
+				return false;
+			}
+			questSlots.add(slot);
+			return true;
+		}
+		if (condition instanceof PlayerHasKilledNumberOfCreaturesCondition) {
+			creatures.addAll(((PlayerHasKilledNumberOfCreaturesCondition) condition).getCreatureNames());
+			return true;
+		}
+		if (condition instanceof AndCondition) {
+			for (final ChatCondition part : ((AndCondition) condition).getConditions()) {
+				if (!collectDependencies(part, questSlots, creatures)) {
+					return false;
+				}
+			}
+			return true;
+		}
+		return false;
+	}
+
+	private static void addTo(final Map<String, List<Achievement>> index, final Set<String> keys,
+			final Achievement achievement) {
+		for (final String key : keys) {
+			List<Achievement> list = index.get(key);
+			if (list == null) {
+				list = new ArrayList<Achievement>();
+				index.put(key, list);
+			}
+			list.add(achievement);
+		}
+	}
+
+	/**
+	 * Gets all achievements.
+	 *
+	 * @return achievements
+	 */
+	List<Achievement> getAll() {
+		return all;
+	}
+
+	/**
+	 * Collects the achievements that may be reached by a change of a quest
+	 * slot.
+	 *
+	 * @param questSlot changed quest slot
+	 * @param result collection to add the achievements to
+	 */
+	void collectForQuestSlot(final String questSlot, final Collection<Achievement> result) {
+		result.addAll(general);
+		result.addAll(killDependent);
+		final List<Achievement> list = byQuestSlot.get(questSlot);
+		if (list != null) {
+			result.addAll(list);
+		}
+	}
+
+	/**
+	 * Collects the achievements that may be reached by killing a creature.
+	 *
+	 * @param creature name of the killed creature
+	 * @param result collection to add the achievements to
+	 */
+	void collectForKill(final String creature, final Collection<Achievement> result) {
+		result.addAll(general);
+		result.addAll(questDependent);
+		final List<Achievement> list = byCreature.get(creature);
+		if (list != null) {
+			result.addAll(list);
+		}
+	}
+}
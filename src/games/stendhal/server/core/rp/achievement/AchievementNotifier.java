@@ -1,5 +1,5 @@
 /***************************************************************************
- *                   (C) Copyright 2003-2024 - Stendhal                    *
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
  ***************************************************************************
  ***************************************************************************
  *                                                                         *
@@ -16,7 +16,6 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.EnumMap;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
@@ -53,7 +52,15 @@ public final class AchievementNotifier {
 	/** The singleton instance. */
 	private static AchievementNotifier instance;
 
-	final private Map<Category, List<Achievement>> achievements;
+	/** categories that are checked on changes of quest slots */
+	private static final Category[] QUEST_CATEGORIES = {
+		Category.QUEST, Category.QUEST_ADOS_ITEMS, Category.QUEST_SEMOS_MONSTER,
+		Category.QUEST_KIRDNEH_ITEM, Category.FRIEND, Category.OBTAIN,
+		Category.PRODUCTION, Category.QUEST_MITHRILBOURGH_ENEMY_ARMY,
+		Category.QUEST_KILL_BLORDROUGHS
+	};
+
+	final private Map<Category, AchievementIndex> achievements;
 
 	final private Map<String, Integer> identifiersToIds;
 
@@ -76,7 +83,7 @@ public final class AchievementNotifier {
 	 * Hidden singleton constructor.
 	 */
 	private AchievementNotifier() {
-		achievements = new EnumMap<Category, List<Achievement>>(Category.class);
+		achievements = new EnumMap<Category, AchievementIndex>(Category.class);
 		identifiersToIds = new HashMap<String, Integer>();
 	}
 
@@ -89,7 +96,7 @@ public final class AchievementNotifier {
 		final Map<String, Achievement> allAchievements = createAchievements();
 		for(Achievement a : allAchievements.values()) {
 			if(!achievements.containsKey(a.getCategory())) {
-				achievements.put(a.getCategory(), new LinkedList<Achievement>());
+				achievements.put(a.getCategory(), new AchievementIndex());
 			}
 			achievements.get(a.getCategory()).add(a);
 		}
@@ -182,21 +189,49 @@ public final class AchievementNotifier {
 		getAndCheckAchievementsInCategory(player, Category.FIGHTING);
 	}
 
+	/**
+	 * checks the achievements for a player that may be reached by killing a
+	 * specific creature
+	 *
+	 * @param player
+	 * @param creature name of the killed creature
+	 */
+	public void onKill(final Player player, final String creature) {
+		final AchievementIndex index = achievements.get(Category.FIGHTING);
+		if (index != null) {
+			final List<Achievement> toCheck = new ArrayList<Achievement>();
+			index.collectForKill(creature, toCheck);
+			notifyPlayerAboutReachedAchievements(player, checkAchievements(player, toCheck));
+		}
+	}
+
 	/**
 	 * check all achievements for a player that are relevant on finishing a quest
 	 *
 	 * @param player
 	 */
 	public void onFinishQuest(final Player player) {
-		getAndCheckAchievementsInCategory(player, Category.QUEST);
-		getAndCheckAchievementsInCategory(player, Category.QUEST_ADOS_ITEMS);
-		getAndCheckAchievementsInCategory(player, Category.QUEST_SEMOS_MONSTER);
-		getAndCheckAchievementsInCategory(player, Category.QUEST_KIRDNEH_ITEM);
-		getAndCheckAchievementsInCategory(player, Category.FRIEND);
-		getAndCheckAchievementsInCategory(player, Category.OBTAIN);
-		getAndCheckAchievementsInCategory(player, Category.PRODUCTION);
-		getAndCheckAchievementsInCategory(player, Category.QUEST_MITHRILBOURGH_ENEMY_ARMY);
-		getAndCheckAchievementsInCategory(player, Category.QUEST_KILL_BLORDROUGHS);
+		for (final Category category : QUEST_CATEGORIES) {
+			getAndCheckAchievementsInCategory(player, category);
+		}
+	}
+
+	/**
+	 * check the achievements for a player that may be reached by a change of
+	 * a specific quest slot
+	 *
+	 * @param player
+	 * @param questSlot name of the changed quest slot
+	 */
+	public void onFinishQuest(final Player player, final String questSlot) {
+		for (final Category category : QUEST_CATEGORIES) {
+			final AchievementIndex index = achievements.get(category);
+			if (index != null) {
+				final List<Achievement> toCheck = new ArrayList<Achievement>();
+				index.collectForQuestSlot(questSlot, toCheck);
+				notifyPlayerAboutReachedAchievements(player, checkAchievements(player, toCheck));
+			}
+		}
 	}
 
 	/**
@@ -276,9 +311,9 @@ public final class AchievementNotifier {
 	public void awardAchievementIfNotYetReached(final Player player, final String achievementIdentifier) {
 		if(!player.hasReachedAchievement(achievementIdentifier)) {
 			boolean found = false;
-			for(List<Achievement> achievementList : this.achievements.values()) {
+			for(AchievementIndex index : this.achievements.values()) {
 				if(!found) {
-					for(Achievement achievement : achievementList) {
+					for(Achievement achievement : index.getAll()) {
 						if (achievement.getIdentifier().equals(achievementIdentifier)) {
 							logReachingOfAnAchievement(player, achievement);
 							notifyPlayerAboutReachedAchievement(player, achievement);
@@ -302,12 +337,12 @@ public final class AchievementNotifier {
 		List<Achievement> toCheck = new ArrayList<Achievement>();
 		//Avoid checking of zone achievements on login to
 		//prevent double check when player is initially placed into a zone
-		final Map<Category,List<Achievement>> map = new HashMap<Category, List<Achievement>>(achievements);
+		final Map<Category, AchievementIndex> map = new HashMap<Category, AchievementIndex>(achievements);
 		map.remove(Category.OUTSIDE_ZONE);
 		map.remove(Category.UNDERGROUND_ZONE);
-		Collection<List<Achievement>> values = map.values();
-		for (List<Achievement> list : values) {
-			toCheck.addAll(list);
+		Collection<AchievementIndex> values = map.values();
+		for (AchievementIndex index : values) {
+			toCheck.addAll(index.getAll());
 		}
 		final List<Achievement> reached = checkAchievements(player, toCheck);
 		// only send notice if actually a new added achievement was reached by doing nothing
@@ -328,7 +363,7 @@ public final class AchievementNotifier {
 	 */
 	private void getAndCheckAchievementsInCategory(final Player player, final Category category) {
 		if(achievements.containsKey(category)) {
-			List<Achievement> toCheck = achievements.get(category);
+			List<Achievement> toCheck = achievements.get(category).getAll();
 			List<Achievement> reached = checkAchievements(player, toCheck);
 			notifyPlayerAboutReachedAchievements(player, reached);
 		}
@@ -352,7 +387,8 @@ public final class AchievementNotifier {
 		}
 
 		for (Achievement achievement : toCheck) {
-			if(achievement.isFulfilled(player) && !player.hasReachedAchievement(achievement.getIdentifier())) {
+			// conditions can be expensive, so skip reached achievements first
+			if(!player.hasReachedAchievement(achievement.getIdentifier()) && achievement.isFulfilled(player)) {
 				logReachingOfAnAchievement(player, achievement);
 				if (achievement.isActive()) {
 					reached.add(achievement);
@@ -427,8 +463,8 @@ public final class AchievementNotifier {
 	 */
 	public ImmutableList<Achievement> getAchievements() {
 		Builder<Achievement> builder = ImmutableList.builder();
-		for (List<Achievement> temp : achievements.values()) {
-			builder.addAll(temp);
+		for (AchievementIndex temp : achievements.values()) {
+			builder.addAll(temp.getAll());
 		}
 		return builder.build();
 	}
@@ -112,6 +112,8 @@ public class DefaultCreature {
 	/** Status attack types */
 	private String statusAttack;
 	private double statusAttackProbability;
+	/** Evaluated status attack, shared by all creatures of this kind. */
+	private volatile StatusAttacker statusAttacker;
 
 	/** Type of damage caused by the creature */
 	private Nature damageType;
@@ -368,18 +370,32 @@ public class DefaultCreature {
 
 		// Status attack types
 		if (statusAttack != null) {
+			creature.addStatusAttacker(getStatusAttacker());
+		}
+
+		return creature;
+	}
+
+	/**
+	 * Gets the status attacker. The script is evaluated only once, because
+	 * compiling it is far more expensive than creating the creature.
+	 *
+	 * @return status attacker
+	 */
+	private StatusAttacker getStatusAttacker() {
+		StatusAttacker attacker = statusAttacker;
+		if (attacker == null) {
 			Binding groovyBinding = new Binding();
 			final GroovyShell interp = new GroovyShell(groovyBinding);
 			try {
 				String code = "import games.stendhal.server.entity.status.*;\r\n" + statusAttack;
-				StatusAttacker attacker = new StatusAttacker((Status) interp.evaluate(code), statusAttackProbability);
-				creature.addStatusAttacker(attacker);
+				attacker = new StatusAttacker((Status) interp.evaluate(code), statusAttackProbability);
 			} catch (CompilationFailedException e) {
 				throw new IllegalArgumentException(e);
 			}
+			statusAttacker = attacker;
 		}
-
-		return creature;
+		return attacker;
 	}
 
 	/** @return the tileid. */
@@ -452,6 +468,7 @@ public class DefaultCreature {
 	public void setStatusAttack(final String name, final double probability) {
 		statusAttack = name;
 		statusAttackProbability = probability;
+		statusAttacker = null;
 	}
 
 	/**
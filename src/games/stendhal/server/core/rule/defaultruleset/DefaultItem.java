@@ -13,7 +13,9 @@ package games.stendhal.server.core.rule.defaultruleset;
 
 import java.lang.reflect.Constructor;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -62,7 +64,10 @@ public class DefaultItem {
 	/** Map Tile Id. */
 	private int tileid;
 
-	/** Attributes of the item.*/
+	/**
+	 * Attributes of the item. The map is frozen, so that the same instance can
+	 * be passed to the constructor of every created item.
+	 */
 	private Map<String, String> attributes = null;
 
 	private Class< ? > implementation = null;
@@ -78,6 +83,9 @@ public class DefaultItem {
 
 	private String[] statusAttacks;
 
+	/** Resolved status attackers, shared by all items of this kind. */
+	private volatile List<StatusAttacker> statusAttackers;
+
 	/* Slots where SlotActivatedItem can be activated when equipped. */
 	private List<String> activeSlotsList;
 
@@ -109,7 +117,11 @@ public class DefaultItem {
 	}
 
 	public void setAttributes(final Map<String, String> attributes) {
-		this.attributes = attributes;
+		if (attributes == null) {
+			this.attributes = null;
+		} else {
+			this.attributes = Collections.unmodifiableMap(new LinkedHashMap<String, String>(attributes));
+		}
 	}
 
 	public void setEquipableSlots(final List<String> slots) {
@@ -150,6 +162,7 @@ public class DefaultItem {
 
 	public void setStatusAttacks(final String statusAttacks) {
 		this.statusAttacks = statusAttacks.split(";");
+		this.statusAttackers = null;
 	}
 
 	/**
@@ -258,6 +271,39 @@ public class DefaultItem {
 		return null;
 	}
 
+	/**
+	 * Gets the status attackers of the item. They are resolved on first use,
+	 * because poison attackers need the poison items to be loaded.
+	 *
+	 * @return status attackers
+	 */
+	private List<StatusAttacker> getStatusAttackers() {
+		if (statusAttackers != null) {
+			return statusAttackers;
+		}
+
+		final List<StatusAttacker> res = new ArrayList<StatusAttacker>(statusAttacks.length);
+		boolean complete = true;
+		for (final String statk: statusAttacks) {
+			StatusAttacker statusAttacker;
+			if (statk.contains("poison") || statk.contains("cobra venom") || statk.contains("fierywater")) {
+				statusAttacker = PoisonAttackerFactory.get(statk);
+			} else {
+				statusAttacker = StatusAttackerFactory.get(statk);
+			}
+			if (statusAttacker != null) {
+				res.add(statusAttacker);
+			} else {
+				complete = false;
+			}
+		}
+		// try again next time, if something was not available yet
+		if (complete) {
+			statusAttackers = res;
+		}
+		return res;
+	}
+
 	/**
 	 * Returns an item-instance.
 	 *
@@ -283,16 +329,8 @@ public class DefaultItem {
 
 			// status attackers
 			if (statusAttacks != null) {
-				for (final String statk: statusAttacks) {
-					StatusAttacker statusAttacker;
-					if (statk.contains("poison") || statk.contains("cobra venom") || statk.contains("fierywater")) {
-						statusAttacker = PoisonAttackerFactory.get(statk);
-					} else {
-						statusAttacker = StatusAttackerFactory.get(statk);
-					}
-					if (statusAttacker != null) {
-						item.addStatusAttacker(statusAttacker);
-					}
+				for (final StatusAttacker statusAttacker : getStatusAttackers()) {
+					item.addStatusAttacker(statusAttacker);
 				}
 			}
 
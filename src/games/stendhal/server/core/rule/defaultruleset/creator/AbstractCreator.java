@@ -12,6 +12,8 @@
  ***************************************************************************/
 package games.stendhal.server.core.rule.defaultruleset.creator;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 
@@ -23,6 +25,14 @@ public abstract class AbstractCreator<T> {
 
 	protected final Constructor< ? > construct;
 
+	/**
+	 * The constructor as method handle taking and returning
+	 * <code>Object</code>s, or <code>null</code> if it is not accessible that
+	 * way. Calling it avoids the reflection overhead of
+	 * {@link Constructor#newInstance(Object...)} for each created object.
+	 */
+	protected final MethodHandle factory;
+
 	private final String creatorFor;
 
 	/**
@@ -35,6 +45,23 @@ public abstract class AbstractCreator<T> {
 		super();
 		this.construct = construct;
 		this.creatorFor = creatorFor;
+		this.factory = createFactory(construct);
+	}
+
+	/**
+	 * Resolves a constructor to a method handle.
+	 *
+	 * @param construct constructor
+	 * @return method handle with generic type, or <code>null</code>
+	 */
+	private static MethodHandle createFactory(final Constructor<?> construct) {
+		try {
+			final MethodHandle handle = MethodHandles.publicLookup().unreflectConstructor(construct);
+			return handle.asType(handle.type().generic());
+		} catch (final IllegalAccessException e) {
+			logger.debug("Using reflection for " + construct, e);
+			return null;
+		}
 	}
 
 	protected abstract T createObject() throws IllegalAccessException,
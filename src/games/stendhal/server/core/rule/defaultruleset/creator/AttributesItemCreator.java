@@ -30,6 +30,15 @@ public class AttributesItemCreator extends AbstractItemCreator {
 	@Override
 	protected Item createObject() throws IllegalAccessException,
 			InstantiationException, InvocationTargetException {
-		return (Item) construct.newInstance(new Object[] { this.defaultItem.getAttributes() });
+		if (factory == null) {
+			return (Item) construct.newInstance(new Object[] { this.defaultItem.getAttributes() });
+		}
+		final Object item;
+		try {
+			item = factory.invokeExact((Object) this.defaultItem.getAttributes());
+		} catch (final Throwable e) {
+			throw new InvocationTargetException(e);
+		}
+		return (Item) item;
 	}
 }
@@ -30,6 +30,15 @@ public class DefaultItemCreator extends AbstractItemCreator {
 	@Override
 	protected Item createObject() throws IllegalAccessException,
 			InstantiationException, InvocationTargetException {
-		return (Item) construct.newInstance(new Object[] {});
+		if (factory == null) {
+			return (Item) construct.newInstance(new Object[] {});
+		}
+		final Object item;
+		try {
+			item = factory.invokeExact();
+		} catch (final Throwable e) {
+			throw new InvocationTargetException(e);
+		}
+		return (Item) item;
 	}
 }
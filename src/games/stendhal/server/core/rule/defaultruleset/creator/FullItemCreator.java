@@ -36,11 +36,23 @@ public class FullItemCreator extends AbstractItemCreator {
 	protected Item createObject() throws IllegalAccessException,
 			InstantiationException, InvocationTargetException {
 		try {
-			return (Item) construct.newInstance(new Object[] {
-					this.defaultItem.getItemName(),
-					this.defaultItem.getItemClass(),
-					this.defaultItem.getItemSubclass(),
-					this.defaultItem.getAttributes() });
+			if (factory == null) {
+				return (Item) construct.newInstance(new Object[] {
+						this.defaultItem.getItemName(),
+						this.defaultItem.getItemClass(),
+						this.defaultItem.getItemSubclass(),
+						this.defaultItem.getAttributes() });
+			}
+			final Object item;
+			try {
+				item = factory.invokeExact((Object) this.defaultItem.getItemName(),
+						(Object) this.defaultItem.getItemClass(),
+						(Object) this.defaultItem.getItemSubclass(),
+						(Object) this.defaultItem.getAttributes());
+			} catch (final Throwable e) {
+				throw new InvocationTargetException(e);
+			}
+			return (Item) item;
 		} catch (IllegalAccessException | InstantiationException | InvocationTargetException | RuntimeException e) {
 			logger.error("Creating item \"" + this.defaultItem.getItemName() + "\" failed.");
 			throw e;
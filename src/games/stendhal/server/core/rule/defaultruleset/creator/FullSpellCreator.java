@@ -27,6 +27,21 @@ public class FullSpellCreator extends AbstractSpellCreator {
 	@Override
 	protected Spell createObject() throws IllegalAccessException,
 			InstantiationException, InvocationTargetException {
+		if (factory != null) {
+			final Object spell;
+			try {
+				spell = factory.invokeExact((Object) defaultSpell.getName(), (Object) defaultSpell.getNature(),
+						(Object) defaultSpell.getAmount(), (Object) defaultSpell.getAtk(),
+						(Object) defaultSpell.getCooldown(), (Object) defaultSpell.getDef(),
+						(Object) defaultSpell.getLifesteal(), (Object) defaultSpell.getMana(),
+						(Object) defaultSpell.getMinimumLevel(), (Object) defaultSpell.getRange(),
+						(Object) defaultSpell.getRate(), (Object) defaultSpell.getRegen(),
+						(Object) defaultSpell.getModifier());
+			} catch (final Throwable e) {
+				throw new InvocationTargetException(e);
+			}
+			return (Spell) spell;
+		}
 		return (Spell) construct.newInstance(defaultSpell.getName(), defaultSpell.getNature(), defaultSpell.getAmount(),
 									defaultSpell.getAtk(), defaultSpell.getCooldown(),
 									defaultSpell.getDef(), defaultSpell.getLifesteal(),
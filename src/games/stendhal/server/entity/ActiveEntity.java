@@ -453,8 +453,15 @@ public abstract class ActiveEntity extends Entity {
 			return;
 		}
 
+		final boolean wasStopped = stopped();
 		this.speed = speed;
 		put("speed", speed);
+		if (wasStopped != stopped()) {
+			final StendhalRPZone zone = getZone();
+			if (zone != null) {
+				zone.updateEntityIndex(this);
+			}
+		}
 		notifyWorldAboutChanges();
 	}
 
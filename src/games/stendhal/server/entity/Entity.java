@@ -184,10 +184,6 @@ public abstract class Entity extends RPObject implements Killer {
 			}
 		}
 
-		if (moved && (zone != null)) {
-			onMoved(oldX, oldY, x, y);
-		}
-
 		if (has("height")) {
 			area.height = getInt("height");
 		}
@@ -200,6 +196,13 @@ public abstract class Entity extends RPObject implements Killer {
 			resistance = getInt("resistance");
 		}
 
+		// the zone indexes read the new size and resistance
+		if (zone != null) {
+			zone.updateEntityIndex(this);
+			if (moved) {
+				onMoved(oldX, oldY, x, y);
+			}
+		}
 	}
 
 	public boolean hasDescription() {
@@ -658,6 +661,7 @@ public abstract class Entity extends RPObject implements Killer {
 		}
 
 		if (moved && (zone != null)) {
+			zone.updateEntityIndex(this);
 			onMoved(oldX, oldY, x, y);
 		}
 	}
@@ -679,6 +683,9 @@ public abstract class Entity extends RPObject implements Killer {
 	public final void setResistance(final int resistance) {
 		this.resistance = resistance;
 		put("resistance", resistance);
+		if (zone != null) {
+			zone.updateEntityIndex(this);
+		}
 	}
 
 	/**
@@ -695,6 +702,10 @@ public abstract class Entity extends RPObject implements Killer {
 
 		this.area.height = height;
 		put("height", height);
+
+		if (zone != null) {
+			zone.updateEntityIndex(this);
+		}
 	}
 
 	/**
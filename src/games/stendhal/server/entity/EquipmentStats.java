@@ -0,0 +1,102 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.entity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import marauroa.common.game.RPObject;
+import marauroa.common.game.RPSlot;
+
+/**
+ * The item based atk, ratk and def of an entity for one set of equipped
+ * items.
+ * <p>
+ * Items are put into and taken out of the equipment slots in many places,
+ * so the values are not only dropped on equip events. They also remember
+ * which items were equipped at which level, and are recalculated as soon as
+ * that no longer matches. Checking that is much cheaper than searching the
+ * slots for weapons and armor on every attack.
+ */
+final class EquipmentStats {
+
+	/** slots holding items that count for atk, ratk and def */
+	private static final String[] SLOTS = { "lhand", "rhand", "armor", "head", "legs", "feet", "cloak", "finger" };
+
+	final float atk;
+
+	final float ratk;
+
+	final float def;
+
+	private final int level;
+
+	/** contents of the slots, each slot terminated by <code>null</code> */
+	private final RPObject[] contents;
+
+	/**
+	 * Creates a new EquipmentStats.
+	 *
+	 * @param entity entity
+	 * @param atk item atk
+	 * @param ratk item ratk
+	 * @param def item def
+	 */
+	EquipmentStats(final RPEntity entity, final float atk, final float ratk, final float def) {
+		this.atk = atk;
+		this.ratk = ratk;
+		this.def = def;
+		level = entity.getLevel();
+
+		final List<RPObject> list = new ArrayList<RPObject>(SLOTS.length * 2);
+		for (final String name : SLOTS) {
+			final RPSlot slot = entity.getSlot(name);
+			if (slot != null) {
+				for (final RPObject object : slot) {
+					list.add(object);
+				}
+			}
+			list.add(null);
+		}
+		contents = list.toArray(new RPObject[list.size()]);
+	}
+
+	/**
+	 * Checks whether the values are still valid for an entity.
+	 *
+	 * @param entity entity the values were calculated for
+	 * @return <code>true</code> if the level and the equipped items are unchanged
+	 */
+	boolean isValidFor(final RPEntity entity) {
+		if (entity.getLevel() != level) {
+			return false;
+		}
+
+		int i = 0;
+		for (final String name : SLOTS) {
+			final RPSlot slot = entity.getSlot(name);
+			if (slot != null) {
+				for (final RPObject object : slot) {
+					if ((i >= contents.length) || (contents[i] != object)) {
+						return false;
+					}
+					i++;
+				}
+			}
+			if ((i >= contents.length) || (contents[i] != null)) {
+				return false;
+			}
+			i++;
+		}
+		return true;
+	}
+}
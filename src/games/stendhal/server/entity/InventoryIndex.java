@@ -0,0 +1,182 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.entity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import games.stendhal.server.entity.item.Item;
+import games.stendhal.server.entity.slot.EntitySlot;
+import games.stendhal.server.entity.slot.Slots;
+import marauroa.common.game.RPObject;
+import marauroa.common.game.RPSlot;
+
+/**
+ * Item quantities of an entity by item name.
+ * <p>
+ * Entity slots report changes of their content to the entity, which then
+ * drops its index. Plain marauroa slots do not, so their items are not part
+ * of the index and have to be searched on each query. Item names are
+ * compared ignoring case.
+ */
+final class InventoryIndex {
+
+	private static final Set<String> CARRYING = new HashSet<String>(Slots.CARRYING.getNames());
+
+	private final RPEntity owner;
+
+	/** quantities of carried items */
+	private final Map<String, Integer> carried = new HashMap<String, Integer>();
+
+	/** first carried item or stack of each name */
+	private final Map<String, Item> firstCarried = new HashMap<String, Item>();
+
+	/** quantities of all items, including banks */
+	private final Map<String, Integer> total = new HashMap<String, Integer>();
+
+	/** slots of carried items that do not report changes */
+	private final List<RPSlot> unindexedCarried = new ArrayList<RPSlot>();
+
+	/** other slots that do not report changes */
+	private final List<RPSlot> unindexedOther = new ArrayList<RPSlot>();
+
+	/**
+	 * Creates the index of the current items of an entity.
+	 *
+	 * @param owner entity
+	 */
+	InventoryIndex(final RPEntity owner) {
+		this.owner = owner;
+		// carried items in the order of the carrying slots
+		for (final String name : Slots.CARRYING.getNames()) {
+			final RPSlot slot = owner.getSlot(name);
+			if (slot != null) {
+				addSlot(slot, true);
+			}
+		}
+		for (final RPSlot slot : owner.slots()) {
+			if (!CARRYING.contains(slot.getName())) {
+				addSlot(slot, false);
+			}
+		}
+	}
+
+	private void addSlot(final RPSlot slot, final boolean isCarried) {
+		if (!(slot instanceof EntitySlot)) {
+			if (isCarried) {
+				unindexedCarried.add(slot);
+			} else {
+				unindexedOther.add(slot);
+			}
+			return;
+		}
+		for (final RPObject object : slot) {
+			if (object instanceof Item) {
+				addItem((Item) object, isCarried);
+			}
+		}
+	}
+
+	private void addItem(final Item item, final boolean isCarried) {
+		final String key = item.getName().toLowerCase();
+		final int quantity = item.getQuantity();
+		add(total, key, quantity);
+		if (isCarried) {
+			add(carried, key, quantity);
+			if (!firstCarried.containsKey(key)) {
+				firstCarried.put(key, item);
+			}
+		}
+		for (final RPSlot slot : item.slots()) {
+			addSlot(slot, isCarried);
+		}
+	}
+
+	private static void add(final Map<String, Integer> map, final String key, final int quantity) {
+		final Integer old = map.get(key);
+		map.put(key, Integer.valueOf((old == null) ? quantity : old.intValue() + quantity));
+	}
+
+	/**
+	 * Checks whether the index belongs to an entity. A cloned entity shares
+	 * the index of the original until it is rebuilt.
+	 *
+	 * @param entity entity
+	 * @return <code>true</code> if the index was created for entity
+	 */
+	boolean isOwnedBy(final RPEntity entity) {
+		return owner == entity;
+	}
+
+	/**
+	 * Gets the indexed quantity of carried items.
+	 *
+	 * @param name item name
+	 * @return quantity
+	 */
+	int getCarriedQuantity(final String name) {
+		final Integer quantity = carried.get(toKey(name));
+		return (quantity == null) ? 0 : quantity.intValue();
+	}
+
+	/**
+	 * Gets the indexed quantity of all items.
+	 *
+	 * @param name item name
+	 * @return quantity
+	 */
+	int getTotalQuantity(final String name) {
+		final Integer quantity = total.get(toKey(name));
+		return (quantity == null) ? 0 : quantity.intValue();
+	}
+
+	/**
+	 * Gets the first carried item. Only valid if there are no unindexed
+	 * carrying slots.
+	 *
+	 * @param name item name
+	 * @return item or stack, or <code>null</code>
+	 */
+	Item getFirstCarried(final String name) {
+		return firstCarried.get(toKey(name));
+	}
+
+	private static String toKey(final String name) {
+		if (name == null) {
+			return null;
+		}
+		return name.toLowerCase();
+	}
+
+	/**
+	 * Gets the slots with carried items which are not part of the index.
+	 *
+	 * @return slots
+	 */
+	List<RPSlot> getUnindexedCarriedSlots() {
+		return Collections.unmodifiableList(unindexedCarried);
+	}
+
+	/**
+	 * Gets the other slots which are not part of the index.
+	 *
+	 * @return slots
+	 */
+	List<RPSlot> getUnindexedOtherSlots() {
+		return Collections.unmodifiableList(unindexedOther);
+	}
+}
@@ -43,7 +43,6 @@ import games.stendhal.server.core.engine.ItemLogger;
 import games.stendhal.server.core.engine.SingletonRepository;
 import games.stendhal.server.core.engine.StendhalRPZone;
 import games.stendhal.server.core.engine.db.StendhalKillLogDAO;
-import games.stendhal.server.core.engine.dbcommand.LogKillEventCommand;
 import games.stendhal.server.core.events.TurnListener;
 import games.stendhal.server.core.events.TutorialNotifier;
 import games.stendhal.server.entity.creature.Creature;
@@ -68,8 +67,6 @@ import marauroa.common.game.RPAction;
 import marauroa.common.game.RPObject;
 import marauroa.common.game.RPSlot;
 import marauroa.common.game.SyntaxException;
-import marauroa.server.db.command.DBCommandPriority;
-import marauroa.server.db.command.DBCommandQueue;
 import marauroa.server.game.Statistics;
 import marauroa.server.game.db.DAORegister;
 
@@ -109,6 +106,12 @@ public abstract class RPEntity extends CombatEntity {
 	/** a list of current statuses */
 	protected StatusList statusList;
 
+	/** item based atk, ratk and def, <code>null</code> if not calculated yet */
+	private EquipmentStats equipmentStats;
+
+	/** item quantities by name, <code>null</code> if not built yet */
+	private InventoryIndex inventoryIndex;
+
 	/** List of all enemies that are currently attacking this entity. */
 	private final List<Entity> attackSources;
 	/** the enemy that is currently attacked by this entity. */
@@ -1625,7 +1628,11 @@ public abstract class RPEntity extends CombatEntity {
 				}
 			}
 
-			SingletonRepository.getAchievementNotifier().onKill(killer);
+			if (killedName == null) {
+				SingletonRepository.getAchievementNotifier().onKill(killer);
+			} else {
+				SingletonRepository.getAchievementNotifier().onKill(killer, killedName);
+			}
 
 			killer.notifyWorldAboutChanges();
 		}
@@ -1737,7 +1744,7 @@ public abstract class RPEntity extends CombatEntity {
 			new GameEvent(killerName, "killed", this.getName(), killLog.entityToType(killer), killLog.entityToType(this)).raise();
 		}
 
-		DBCommandQueue.get().enqueue(new LogKillEventCommand(this, killer), DBCommandPriority.LOW);
+		SingletonRepository.getKillLogger().logKill(this, killer);
 
 		die(killer, remove);
 	}
@@ -2277,7 +2284,7 @@ public abstract class RPEntity extends CombatEntity {
 	 *         number.
 	 */
 	public boolean isEquipped(final String name, final int amount) {
-		return isEquipped(Item.nameMatches(name), amount);
+		return getNumberOfEquipped(name) >= amount;
 	}
 
 	/**
@@ -2331,8 +2338,12 @@ public abstract class RPEntity extends CombatEntity {
 	 * @return The number of carried items
 	 */
 	public int getNumberOfEquipped(final String name) {
-		return equippedStream().filter(Item.nameMatches(name))
-				.mapToInt(Item::getQuantity).sum();
+		final InventoryIndex index = getInventoryIndex();
+		int count = index.getCarriedQuantity(name);
+		for (final RPSlot slot : index.getUnindexedCarriedSlots()) {
+			count += slotStream(slot).filter(Item.nameMatches(name)).mapToInt(Item::getQuantity).sum();
+		}
+		return count;
 	}
 
 	/**
@@ -2344,8 +2355,12 @@ public abstract class RPEntity extends CombatEntity {
 	 * @return The number of carried items
 	 */
 	public int getTotalNumberOf(final String name) {
-		Stream<Item> allItems = slots().stream().flatMap(this::slotStream);
-		return allItems.filter(Item.nameMatches(name)).mapToInt(Item::getQuantity).sum();
+		final InventoryIndex index = getInventoryIndex();
+		int count = index.getTotalQuantity(name);
+		Stream<RPSlot> unindexed = Stream.concat(index.getUnindexedCarriedSlots().stream(),
+				index.getUnindexedOtherSlots().stream());
+		count += unindexed.flatMap(this::slotStream).filter(Item.nameMatches(name)).mapToInt(Item::getQuantity).sum();
+		return count;
 	}
 
 	/**
@@ -2358,7 +2373,47 @@ public abstract class RPEntity extends CombatEntity {
 	 *         found
 	 */
 	public Item getFirstEquipped(final String name) {
-		return equippedStream().filter(Item.nameMatches(name)).findFirst().orElse(null);
+		final InventoryIndex index = getInventoryIndex();
+		if (!index.getUnindexedCarriedSlots().isEmpty()) {
+			// the order depends on the unindexed items
+			return equippedStream().filter(Item.nameMatches(name)).findFirst().orElse(null);
+		}
+		return index.getFirstCarried(name);
+	}
+
+	/**
+	 * Gets the index of the items of this entity, building it if needed.
+	 *
+	 * @return item index
+	 */
+	private InventoryIndex getInventoryIndex() {
+		InventoryIndex index = inventoryIndex;
+		if ((index == null) || !index.isOwnedBy(this)) {
+			index = new InventoryIndex(this);
+			inventoryIndex = index;
+		}
+		return index;
+	}
+
+	/**
+	 * Called when items have been added to or removed from a slot of this
+	 * entity or of an item it carries, or the quantity of a stack has changed.
+	 */
+	public void onSlotContentChanged() {
+		inventoryIndex = null;
+	}
+
+	@Override
+	public void addSlot(final RPSlot slot) {
+		super.addSlot(slot);
+		onSlotContentChanged();
+	}
+
+	@Override
+	public RPSlot removeSlot(final String name) {
+		final RPSlot slot = super.removeSlot(name);
+		onSlotContentChanged();
+		return slot;
 	}
 
 	/**
@@ -2749,10 +2804,28 @@ public abstract class RPEntity extends CombatEntity {
 		// does nothing in this implementation.
 	}
 
+	/**
+	 * Gets the item based combat values for the currently equipped items.
+	 *
+	 * @return item atk, ratk and def
+	 */
+	private EquipmentStats getEquipmentStats() {
+		EquipmentStats stats = equipmentStats;
+		if ((stats == null) || !stats.isValidFor(this)) {
+			stats = new EquipmentStats(this, calculateItemAtk(), calculateItemRatk(), calculateItemDef());
+			equipmentStats = stats;
+		}
+		return stats;
+	}
+
 	/**
 	 * Retrieves total ATK value of held weapons.
 	 */
 	public float getItemAtk() {
+		return getEquipmentStats().atk;
+	}
+
+	private float calculateItemAtk() {
 		int weapon = 0;
 		int ring = 0;
 
@@ -2763,7 +2836,7 @@ public abstract class RPEntity extends CombatEntity {
 
 		// calculate ammo when not using RATK stat
 		if (!Testing.COMBAT && weapons.size() > 0) {
-			if (getWeapons().get(0).isOfClass("ranged")) {
+			if (weapons.get(0).isOfClass("ranged")) {
 				weapon += getAmmoAtk();
 			}
 		}
@@ -2779,11 +2852,15 @@ public abstract class RPEntity extends CombatEntity {
 	 * Retrieves total range attack value of held weapon & ammunition.
 	 */
 	public float getItemRatk() {
+		return getEquipmentStats().ratk;
+	}
+
+	private float calculateItemRatk() {
 		float ratk = 0;
 		final List<Item> weapons = getWeapons();
 
 		if (weapons.size() > 0) {
-			final Item held = getWeapons().get(0);
+			final Item held = weapons.get(0);
 			ratk += held.getRangedAttack();
 
 			if (held.isOfClass("ranged")) {
@@ -2812,7 +2889,14 @@ public abstract class RPEntity extends CombatEntity {
 		return ammo;
 	}
 
+	/**
+	 * Retrieves total DEF value of the equipped items.
+	 */
 	public float getItemDef() {
+		return getEquipmentStats().def;
+	}
+
+	private float calculateItemDef() {
 		int shield = 0;
 		int armor = 0;
 		int helmet = 0;
@@ -2900,6 +2984,8 @@ public abstract class RPEntity extends CombatEntity {
 	 * Recalculates item based atk and def.
 	 */
 	public void updateItemAtkDef() {
+		// items may have been changed in place
+		equipmentStats = null;
 		put("atk_item", ((int) getItemAtk()));
 		if (Testing.COMBAT) {
 			put("ratk_item", ((int) getItemRatk()));
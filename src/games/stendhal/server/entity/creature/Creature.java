@@ -1,6 +1,6 @@
 /* $Id$ */
 /***************************************************************************
- *                   (C) Copyright 2003-2024 - Stendhal                    *
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
  ***************************************************************************
  ***************************************************************************
  *                                                                         *
@@ -15,8 +15,12 @@ package games.stendhal.server.entity.creature;
 import static games.stendhal.common.Constants.DEFAULT_SOUND_RADIUS;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -88,6 +92,26 @@ public class Creature extends NPC {
 
 	private HealerBehavior healer = HealerBehaviourFactory.get(null);
 
+	/** Number of turns a failed path search to a target is remembered. */
+	private static final int UNREACHABLE_TURNS = 5;
+
+	/**
+	 * Targets that could not be reached, mapped to the last turn this is
+	 * assumed to hold. Created when needed.
+	 */
+	private Map<RPEntity, Integer> unreachableTargets;
+
+	/** List for the enemy candidates, reused to avoid allocations. */
+	private final List<RPEntity> enemyCandidates = new ArrayList<RPEntity>();
+
+	/** Orders entities by their distance to this creature. */
+	private final Comparator<RPEntity> distanceComparator = new Comparator<RPEntity>() {
+		@Override
+		public int compare(final RPEntity a, final RPEntity b) {
+			return Double.compare(squaredDistance(a), squaredDistance(b));
+		}
+	};
+
 	private AttackStrategy strategy;
 
 
@@ -719,78 +743,132 @@ public class Creature extends NPC {
 			return null;
 		}
 
-		// calculate the distance of all possible enemies
-		final Map<RPEntity, Double> distances = new HashMap<RPEntity, Double>();
-		for (final RPEntity enemy : enemyList) {
-			if (enemy == this) {
-				continue;
+		// the candidates in range, nearest first
+		final List<RPEntity> candidates = enemyCandidates;
+		final StendhalRPZone zone = getZone();
+		if ((zone != null) && (enemyList == zone.getPlayerAndFriends())) {
+			zone.getPlayerAndFriendsNear(this, range, candidates);
+		} else {
+			candidates.clear();
+			for (final RPEntity enemy : enemyList) {
+				if ((enemy != this) && (this.squaredDistance(enemy) <= (range * range))) {
+					candidates.add(enemy);
+				}
 			}
+			Collections.sort(candidates, distanceComparator);
+		}
 
+		// now choose the nearest enemy for which there is a path, or is
+		// attackable otherwise
+		RPEntity chosen = null;
+		for (int i = 0; i < candidates.size(); i++) {
+			final RPEntity enemy = candidates.get(i);
 			if (enemy.isInvisibleToCreatures()) {
 				continue;
 			}
 
-			final double squaredDistance = this.squaredDistance(enemy);
-			if (squaredDistance <= (range * range)) {
-				distances.put(enemy, squaredDistance);
+			if (this.squaredDistance(enemy) < 1) {
+				chosen = enemy;
+				break;
 			}
-		}
 
-		// now choose the nearest enemy for which there is a path, or is
-		// attackable otherwise
-		RPEntity chosen = null;
-		while ((chosen == null) && !distances.isEmpty()) {
-			double shortestDistance = Double.MAX_VALUE;
-			for (final Map.Entry<RPEntity, Double> enemy : distances.entrySet()) {
-				final double distance = enemy.getValue();
-				if (distance < shortestDistance) {
-					chosen = enemy.getKey();
-					shortestDistance = distance;
-				}
+			if (isKnownUnreachable(enemy)) {
+				continue;
 			}
-
-			if (shortestDistance >= 1) {
-				final List<Node> path = Path.searchPath(this, chosen, getMovementRange());
-				if ((path == null) || path.isEmpty() && !strategy.canAttackNow(this, chosen)) {
-					distances.remove(chosen);
-					chosen = null;
-				} else {
-					// set the path. if not setMovement() will search a new one
-					setPath(new FixedPath(path, false));
-				}
+			final List<Node> path = Path.searchPath(this, enemy, getMovementRange());
+			if ((path == null) || path.isEmpty() && !strategy.canAttackNow(this, enemy)) {
+				rememberUnreachable(enemy);
+			} else {
+				// set the path. if not setMovement() will search a new one
+				setPath(new FixedPath(path, false));
+				chosen = enemy;
+				break;
 			}
 		}
+		candidates.clear();
+
 		// return the chosen enemy or null if we could not find one in reach
 		return chosen;
 	}
 
+	/**
+	 * Check if a recent path search to a target failed.
+	 *
+	 * @param target target entity
+	 * @return <code>true</code> if the target was found unreachable during
+	 * 	the last {@link #UNREACHABLE_TURNS} turns
+	 */
+	private boolean isKnownUnreachable(final RPEntity target) {
+		if ((unreachableTargets == null) || unreachableTargets.isEmpty()) {
+			return false;
+		}
+		final Integer until = unreachableTargets.get(target);
+		if (until == null) {
+			return false;
+		}
+		if (until.intValue() < SingletonRepository.getRuleProcessor().getTurn()) {
+			unreachableTargets.remove(target);
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Remember that no path was found to a target, so that the search is not
+	 * repeated in the next turns.
+	 *
+	 * @param target target entity
+	 */
+	private void rememberUnreachable(final RPEntity target) {
+		if (unreachableTargets == null) {
+			unreachableTargets = new IdentityHashMap<RPEntity, Integer>();
+		}
+		final int turn = SingletonRepository.getRuleProcessor().getTurn();
+		// forget the targets that have expired, or left
+		final Iterator<Map.Entry<RPEntity, Integer>> it = unreachableTargets.entrySet().iterator();
+		while (it.hasNext()) {
+			if (it.next().getValue().intValue() < turn) {
+				it.remove();
+			}
+		}
+		unreachableTargets.put(target, turn + UNREACHABLE_TURNS);
+	}
+
 	public boolean isEnemyNear(final double range) {
 		final int x = getX();
 		final int y = getY();
 
 		List<RPEntity> enemyList = getEnemyList();
-		if (enemyList.isEmpty()) {
-			final StendhalRPZone zone = getZone();
-			enemyList = zone.getPlayerAndFriends();
+		final StendhalRPZone zone = getZone();
+		if (enemyList.isEmpty() && (zone != null)) {
+			// fall back to the players and friends of the zone. Only those
+			// close to this one need to be checked. The distance limit covers
+			// the square checked below.
+			zone.getPlayerAndFriendsNear(this, range * Math.sqrt(2) + 1, enemyCandidates);
+			enemyList = enemyCandidates;
 		}
 
-		for (final RPEntity playerOrFriend : enemyList) {
-			if (playerOrFriend == this) {
-				continue;
-			}
+		try {
+			for (final RPEntity playerOrFriend : enemyList) {
+				if (playerOrFriend == this) {
+					continue;
+				}
 
-			if (playerOrFriend.isInvisibleToCreatures()) {
-				continue;
-			}
+				if (playerOrFriend.isInvisibleToCreatures()) {
+					continue;
+				}
 
-			if (playerOrFriend.getZone() == getZone()) {
-				final int fx = playerOrFriend.getX();
-				final int fy = playerOrFriend.getY();
+				if (playerOrFriend.getZone() == zone) {
+					final int fx = playerOrFriend.getX();
+					final int fy = playerOrFriend.getY();
 
-				if ((Math.abs(fx - x) < range) && (Math.abs(fy - y) < range)) {
-					return true;
+					if ((Math.abs(fx - x) < range) && (Math.abs(fy - y) < range)) {
+						return true;
+					}
 				}
 			}
+		} finally {
+			enemyCandidates.clear();
 		}
 
 		return false;
@@ -911,6 +989,15 @@ public class Creature extends NPC {
 		// do nothing
 	}
 
+	/**
+	 * Catch up with the logic that was not run while the zone was dormant.
+	 *
+	 * @param turns number of skipped turns
+	 */
+	public void fastForward(final int turns) {
+		healer.catchUp(this, turns);
+	}
+
 	@Override
 	public void logic() {
 		healer.heal(this);
@@ -1,6 +1,6 @@
 /* $Id$ */
 /***************************************************************************
- *                   (C) Copyright 2003-2010 - Stendhal                    *
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
  ***************************************************************************
  ***************************************************************************
  *                                                                         *
@@ -40,4 +40,11 @@ class Healer implements HealerBehavior {
 
 	}
 
+	@Override
+	public void catchUp(final Creature creature, final int turns) {
+		final long times = turns / frequency;
+		if ((times > 0) && (creature.getHP() > 0)) {
+			creature.heal((int) Math.min(Integer.MAX_VALUE, times * amount));
+		}
+	}
 }
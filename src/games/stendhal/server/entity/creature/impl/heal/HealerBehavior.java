@@ -1,6 +1,6 @@
 /* $Id$ */
 /***************************************************************************
- *                   (C) Copyright 2003-2010 - Stendhal                    *
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
  ***************************************************************************
  ***************************************************************************
  *                                                                         *
@@ -18,4 +18,12 @@ public interface HealerBehavior {
 	void init(String healingProfile);
 	void heal(Creature creature);
 
+	/**
+	 * Heal the creature as much as it would have healed in a number of turns.
+	 *
+	 * @param creature healed creature
+	 * @param turns passed turns
+	 */
+	void catchUp(Creature creature, int turns);
+
 }
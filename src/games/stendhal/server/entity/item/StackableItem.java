@@ -20,6 +20,7 @@ import java.util.Map;
 import org.apache.log4j.Logger;
 
 import games.stendhal.server.core.engine.SingletonRepository;
+import games.stendhal.server.entity.RPEntity;
 import marauroa.common.game.RPObject;
 import marauroa.server.game.rp.DebugInterface;
 
@@ -89,6 +90,7 @@ public class StackableItem extends Item implements Stackable<StackableItem> {
 			quantity = amount;
 		}
 		put("quantity", getQuantity());
+		onQuantityChanged();
 	}
 
 	/**
@@ -103,9 +105,22 @@ public class StackableItem extends Item implements Stackable<StackableItem> {
 		}
 		quantity = getQuantity() - amount;
 		put("quantity", getQuantity());
+		onQuantityChanged();
 		return getQuantity();
 	}
 
+	/**
+	 * Tells the entity carrying this stack that the quantity has changed.
+	 */
+	private void onQuantityChanged() {
+		if (isContained()) {
+			final RPObject base = getBaseContainer();
+			if (base instanceof RPEntity) {
+				((RPEntity) base).onSlotContentChanged();
+			}
+		}
+	}
+
 	@Override
 	public int add(final StackableItem other) {
 		if (this.isStackable(other)) {
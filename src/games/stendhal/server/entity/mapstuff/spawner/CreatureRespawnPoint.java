@@ -82,6 +82,12 @@ public class CreatureRespawnPoint implements TurnListener {
 	 */
 	private int respawnTime;
 
+	/**
+	 * The turn of the first respawn that was postponed because the zone was
+	 * dormant, or -1 if there is none.
+	 */
+	private int postponedSince = -1;
+
 	/**
 	 * Creates a new RespawnPoint.
 	 *
@@ -169,6 +175,38 @@ public class CreatureRespawnPoint implements TurnListener {
 	 */
 	@Override
 	public void onTurnReached(final int currentTurn) {
+		if (zone.isDormant()) {
+			// nobody would see the creature; spawn when someone comes
+			postponedSince = currentTurn;
+			return;
+		}
+		respawnAndReschedule();
+	}
+
+	/**
+	 * Spawns the creatures that would have been spawned while the zone was
+	 * dormant.
+	 *
+	 * @param currentTurn current turn
+	 */
+	public void onZoneAwakened(final int currentTurn) {
+		if (postponedSince < 0) {
+			return;
+		}
+		int due = 1 + (currentTurn - postponedSince) / Math.max(respawnTime, MIN_RESPAWN_TIME);
+		postponedSince = -1;
+		while ((due > 1) && (creatures.size() < maximum - 1)) {
+			respawn();
+			due--;
+		}
+		respawnAndReschedule();
+	}
+
+	/**
+	 * Spawns a creature, and starts waiting for the next one if there is room
+	 * for more.
+	 */
+	private void respawnAndReschedule() {
 		respawn();
 
 		// Is this all or should we spawn more creatures?
@@ -288,7 +326,8 @@ public class CreatureRespawnPoint implements TurnListener {
 		if (creatures.size() < maximum) {
 			SingletonRepository.getTurnNotifier().dontNotify(this);
 			//SingletonRepository.getTurnNotifier().notifyInTurns(1, this);
-			onTurnReached(0);
+			postponedSince = -1;
+			respawnAndReschedule();
 		}
 	}
 }
@@ -174,6 +174,16 @@ public abstract class GrowingPassiveEntityRespawnPoint extends
 		return null;
 	}
 
+	@Override
+	protected void catchUp(final int turns) {
+		final int steps = Math.min(1 + turns / Math.max(1, meanTurnsForRegrow), maxRipeness - ripeness);
+		if (steps > 0) {
+			// growNewFruit() does the last step, and restarts the timer if needed
+			setRipeness(ripeness + steps - 1);
+			growNewFruit();
+		}
+	}
+
 	@Override
 	public void onFruitPicked(final Item picked) {
 		super.onFruitPicked(picked);
@@ -59,6 +59,12 @@ public class PassiveEntityRespawnPoint extends Entity implements TurnListener {
 	/** Initializes spawner & sets to full growth when added to zone if <code>true</code>. */
 	private final boolean initOnAdded;
 
+	/**
+	 * The turn of the first growth step that was postponed because the zone
+	 * was dormant, or -1 if there is none.
+	 */
+	private int postponedSince = -1;
+
 
 	/**
 	 * Creates an item spawner.
@@ -196,6 +202,34 @@ public class PassiveEntityRespawnPoint extends Entity implements TurnListener {
 
 	@Override
 	public void onTurnReached(final int currentTurn) {
+		final StendhalRPZone zone = getZone();
+		if ((zone != null) && zone.isDormant()) {
+			// grow when someone comes to see it
+			postponedSince = currentTurn;
+			return;
+		}
+		growNewFruit();
+	}
+
+	/**
+	 * Does the growing that was postponed while the zone was dormant.
+	 *
+	 * @param currentTurn current turn
+	 */
+	public void onZoneAwakened(final int currentTurn) {
+		if (postponedSince >= 0) {
+			final int turns = currentTurn - postponedSince;
+			postponedSince = -1;
+			catchUp(turns);
+		}
+	}
+
+	/**
+	 * Grows as much as would have grown if the zone had not been dormant.
+	 *
+	 * @param turns turns since the first postponed growth step
+	 */
+	protected void catchUp(final int turns) {
 		growNewFruit();
 	}
 
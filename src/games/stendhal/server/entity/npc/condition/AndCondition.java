@@ -13,6 +13,7 @@
 package games.stendhal.server.entity.npc.condition;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import com.google.common.collect.ImmutableList;
@@ -62,6 +63,15 @@ public class AndCondition implements ChatCondition {
 		this.conditions = ImmutableList.copyOf(conditions);
 	}
 
+	/**
+	 * Gets the and-ed conditions.
+	 *
+	 * @return conditions
+	 */
+	public List<ChatCondition> getConditions() {
+		return Collections.unmodifiableList(conditions);
+	}
+
 	@Override
 	public boolean fire(final Player player, final Sentence sentence, final Entity entity) {
 		for (final ChatCondition condition : conditions) {
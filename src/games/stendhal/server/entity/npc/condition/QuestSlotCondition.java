@@ -0,0 +1,28 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.entity.npc.condition;
+
+import games.stendhal.server.entity.npc.ChatCondition;
+
+/**
+ * A condition that only depends on the state of a single quest slot. Its
+ * result can only change when that quest slot is changed.
+ */
+public interface QuestSlotCondition extends ChatCondition {
+
+	/**
+	 * Gets the name of the quest slot.
+	 *
+	 * @return name of quest slot, it may contain variables
+	 */
+	String getQuestSlot();
+}
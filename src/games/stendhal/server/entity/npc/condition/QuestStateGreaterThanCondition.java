@@ -19,7 +19,6 @@ import games.stendhal.common.parser.Sentence;
 import games.stendhal.server.core.config.annotations.Dev;
 import games.stendhal.server.core.config.annotations.Dev.Category;
 import games.stendhal.server.entity.Entity;
-import games.stendhal.server.entity.npc.ChatCondition;
 import games.stendhal.server.entity.player.Player;
 /**
  * Condition to check if the value in a quest slot is greater than an expected value. If the value is not a number, it is treated as 0.
@@ -27,7 +26,7 @@ import games.stendhal.server.entity.player.Player;
  * @author madmetzger
  */
 @Dev(category=Category.QUEST_SLOT, label="State?")
-public class QuestStateGreaterThanCondition implements ChatCondition {
+public class QuestStateGreaterThanCondition implements QuestSlotCondition {
 
 	/**
 	 * expected value to compare against
@@ -56,6 +55,11 @@ public class QuestStateGreaterThanCondition implements ChatCondition {
 		this.index = index;
 	}
 
+	@Override
+	public String getQuestSlot() {
+		return questname;
+	}
+
 	@Override
 	public boolean fire(Player player, Sentence sentence, Entity npc) {
 		if(player.hasQuest(questname)) {
@@ -0,0 +1,71 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.entity.player;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Remembers the values of the website statistics of a player as they were
+ * last written to the database, so that only the changed ones have to be
+ * written on the next save.
+ * <p>
+ * The player objects handed to the database thread are clones of the player.
+ * As they share the tracker of the original player, the stored values are
+ * kept from one save to the next.
+ */
+public final class CharacterStatsTracker {
+	/** values as last stored, or <code>null</code> if they are not known */
+	private Map<String, Object> stored;
+
+	/**
+	 * Gets the values that differ from the ones last stored.
+	 *
+	 * @param current current values
+	 * @return changed values, or <code>null</code> if the stored values are
+	 * 	unknown and everything has to be written
+	 */
+	public synchronized Map<String, Object> getChanges(final Map<String, Object> current) {
+		if (stored == null) {
+			return null;
+		}
+		final Map<String, Object> changes = new LinkedHashMap<String, Object>();
+		for (final Map.Entry<String, Object> entry : current.entrySet()) {
+			if (!Objects.equals(stored.get(entry.getKey()), entry.getValue())) {
+				changes.put(entry.getKey(), entry.getValue());
+			}
+		}
+		return changes;
+	}
+
+	/**
+	 * Records values that have been written to the database.
+	 *
+	 * @param values written values
+	 */
+	public synchronized void stored(final Map<String, Object> values) {
+		if (stored == null) {
+			stored = new HashMap<String, Object>(values);
+		} else {
+			stored.putAll(values);
+		}
+	}
+
+	/**
+	 * Forgets the stored values, so that the next save writes everything.
+	 */
+	public synchronized void reset() {
+		stored = null;
+	}
+}
@@ -51,6 +51,7 @@ import games.stendhal.common.parser.WordList;
 import games.stendhal.server.core.engine.GameEvent;
 import games.stendhal.server.core.engine.SingletonRepository;
 import games.stendhal.server.core.engine.StendhalRPZone;
+import games.stendhal.server.core.engine.ZoneTurnExecutor;
 import games.stendhal.server.core.events.TurnListener;
 import games.stendhal.server.core.events.TurnNotifier;
 import games.stendhal.server.core.events.TutorialNotifier;
@@ -116,6 +117,7 @@ public class Player extends DressedEntity implements UseListener {
 	private final PetOwner petOwner = new PetOwner(this);
 	private final PlayerLootedItemsHandler itemCounter = new PlayerLootedItemsHandler(
 			this);
+	private final CharacterStatsTracker characterStats = new CharacterStatsTracker();
 
 	/**
 	 * The number of minutes that this player has been logged in on the server.
@@ -1682,10 +1684,23 @@ public class Player extends DressedEntity implements UseListener {
 	 *            The player who initiated the teleporting, or null if no player
 	 *            is responsible. This is only to give feedback if something
 	 *            goes wrong. If no feedback is wanted, use null.
-	 * @return <code>true</code> if teleporting was successful.
+	 * @return <code>true</code> if teleporting was successful. A teleport to
+	 *         another zone from the parallel zone logic is done after the
+	 *         phase, together with the feedback, and only reports that it was
+	 *         scheduled.
 	 */
 	public boolean teleport(final StendhalRPZone zone, final int x,
 			final int y, final Direction dir, final Player teleporter) {
+		if ((zone != null) && (zone != getZone()) && ZoneTurnExecutor.isDeferring()) {
+			ZoneTurnExecutor.runOrDefer(new Runnable() {
+				@Override
+				public void run() {
+					teleport(zone, x, y, dir, teleporter);
+				}
+			});
+			return true;
+		}
+
 		if (StendhalRPAction.placeat(zone, this, x, y)) {
 			if (dir != null) {
 				this.setDirection(dir);
@@ -2134,6 +2149,11 @@ public class Player extends DressedEntity implements UseListener {
 		} else if (has(GHOSTMODE)) {
 			remove(GHOSTMODE);
 		}
+		// ghosts have no resistance
+		final StendhalRPZone zone = getZone();
+		if (zone != null) {
+			zone.updateEntityIndex(this);
+		}
 	}
 
 	/**
@@ -2445,6 +2465,15 @@ public class Player extends DressedEntity implements UseListener {
 		return petOwner;
 	}
 
+	/**
+	 * Gets the website statistics as last written to the database.
+	 *
+	 * @return CharacterStatsTracker
+	 */
+	public CharacterStatsTracker getCharacterStatsTracker() {
+		return characterStats;
+	}
+
 	public boolean isBoundTo(final Item item) {
 		return getName().equals(item.getBoundTo());
 	}
@@ -2516,6 +2545,9 @@ public class Player extends DressedEntity implements UseListener {
 				|| !getMap("buddies").containsKey(name);
 
 		put("buddies", name, online);
+		if (isNew) {
+			SingletonRepository.getRuleProcessor().getOnlinePlayers().onBuddyAdded(this, name);
+		}
 
 		return isNew;
 	}
@@ -2528,7 +2560,11 @@ public class Player extends DressedEntity implements UseListener {
 	 * @return true if a buddy was removed
 	 */
 	public boolean removeBuddy(String name) {
-		return remove("buddies", name) != null;
+		if (remove("buddies", name) == null) {
+			return false;
+		}
+		SingletonRepository.getRuleProcessor().getOnlinePlayers().onBuddyRemoved(this, name);
+		return true;
 	}
 
 	@Override
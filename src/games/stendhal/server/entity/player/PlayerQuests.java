@@ -1,5 +1,5 @@
 /***************************************************************************
- *                   (C) Copyright 2003-2020 - Stendhal                    *
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
  ***************************************************************************
  ***************************************************************************
  *                                                                         *
@@ -11,8 +11,10 @@
  ***************************************************************************/
 package games.stendhal.server.entity.player;
 
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.log4j.Logger;
 
@@ -25,6 +27,10 @@ import marauroa.common.game.RPSlot;
 
 /**
  * Accesses the player quest states.
+ * <p>
+ * The quest slot stays the only storage of the states. The sub states of a
+ * quest are cached together with the string they were split from, so that
+ * they are split again only after the quest state has changed.
  *
  * @author hendrik
  */
@@ -33,6 +39,24 @@ class PlayerQuests {
 
 	private static Logger logger = Logger.getLogger(PlayerQuests.class);
 
+	/**
+	 * Split quest state.
+	 */
+	private static final class SubStates {
+		/** quest state the sub states belong to */
+		final String state;
+		/** sub states separated by ";" */
+		final String[] elements;
+
+		SubStates(final String state) {
+			this.state = state;
+			this.elements = state.split(";");
+		}
+	}
+
+	/** split quest states by quest slot name */
+	private final Map<String, SubStates> subStates = new HashMap<String, SubStates>();
+
 
 	public PlayerQuests(final Player player) {
 		this.player = player;
@@ -93,13 +117,17 @@ class PlayerQuests {
 	 *            reset the player's status for the quest.
 	 */
 	public void setQuest(final String name, final String status) {
-		final String oldStatus = player.getKeyedSlot("!quests", QuestUtils.evaluateQuestSlotName(name));
-		player.setKeyedSlot("!quests", QuestUtils.evaluateQuestSlotName(name), status);
+		final String slotName = QuestUtils.evaluateQuestSlotName(name);
+		final String oldStatus = player.getKeyedSlot("!quests", slotName);
+		player.setKeyedSlot("!quests", slotName, status);
+		if (status == null) {
+			subStates.remove(slotName);
+		}
 		if ((status == null) || !status.equals(oldStatus)) {
-			new GameEvent(player.getName(), "quest", QuestUtils.evaluateQuestSlotName(name), status).raise();
+			new GameEvent(player.getName(), "quest", slotName, status).raise();
 		}
 		// check for reached achievements
-		SingletonRepository.getAchievementNotifier().onFinishQuest(player);
+		SingletonRepository.getAchievementNotifier().onFinishQuest(player, slotName);
 	}
 
 
@@ -122,13 +150,30 @@ class PlayerQuests {
 			return state;
 		}
 
-		String[] elements = state.split(";");
+		String[] elements = getSubStates(QuestUtils.evaluateQuestSlotName(name), state);
 		if (index < elements.length) {
 			return elements[index];
 		}
 		return "";
 	}
 
+	/**
+	 * Gets the sub states of a quest state, splitting it only if it has
+	 * changed since the last call. The returned array must not be modified.
+	 *
+	 * @param slotName quest slot name
+	 * @param state current quest state
+	 * @return sub states
+	 */
+	private String[] getSubStates(final String slotName, final String state) {
+		SubStates cached = subStates.get(slotName);
+		if ((cached == null) || !cached.state.equals(state)) {
+			cached = new SubStates(state);
+			subStates.put(slotName, cached);
+		}
+		return cached.elements;
+	}
+
 	/**
 	 * Allows to store the player's current status in a quest in a string. This
 	 * string may, for instance, be "started", "done", a semicolon- separated
@@ -145,16 +190,14 @@ class PlayerQuests {
 	 *            reset the player's status for the quest.
 	 */
 	public void setQuest(final String name, final int index, final String subStatus) {
+		final String slotName = QuestUtils.evaluateQuestSlotName(name);
 		String state = getQuest(name);
 		if (state == null) {
 			state = "";
 		}
-		String[] elements = state.split(";");
-		if (elements.length <= index) {
-			String[] temp = new String[index + 1];
-			System.arraycopy(elements, 0, temp, 0, elements.length);
-			elements = temp;
-		}
+		final String[] cached = getSubStates(slotName, state);
+		String[] elements = new String[Math.max(cached.length, index + 1)];
+		System.arraycopy(cached, 0, elements, 0, cached.length);
 
 		elements[index] = subStatus;
 		StringBuilder res = new StringBuilder();
@@ -183,7 +226,9 @@ class PlayerQuests {
 	}
 
 	public void removeQuest(final String name) {
-		player.setKeyedSlot("!quests", QuestUtils.evaluateQuestSlotName(name), null);
+		final String slotName = QuestUtils.evaluateQuestSlotName(name);
+		player.setKeyedSlot("!quests", slotName, null);
+		subStates.remove(slotName);
 	}
 
 	/**
@@ -249,9 +294,11 @@ class PlayerQuests {
 			return "";
 		}
 		String questSubString = getQuest(name, index);
-		final String[] elements = questSubString.split("=");
-		String questItem = elements[0];
-		return questItem;
+		final int pos = questSubString.indexOf('=');
+		if (pos < 0) {
+			return questSubString;
+		}
+		return questSubString.substring(0, pos);
 	}
 
 	/**
@@ -270,9 +317,13 @@ class PlayerQuests {
 			return amount;
 		}
 		String questSubString = getQuest(name, index);
-		final String[] elements = questSubString.split("=");
-		if(elements.length > 1) {
-			amount=MathHelper.parseIntDefault(elements[1], 1);
+		final int pos = questSubString.indexOf('=');
+		if (pos >= 0) {
+			int end = questSubString.indexOf('=', pos + 1);
+			if (end < 0) {
+				end = questSubString.length();
+			}
+			amount = MathHelper.parseIntDefault(questSubString.substring(pos + 1, end), 1);
 		}
 		return amount;
 
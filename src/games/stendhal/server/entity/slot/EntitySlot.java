@@ -13,7 +13,10 @@
 package games.stendhal.server.entity.slot;
 
 import games.stendhal.server.entity.Entity;
+import games.stendhal.server.entity.RPEntity;
+import marauroa.common.game.RPObject;
 import marauroa.common.game.RPSlot;
+import marauroa.common.game.SlotOwner;
 
 /**
  * Stendhal specific information about this slot.
@@ -43,6 +46,51 @@ public class EntitySlot extends RPSlot implements Slot {
 		this.contentSlotName = contentSlotName;
 	}
 
+	@Override
+	public int add(final RPObject object) {
+		final int res = super.add(object);
+		onContentChanged();
+		return res;
+	}
+
+	@Override
+	public int addPreservingId(final RPObject object) {
+		final int res = super.addPreservingId(object);
+		onContentChanged();
+		return res;
+	}
+
+	@Override
+	public RPObject remove(final RPObject.ID id) {
+		final RPObject res = super.remove(id);
+		if (res != null) {
+			onContentChanged();
+		}
+		return res;
+	}
+
+	@Override
+	public void clear() {
+		super.clear();
+		onContentChanged();
+	}
+
+	/**
+	 * Tells the entity carrying this slot that the content has changed.
+	 */
+	private void onContentChanged() {
+		final SlotOwner owner = getOwner();
+		if (owner instanceof RPObject) {
+			RPObject base = (RPObject) owner;
+			while (base.isContained()) {
+				base = base.getContainer();
+			}
+			if (base instanceof RPEntity) {
+				((RPEntity) base).onSlotContentChanged();
+			}
+		}
+	}
+
 	@Override
 	public boolean isReachableForTakingThingsOutOfBy(final Entity entity) {
 		setErrorMessage("The " + getName() + " of " + ((Entity) getOwner()).getDescriptionName(true) + " is too far away.");
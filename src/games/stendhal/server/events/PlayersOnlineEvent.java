@@ -0,0 +1,46 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.events;
+
+import java.util.List;
+
+import games.stendhal.common.constants.Events;
+import marauroa.common.game.Definition.DefinitionClass;
+import marauroa.common.game.Definition.Type;
+import marauroa.common.game.RPClass;
+import marauroa.common.game.RPEvent;
+
+/**
+ * Tells a player who has just logged in which players are online.
+ */
+public class PlayersOnlineEvent extends RPEvent {
+
+	private static final String NAMES_ATTRIBUTE = "names";
+
+	/**
+	 * Creates the rpclass.
+	 */
+	public static void generateRPClass() {
+		final RPClass rpclass = new RPClass(Events.PLAYERS_ONLINE);
+		rpclass.add(DefinitionClass.ATTRIBUTE, NAMES_ATTRIBUTE, Type.VERY_LONG_STRING);
+	}
+
+	/**
+	 * Creates a new PlayersOnlineEvent.
+	 *
+	 * @param names names of the online players
+	 */
+	public PlayersOnlineEvent(final List<String> names) {
+		super(Events.PLAYERS_ONLINE);
+		put(NAMES_ATTRIBUTE, names);
+	}
+}
@@ -0,0 +1,63 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.script;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import games.stendhal.common.MathHelper;
+import games.stendhal.server.core.engine.SingletonRepository;
+import games.stendhal.server.core.rp.achievement.Achievement;
+import games.stendhal.server.core.scripting.ScriptImpl;
+import games.stendhal.server.entity.player.Player;
+
+/**
+ * Lists the achievements whose conditions took the most time to evaluate.
+ * <p>
+ * Usage: /script DumpAchievementCosts.class [count]
+ */
+public class DumpAchievementCosts extends ScriptImpl {
+
+	@Override
+	public void execute(final Player admin, final List<String> args) {
+		int count = 20;
+		if (!args.isEmpty()) {
+			count = MathHelper.parseIntDefault(args.get(0), count);
+		}
+
+		final List<Achievement> achievements = new ArrayList<Achievement>(
+				SingletonRepository.getAchievementNotifier().getAchievements());
+		Collections.sort(achievements, new Comparator<Achievement>() {
+			@Override
+			public int compare(final Achievement a, final Achievement b) {
+				return Long.compare(b.getEvaluationTime(), a.getEvaluationTime());
+			}
+		});
+
+		final StringBuilder sb = new StringBuilder("Achievement evaluation costs (total ms, evaluations, average us):");
+		for (final Achievement achievement : achievements.subList(0, Math.min(count, achievements.size()))) {
+			final long evaluations = achievement.getEvaluationCount();
+			final long time = achievement.getEvaluationTime();
+			sb.append("\n");
+			sb.append(achievement.getIdentifier());
+			sb.append(": ");
+			sb.append(time / 1000000);
+			sb.append(", ");
+			sb.append(evaluations);
+			sb.append(", ");
+			sb.append(evaluations == 0 ? 0 : time / evaluations / 1000);
+		}
+		admin.sendPrivateText(sb.toString());
+	}
+}
@@ -156,6 +156,7 @@ CREATE TABLE IF NOT EXISTS creatureinfo (
   status_attack_probability FLOAT,
   damage_type      VARCHAR(64),
   ranged_damage_type        VARCHAR(64),
+  content_hash     VARCHAR(64),
   PRIMARY KEY (id)
 );
 
@@ -199,6 +200,7 @@ CREATE TABLE IF NOT EXISTS iteminfo (
   max_quantity       INT,
   deterioration      INT,
   unattainable       INT,
+  content_hash       VARCHAR(64),
   PRIMARY KEY (id)
 );
 
@@ -224,6 +226,7 @@ CREATE TABLE IF NOT EXISTS npcs (
   job           VARCHAR(1000),
   cloned        VARCHAR(64),
   hide_location TINYINT DEFAULT 0,
+  content_hash  VARCHAR(64),
   PRIMARY KEY (id)
 );
 
@@ -234,6 +237,7 @@ CREATE TABLE IF NOT EXISTS shopinfo (
   active        INT,
   name          VARCHAR(64),
   shop_type     VARCHAR(64),
+  content_hash  VARCHAR(64),
   PRIMARY KEY (id)
 );
 
@@ -285,6 +289,7 @@ CREATE TABLE IF NOT EXISTS zoneinfo (
   blendMethod   VARCHAR(64),
   dangerLevel   FLOAT,
   weather       VARCHAR(64),
+  content_hash  VARCHAR(64),
   PRIMARY KEY (id)
 );
 
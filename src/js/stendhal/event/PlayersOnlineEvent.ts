@@ -0,0 +1,37 @@
+/***************************************************************************
+ *                    Copyright © 2026 - Faiumoni e. V.                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU Affero General Public License as        *
+ *   published by the Free Software Foundation; either version 3 of the    *
+ *   License, or (at your option) any later version.                       *
+ *                                                                         *
+ ***************************************************************************/
+
+declare var stendhal: any;
+
+import { RPEvent } from "./RPEvent";
+
+
+/**
+ * The players that were online when the user logged in.
+ */
+export class PlayersOnlineEvent extends RPEvent {
+
+	public names!: string;
+
+
+	override execute(entity: any) {
+		if (!this.names || this.names.length < 3) {
+			return;
+		}
+		for (const name of this.names.substring(1, this.names.length - 1).split("\t")) {
+			if (stendhal.players.indexOf(name) < 0) {
+				stendhal.players.push(name);
+			}
+		}
+		stendhal.players = stendhal.players.sort();
+	}
+}
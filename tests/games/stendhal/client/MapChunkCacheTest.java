@@ -0,0 +1,96 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.client;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import org.junit.Test;
+
+import games.stendhal.client.sprite.AnimatedSprite;
+import games.stendhal.client.sprite.EmptySprite;
+import games.stendhal.client.sprite.ImageSprite;
+import games.stendhal.client.sprite.Sprite;
+
+/**
+ * Tests for MapChunkCache.
+ */
+public class MapChunkCacheTest {
+	private static final int SIZE = IGameScreen.SIZE_UNIT_PIXELS;
+	/** layer size in tiles, not a multiple of the chunk size */
+	private static final int LAYER_SIZE = 10;
+
+	/**
+	 * Create a single colored tile.
+	 *
+	 * @param color tile color
+	 * @return sprite
+	 */
+	private static Sprite createTile(Color color) {
+		BufferedImage img = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = img.createGraphics();
+		g.setColor(color);
+		g.fillRect(0, 0, SIZE, SIZE);
+		g.dispose();
+		return new ImageSprite(img, color);
+	}
+
+	/**
+	 * Check that drawing a layer through the chunks gives the same result as
+	 * drawing the tiles one by one, and that the animated tiles are drawn
+	 * separately.
+	 */
+	@Test
+	public void testDrawChunks() {
+		Sprite red = createTile(Color.RED);
+		Sprite blue = createTile(Color.BLUE);
+		Sprite animated = new AnimatedSprite(new Sprite[] { createTile(Color.GREEN), red }, 100, false);
+		Sprite empty = new EmptySprite(SIZE, SIZE, null);
+
+		Sprite[] sprites = new Sprite[LAYER_SIZE * LAYER_SIZE];
+		for (int i = 0; i < sprites.length; i++) {
+			sprites[i] = ((i % 3) == 0) ? red : blue;
+		}
+		sprites[12] = animated;
+		sprites[55] = empty;
+
+		TileRenderer renderer = new TileRenderer();
+		renderer.width = LAYER_SIZE;
+		renderer.height = LAYER_SIZE;
+		renderer.spriteMap = sprites;
+
+		BufferedImage expected = new BufferedImage(LAYER_SIZE * SIZE, LAYER_SIZE * SIZE, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = expected.createGraphics();
+		for (int i = 0; i < sprites.length; i++) {
+			sprites[i].draw(g, (i % LAYER_SIZE) * SIZE, (i / LAYER_SIZE) * SIZE);
+		}
+		g.dispose();
+
+		MapChunkCache.get().getAndResetDrawCalls();
+		BufferedImage result = new BufferedImage(LAYER_SIZE * SIZE, LAYER_SIZE * SIZE, BufferedImage.TYPE_INT_ARGB);
+		g = result.createGraphics();
+		renderer.draw(g, 0, 0, LAYER_SIZE, LAYER_SIZE);
+		g.dispose();
+
+		// 4 chunk images, and the animated tile
+		assertEquals(5, MapChunkCache.get().getAndResetDrawCalls());
+		for (int y = 0; y < result.getHeight(); y++) {
+			for (int x = 0; x < result.getWidth(); x++) {
+				assertEquals("Pixel at " + x + "," + y, expected.getRGB(x, y), result.getRGB(x, y));
+			}
+		}
+		MapChunkCache.get().clear();
+	}
+}
@@ -1,5 +1,5 @@
 /***************************************************************************
- *                   (C) Copyright 2003-2010 - Stendhal                    *
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
  ***************************************************************************
  ***************************************************************************
  *                                                                         *
@@ -12,6 +12,7 @@
 package games.stendhal.client.sprite;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.awt.Image;
@@ -157,6 +158,33 @@ public class CompositeSpriteTest {
 		assertEquals(0x5555, result.getReference().hashCode());
 	}
 
+	/**
+	 * Check that composites are constant only if all their parts are.
+	 */
+	@Test
+	public void testConstant() {
+		// null image will do fine as long as we don't draw them
+		Image img = null;
+		Sprite image0 = new ImageSprite(img, 0xf00f);
+		Sprite image1 = new ImageSprite(img, 0x0ff0);
+
+		List<Sprite> slaves = new LinkedList<Sprite>();
+		slaves.add(image0);
+		slaves.add(image1);
+		SpriteCache cache = new SpriteCache();
+		Sprite result = CompositeSprite.getComposite(cache, slaves, null, null);
+		assertTrue(result instanceof CompositeSprite);
+		assertTrue(result.isConstant());
+
+		slaves.clear();
+		slaves.add(image0);
+		Sprite frame = new EmptySprite(32, 32, 0xaaaa);
+		slaves.add(new AnimatedSprite(new Sprite[] { frame, frame }, 100, true));
+		result = CompositeSprite.getComposite(cache, slaves, null, null);
+		assertTrue(result instanceof CompositeSprite);
+		assertFalse(result.isConstant());
+	}
+
 	/**
 	 * Check that previous one is got from a cache, should there be an
 	 * equivalent composite
@@ -353,4 +353,38 @@ public class CollisionMapTest {
 				.getWidth(), (int) bob.getHeight()));
 	}
 
+	/**
+	 * Tests the word mask and footprint table checks against testing every
+	 * node, on a map wider than a word.
+	 */
+	@Test
+	public void testCollidesAcrossWords() {
+		final CollisionMap map = new CollisionMap(150, 20);
+		final java.util.Random random = new java.util.Random(42);
+		for (int i = 0; i < 300; i++) {
+			map.set(random.nextInt(150), random.nextInt(20));
+		}
+
+		for (int round = 0; round < 2; round++) {
+			for (int w = 1; w <= 6; w++) {
+				for (int h = 1; h <= 6; h++) {
+					for (int y = 0; y + h <= 20; y++) {
+						for (int x = 0; x + w <= 150; x++) {
+							boolean expected = false;
+							for (int i = x; i < x + w; i++) {
+								for (int j = y; j < y + h; j++) {
+									expected |= map.get(i, j);
+								}
+							}
+							assertThat(w + "x" + h + " at " + x + "," + y, map.collides(x, y, w, h), is(expected));
+						}
+					}
+				}
+			}
+			// the footprint tables must follow changes
+			map.unset(63, 5);
+			map.set(64, 6);
+			map.set(127, 19);
+		}
+	}
 }
@@ -1,6 +1,6 @@
 /* $Id$ */
 /***************************************************************************
- *                   (C) Copyright 2003-2024 - Stendhal                    *
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
  ***************************************************************************
  ***************************************************************************
  *                                                                         *
@@ -18,8 +18,10 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import org.junit.Test;
 
@@ -593,4 +595,31 @@ public class ConversationParserTest {
 		assertNull(sentence.getObjectName());
 		assertFalse(sentence.hasError());
 	}
+
+	/**
+	 * Tests for the cache of parsed chat lines.
+	 */
+	@Test
+	public final void testChatCache() {
+		final Sentence sentence = ConversationParser.parse("call Watsonius");
+		assertSame(sentence, ConversationParser.parse("  call Watsonius "));
+		assertEquals("call/VER watsonius/", sentence.toString());
+
+		try {
+			sentence.getExpressions().clear();
+			fail("shared sentences should not be modifiable");
+		} catch (final UnsupportedOperationException e) {
+			// expected
+		}
+		assertEquals(2, sentence.getExpressions().size());
+
+		// registered names have to be recognized in later chat lines
+		WordList.getInstance().registerSubjectName("Watsonius");
+		try {
+			final Sentence reparsed = ConversationParser.parse("call Watsonius");
+			assertEquals("call/VER watsonius/SUB-NAM-DYN", reparsed.toString());
+		} finally {
+			WordList.getInstance().unregisterSubjectName("Watsonius");
+		}
+	}
 }
@@ -0,0 +1,73 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.common.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests for ParseCache.
+ */
+public class ParseCacheTest {
+
+	/**
+	 * Tests that the cache keeps its size limit and recently used entries.
+	 */
+	@Test
+	public void testBounded() {
+		final ParseCache<String> cache = new ParseCache<String>(160);
+		cache.put("keep", "value");
+		for (int i = 0; i < 1000; i++) {
+			cache.put("text " + i, "value " + i);
+			// keep one entry in use
+			assertEquals("value", cache.get("keep"));
+		}
+		assertTrue(cache.size() <= 160);
+		assertNull(cache.get("text 0"));
+		assertEquals("value 999", cache.get("text 999"));
+	}
+
+	/**
+	 * Tests the hit and miss counters.
+	 */
+	@Test
+	public void testStatistics() {
+		final ParseCache<String> cache = new ParseCache<String>(16);
+		assertEquals(0, cache.getHitRate(), 0);
+		assertNull(cache.get("hello"));
+		cache.put("hello", "world");
+		assertEquals("world", cache.get("hello"));
+		assertEquals("world", cache.get("hello"));
+		assertEquals(2, cache.getHits());
+		assertEquals(1, cache.getMisses());
+		assertEquals(2.0 / 3, cache.getHitRate(), 0.0001);
+	}
+
+	/**
+	 * Tests that results of a cleared generation are not stored.
+	 */
+	@Test
+	public void testClear() {
+		final ParseCache<String> cache = new ParseCache<String>(16);
+		cache.put("hello", "world");
+		final int generation = cache.getGeneration();
+		cache.clear();
+		assertEquals(0, cache.size());
+		cache.put("stale", "value", generation);
+		assertNull(cache.get("stale"));
+		cache.put("fresh", "value", cache.getGeneration());
+		assertEquals("value", cache.get("fresh"));
+	}
+}
@@ -0,0 +1,127 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.config;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import games.stendhal.common.tiled.LayerDefinition;
+import games.stendhal.common.tiled.StendhalMapStructure;
+import games.stendhal.server.core.config.zone.TMXLoader;
+import games.stendhal.server.core.engine.StendhalRPWorld;
+import games.stendhal.server.core.engine.StendhalRPZone;
+
+/**
+ * Tests for ZoneCache.
+ */
+public class ZoneCacheTest {
+
+	private static final String MAP = StendhalRPWorld.MAPS_FOLDER + "interiors/semos/bakery.tmx";
+
+	private File directory;
+
+	/**
+	 * Creates an empty cache directory.
+	 *
+	 * @throws IOException if the directory can't be created
+	 */
+	@Before
+	public void setUp() throws IOException {
+		directory = File.createTempFile("zonecache", "");
+		assertTrue(directory.delete());
+		assertTrue(directory.mkdir());
+	}
+
+	/**
+	 * Removes the cache directory.
+	 */
+	@After
+	public void tearDown() {
+		final File[] files = directory.listFiles();
+		if (files != null) {
+			for (final File file : files) {
+				file.delete();
+			}
+		}
+		directory.delete();
+	}
+
+	/**
+	 * Tests reading back a map written to the cache.
+	 *
+	 * @throws Exception if the test map can't be read
+	 */
+	@Test
+	public void testReadWrite() throws Exception {
+		final byte[] content = TMXLoader.readFile(MAP);
+		final byte[] hash = ZoneCache.hash(content);
+		final StendhalMapStructure map = new TMXLoader().readMap(MAP, content);
+		final Map<String, byte[]> layers = new LinkedHashMap<String, byte[]>();
+		layers.put("0_floor", map.getLayer("0_floor").encode());
+		layers.put("collision", map.getLayer("collision").encode());
+
+		final ZoneCache cache = new ZoneCache(directory);
+		assertNull(cache.read("int_semos_bakery", hash, new LinkedHashMap<String, byte[]>()));
+		cache.write("int_semos_bakery", hash, map, layers);
+
+		final Map<String, byte[]> cachedLayers = new LinkedHashMap<String, byte[]>();
+		final StendhalMapStructure cached = cache.read("int_semos_bakery", hash, cachedLayers);
+		assertNotNull(cached);
+		assertEquals(map.getWidth(), cached.getWidth());
+		assertEquals(map.getHeight(), cached.getHeight());
+		assertArrayEquals(StendhalRPZone.encodeTilesets(map.getTilesets()),
+				StendhalRPZone.encodeTilesets(cached.getTilesets()));
+		assertEquals(map.getLayers().size(), cached.getLayers().size());
+		for (final LayerDefinition layer : map.getLayers()) {
+			final LayerDefinition cachedLayer = cached.getLayer(layer.getName());
+			assertNotNull(layer.getName(), cachedLayer);
+			assertArrayEquals(layer.exposeRaw(), cachedLayer.exposeRaw());
+		}
+		assertEquals(layers.keySet(), cachedLayers.keySet());
+		assertArrayEquals(layers.get("collision"), cachedLayers.get("collision"));
+
+		// a changed map is not taken from the cache
+		final byte[] otherHash = ZoneCache.hash(new byte[] { 1 });
+		assertNull(cache.read("int_semos_bakery", otherHash, new LinkedHashMap<String, byte[]>()));
+	}
+
+	/**
+	 * Tests that damaged cache files are ignored.
+	 *
+	 * @throws IOException if the test file can't be written
+	 */
+	@Test
+	public void testDamagedFile() throws IOException {
+		final FileOutputStream out = new FileOutputStream(new File(directory, "int_semos_bakery.zone"));
+		try {
+			out.write(new byte[] { 0x53, 0x5a, 0x43, 0x31, 0, 0, 0, 1, 0x7f });
+		} finally {
+			out.close();
+		}
+		final Map<String, byte[]> layers = new LinkedHashMap<String, byte[]>();
+		assertNull(new ZoneCache(directory).read("int_semos_bakery", new byte[32], layers));
+		assertTrue(layers.isEmpty());
+	}
+}
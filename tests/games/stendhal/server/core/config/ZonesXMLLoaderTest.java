@@ -4,12 +4,18 @@
 package games.stendhal.server.core.config;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.After;
 import org.junit.Before;
@@ -21,6 +27,7 @@ import games.stendhal.server.core.engine.StendhalRPWorld;
 import games.stendhal.server.core.engine.StendhalRPZone;
 import games.stendhal.server.maps.MockStendlRPWorld;
 import marauroa.common.game.IRPZone;
+import marauroa.common.net.message.TransferContent;
 import marauroa.server.game.db.DatabaseFactory;
 
 /**
@@ -69,4 +76,39 @@ public class ZonesXMLLoaderTest {
 		assertThat(regionSemosInteriors.contains(rpZone), is(Boolean.FALSE));
 	}
 
+	/**
+	 * Tests loading zones with the maps read on worker threads.
+	 *
+	 * @throws URISyntaxException
+	 * @throws IOException
+	 * @throws SAXException
+	 */
+	@Test
+	public void testLoadZonesInParallel() throws URISyntaxException, SAXException, IOException {
+		MockStendlRPWorld.reset();
+		MockStendlRPWorld.get();
+		final List<ZonesXMLLoader.ZoneDesc> zones = new ZonesXMLLoader(new URI("testsemos.xml")).readZones();
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			ZonesXMLLoader.loadZones(zones, executor);
+		} finally {
+			executor.shutdown();
+		}
+
+		final StendhalRPWorld world = SingletonRepository.getRPWorld();
+		for (final ZonesXMLLoader.ZoneDesc desc : zones) {
+			assertNotNull(desc.getName(), world.getRPZone(desc.getName()));
+		}
+
+		final StendhalRPZone zone = (StendhalRPZone) world.getRPZone("int_semos_frank_house");
+		final List<String> names = new ArrayList<String>();
+		for (final TransferContent content : zone.getContents()) {
+			names.add(content.name);
+		}
+		final int tilesets = names.indexOf(zone.getName() + ".tilesets");
+		assertThat(tilesets >= 0, is(Boolean.TRUE));
+		assertEquals(tilesets + 1, names.indexOf(zone.getName() + ".0_floor"));
+		assertThat(names.contains(zone.getName() + ".collision"), is(Boolean.TRUE));
+		MockStendlRPWorld.reset();
+	}
 }
@@ -0,0 +1,115 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.After;
+import org.junit.Test;
+
+import games.stendhal.server.core.events.TurnListener;
+import games.stendhal.server.core.events.TurnNotifier;
+import games.stendhal.server.maps.MockStendhalRPRuleProcessor;
+
+/**
+ * Tests for logging game events from the parallel zone logic.
+ */
+public class GameEventLogTest {
+	private static final int THREADS = 8;
+	private static final int EVENTS_PER_THREAD = 1000;
+
+	@After
+	public void tearDown() {
+		SingletonRepository.getTurnNotifier().clearForDebugging();
+	}
+
+	/**
+	 * Tests that events logged from several threads are all kept, and that
+	 * exactly one write is scheduled for them.
+	 *
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	@Test
+	public void testConcurrentLogging() throws InterruptedException {
+		final StendhalRPRuleProcessor processor = MockStendhalRPRuleProcessor.get();
+		processor.drainGameEvents();
+		SingletonRepository.getTurnNotifier().clearForDebugging();
+
+		final CountDownLatch start = new CountDownLatch(1);
+		final List<Thread> threads = new ArrayList<Thread>();
+		for (int i = 0; i < THREADS; i++) {
+			final String source = "thread" + i;
+			final Thread thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+					} catch (final InterruptedException e) {
+						return;
+					}
+					for (int j = 0; j < EVENTS_PER_THREAD; j++) {
+						processor.logGameEvent(source, "test", Integer.toString(j));
+					}
+				}
+			});
+			thread.start();
+			threads.add(thread);
+		}
+		start.countDown();
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(1, countListeners());
+		assertEquals(THREADS * EVENTS_PER_THREAD, processor.drainGameEvents().size());
+		assertTrue(processor.drainGameEvents().isEmpty());
+	}
+
+	/**
+	 * Tests that a write whose turn listener was lost is scheduled again.
+	 */
+	@Test
+	public void testLostFlush() {
+		final StendhalRPRuleProcessor processor = MockStendhalRPRuleProcessor.get();
+		final TurnNotifier notifier = SingletonRepository.getTurnNotifier();
+		processor.drainGameEvents();
+		notifier.clearForDebugging();
+
+		processor.logGameEvent("bob", "test", "1");
+		assertEquals(1, countListeners());
+
+		// the listener is lost, the pending write is not given up right away
+		notifier.clearForDebugging();
+		processor.logGameEvent("bob", "test", "2");
+		assertEquals(0, countListeners());
+
+		notifier.logic(notifier.getCurrentTurnForDebugging() + 1000);
+		processor.logGameEvent("bob", "test", "3");
+		assertEquals(1, countListeners());
+		assertEquals(3, processor.drainGameEvents().size());
+	}
+
+	private static int countListeners() {
+		int listeners = 0;
+		for (final Map.Entry<Integer, Set<TurnListener>> entry : SingletonRepository.getTurnNotifier().getEventListForDebugging().entrySet()) {
+			listeners += entry.getValue().size();
+		}
+		return listeners;
+	}
+}
@@ -0,0 +1,68 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import games.stendhal.server.core.engine.dbcommand.AbstractLogItemEventCommand;
+import games.stendhal.server.core.engine.dbcommand.LogItemEventBatchCommand;
+import marauroa.server.db.DBTransaction;
+
+/**
+ * Tests for ItemLogBuffer.
+ */
+public class ItemLogBufferTest {
+
+	private static class DummyCommand extends AbstractLogItemEventCommand {
+		@Override
+		protected void log(final DBTransaction transaction) {
+			// nothing to log
+		}
+	}
+
+	@After
+	public void tearDown() {
+		SingletonRepository.getTurnNotifier().clearForDebugging();
+	}
+
+	/**
+	 * Tests that events are buffered until the chunk is full.
+	 */
+	@Test
+	public void testBuffering() {
+		final ItemLogBuffer buffer = new ItemLogBuffer(3);
+		final DummyCommand first = new DummyCommand();
+		buffer.add(first);
+		buffer.add(new DummyCommand());
+		assertEquals(2, buffer.getQueueSize());
+		assertNotNull(first.getEnqueueTime());
+
+		final List<LogItemEventBatchCommand> batches = buffer.drain();
+		assertEquals(1, batches.size());
+		assertEquals(2, batches.get(0).size());
+		assertEquals(0, buffer.getQueueSize());
+		assertTrue(buffer.drain().isEmpty());
+
+		// a full chunk is passed on immediately
+		buffer.add(new DummyCommand());
+		buffer.add(new DummyCommand());
+		buffer.add(new DummyCommand());
+		assertEquals(0, buffer.getQueueSize());
+	}
+}
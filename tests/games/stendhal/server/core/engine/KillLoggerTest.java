@@ -0,0 +1,77 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import games.stendhal.server.core.engine.db.StendhalKillLogDAO;
+import games.stendhal.server.core.engine.db.StendhalKillLogDAO.KillKey;
+import games.stendhal.server.entity.creature.Creature;
+import games.stendhal.server.entity.player.Player;
+import games.stendhal.server.maps.MockStendlRPWorld;
+import marauroa.server.game.db.DAORegister;
+import utilities.PlayerTestHelper;
+
+/**
+ * Tests for KillLogger.
+ */
+public class KillLoggerTest {
+
+	@BeforeClass
+	public static void setUpBeforeClass() {
+		MockStendlRPWorld.get();
+		DAORegister.get().register(StendhalKillLogDAO.class, new StendhalKillLogDAO());
+	}
+
+	@AfterClass
+	public static void tearDownAfterClass() {
+		MockStendlRPWorld.reset();
+	}
+
+	/**
+	 * Tests that kills of the same combination are counted together.
+	 */
+	@Test
+	public void testAggregation() {
+		final KillLogger killLogger = KillLogger.get();
+		killLogger.drain();
+
+		final Player player = PlayerTestHelper.createPlayer("bob");
+		final Creature rat = new Creature();
+		rat.setName("rat");
+		final Creature snake = new Creature();
+		snake.setName("snake");
+
+		killLogger.logKill(rat, player);
+		killLogger.logKill(rat, player);
+		killLogger.logKill(snake, player);
+		killLogger.logKill(player, snake);
+
+		final Map<KillKey, Integer> kills = killLogger.drain();
+		assertEquals(3, kills.size());
+		int total = 0;
+		for (final Integer count : kills.values()) {
+			total += count.intValue();
+		}
+		assertEquals(4, total);
+		assertTrue(kills.containsValue(Integer.valueOf(2)));
+
+		assertTrue(killLogger.drain().isEmpty());
+	}
+}
@@ -0,0 +1,61 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * Tests for LoginConfiguration.
+ */
+public class LoginConfigurationTest {
+
+	/**
+	 * Tests that nothing is known before loading.
+	 */
+	@Test
+	public void testInitialState() {
+		final LoginConfiguration configuration = new LoginConfiguration();
+		assertNull(configuration.getWelcomeMessage());
+	}
+
+	/**
+	 * Tests loading the welcome message and the admin list.
+	 */
+	@Test
+	public void testLoad() {
+		final LoginConfiguration configuration = new LoginConfiguration();
+		configuration.loadWelcomeMessage("Welcome");
+		assertEquals("Welcome", configuration.getWelcomeMessage());
+
+		configuration.loadWelcomeMessage(null);
+		assertNull(configuration.getWelcomeMessage());
+
+		// the admin list is read on demand, if needed
+		assertNull(configuration.getAdminLevel("a player that is not an admin"));
+	}
+
+	/**
+	 * Tests that the last message is kept if a download fails.
+	 */
+	@Test
+	public void testFailedLoad() {
+		final LoginConfiguration configuration = new LoginConfiguration();
+		configuration.loadWelcomeMessage("Welcome");
+
+		// nothing listens on port 1
+		configuration.loadWelcomeMessage("http://127.0.0.1:1/welcome.txt");
+		assertEquals("Welcome", configuration.getWelcomeMessage());
+	}
+}
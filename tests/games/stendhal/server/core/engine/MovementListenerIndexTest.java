@@ -0,0 +1,137 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Rectangle;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import games.stendhal.server.core.events.MovementListener;
+import games.stendhal.server.entity.ActiveEntity;
+import games.stendhal.server.entity.player.Player;
+import games.stendhal.server.maps.MockStendlRPWorld;
+import utilities.PlayerTestHelper;
+
+/**
+ * Tests for the dispatching of movement notifications.
+ */
+public class MovementListenerIndexTest {
+
+	@BeforeClass
+	public static void setUpBeforeClass() {
+		MockStendlRPWorld.get();
+	}
+
+	@AfterClass
+	public static void tearDownAfterClass() {
+		MockStendlRPWorld.reset();
+	}
+
+	/**
+	 * Movement listener that records the notifications.
+	 */
+	private static class RecordingListener implements MovementListener {
+		private final String name;
+		private final Rectangle2D area;
+		private final List<String> log;
+
+		RecordingListener(final String name, final Rectangle2D area, final List<String> log) {
+			this.name = name;
+			this.area = area;
+			this.log = log;
+		}
+
+		@Override
+		public Rectangle2D getArea() {
+			return area;
+		}
+
+		@Override
+		public void onEntered(final ActiveEntity entity, final StendhalRPZone zone, final int newX, final int newY) {
+			log.add(name + " entered");
+		}
+
+		@Override
+		public void onExited(final ActiveEntity entity, final StendhalRPZone zone, final int oldX, final int oldY) {
+			log.add(name + " exited");
+		}
+
+		@Override
+		public void beforeMove(final ActiveEntity entity, final StendhalRPZone zone, final int oldX, final int oldY,
+				final int newX, final int newY) {
+			// ignore
+		}
+
+		@Override
+		public void onMoved(final ActiveEntity entity, final StendhalRPZone zone, final int oldX, final int oldY,
+				final int newX, final int newY) {
+			log.add(name + " moved");
+		}
+	}
+
+	/**
+	 * Tests that only listeners near the movement are checked, and that they
+	 * are notified in registration order.
+	 */
+	@Test
+	public void testDispatch() {
+		final StendhalRPZone zone = new StendhalRPZone("listener_test", 64, 64);
+		final Player player = PlayerTestHelper.createPlayer("bob");
+		zone.add(player);
+		final long notifications = zone.getMovementNotificationCount();
+
+		final List<String> log = new ArrayList<String>();
+		zone.addMovementListener(new RecordingListener("whole", new Rectangle(0, 0, 64, 64), log));
+		zone.addMovementListener(new RecordingListener("small", new Rectangle(7, 7, 2, 2), log));
+		zone.addMovementListener(new RecordingListener("far", new Rectangle(50, 50, 4, 4), log));
+
+		zone.notifyMovement(player, 6, 8, 7, 8);
+		assertEquals(Arrays.asList("whole moved", "small entered"), log);
+		log.clear();
+
+		zone.notifyMovement(player, 8, 8, 9, 8);
+		assertEquals(Arrays.asList("whole moved", "small exited"), log);
+
+		// the far listener is never looked at
+		assertEquals(notifications + 2, zone.getMovementNotificationCount());
+		assertEquals(4, zone.getMovementListenerCheckCount());
+	}
+
+	/**
+	 * Tests that listeners that have been removed are not notified.
+	 */
+	@Test
+	public void testRemove() {
+		final StendhalRPZone zone = new StendhalRPZone("listener_test", 64, 64);
+		final List<String> log = new ArrayList<String>();
+		final Player player = PlayerTestHelper.createPlayer("bob");
+		zone.add(player);
+		final RecordingListener listener = new RecordingListener("small", new Rectangle(20, 20, 2, 2), log);
+		zone.addMovementListener(listener);
+
+		zone.notifyEntered(player, 20, 20);
+		assertEquals(Arrays.asList("small entered"), log);
+
+		zone.removeMovementListener(listener);
+		zone.notifyExited(player, 20, 20);
+		assertEquals(1, log.size());
+		assertEquals(1, zone.getMovementListenerCheckCount());
+	}
+}
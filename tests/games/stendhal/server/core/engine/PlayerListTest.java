@@ -1,6 +1,6 @@
 /* $Id$ */
 /***************************************************************************
- *                   (C) Copyright 2003-2010 - Stendhal                    *
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
  ***************************************************************************
  ***************************************************************************
  *                                                                         *
@@ -20,6 +20,10 @@ import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -142,4 +146,72 @@ public class PlayerListTest {
 		assertSame(jack, list.getOnlinePlayer("jAck"));
 	}
 
+	/**
+	 * Tests that only the players listing a buddy are visited.
+	 */
+	@Test
+	public void testForBuddyWatchersExecute() {
+		final PlayerList list = new PlayerList();
+		final Player jack = PlayerTestHelper.createPlayer("jack");
+		final Player bob = PlayerTestHelper.createPlayer("bob");
+		final Player hugo = PlayerTestHelper.createPlayer("hugo");
+		bob.put("buddies", "jack", false);
+		list.add(jack);
+		list.add(bob);
+		list.add(hugo);
+
+		final List<Player> visited = new ArrayList<Player>();
+		final Task<Player> collect = new Task<Player>() {
+			@Override
+			public void execute(final Player player) {
+				visited.add(player);
+			}
+		};
+		list.forBuddyWatchersExecute("Jack", collect);
+		assertEquals(Arrays.asList(bob), visited);
+
+		visited.clear();
+		hugo.put("buddies", "jack", false);
+		list.onBuddyAdded(hugo, "jack");
+		list.onBuddyRemoved(bob, "jack");
+		list.forBuddyWatchersExecute("jack", collect);
+		assertEquals(Arrays.asList(hugo), visited);
+
+		visited.clear();
+		list.remove(hugo);
+		list.forBuddyWatchersExecute("jack", collect);
+		assertTrue(visited.isEmpty());
+	}
+
+	/**
+	 * Tests that removing one case variant of a buddy name, as the buddy
+	 * cleanup does for duplicates, keeps the player watching the other one.
+	 */
+	@Test
+	public void testRemoveCaseDuplicateBuddy() {
+		final PlayerList list = new PlayerList();
+		final Player jack = PlayerTestHelper.createPlayer("jack");
+		jack.put("buddies", "Bob", false);
+		jack.put("buddies", "bob", false);
+		list.add(jack);
+
+		final List<Player> visited = new ArrayList<Player>();
+		final Task<Player> collect = new Task<Player>() {
+			@Override
+			public void execute(final Player player) {
+				visited.add(player);
+			}
+		};
+
+		jack.remove("buddies", "bob");
+		list.onBuddyRemoved(jack, "bob");
+		list.forBuddyWatchersExecute("Bob", collect);
+		assertEquals(Arrays.asList(jack), visited);
+
+		visited.clear();
+		jack.remove("buddies", "Bob");
+		list.onBuddyRemoved(jack, "Bob");
+		list.forBuddyWatchersExecute("Bob", collect);
+		assertTrue(visited.isEmpty());
+	}
 }
@@ -0,0 +1,88 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.Test;
+
+/**
+ * Tests for ResourceStore.
+ */
+public class ResourceStoreTest {
+
+	private static byte[] read(final InputStream in) throws IOException {
+		assertNotNull(in);
+		try {
+			final ByteArrayOutputStream out = new ByteArrayOutputStream();
+			final byte[] buffer = new byte[1024];
+			int count;
+			while ((count = in.read(buffer)) > -1) {
+				out.write(buffer, 0, count);
+			}
+			return out.toByteArray();
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Tests that files are kept in memory within the limits.
+	 *
+	 * @throws IOException in case of an error reading the test files
+	 */
+	@Test
+	public void testOpen() throws IOException {
+		final byte[] admins = read(ResourceStoreTest.class.getClassLoader().getResourceAsStream("data/conf/admins.txt"));
+		final byte[] readme = read(ResourceStoreTest.class.getClassLoader().getResourceAsStream("data/conf/README"));
+
+		final ResourceStore store = new ResourceStore(100000, admins.length + readme.length);
+		assertNull(store.open("data/conf/does-not-exist.txt"));
+
+		assertArrayEquals(admins, read(store.open("data/conf/admins.txt")));
+		assertArrayEquals(readme, read(store.open("data/conf/README")));
+		assertEquals(2, store.size());
+		assertArrayEquals(admins, read(store.open("data/conf/admins.txt")));
+		assertEquals(admins.length + readme.length, store.getTotalSize());
+
+		// the least recently used file is dropped
+		final byte[] items = read(store.open("data/conf/items.xml"));
+		assertTrue(items.length > 0);
+		assertTrue(store.getTotalSize() <= admins.length + readme.length);
+
+		// large files are not kept
+		final ResourceStore small = new ResourceStore(10, 100000);
+		assertArrayEquals(readme, read(small.open("data/conf/README")));
+		assertEquals(0, small.size());
+	}
+
+	/**
+	 * Tests the content types.
+	 */
+	@Test
+	public void testGetMimeType() {
+		assertEquals("text/xml", ResourceStore.getMimeType("/tiled/Level 0/semos/city.tmx"));
+		assertEquals("image/png", ResourceStore.getMimeType("/tileset/ground/grass.PNG"));
+		assertEquals("audio/ogg", ResourceStore.getMimeType("/data/sounds/bell-1.ogg"));
+		assertEquals("application/json", ResourceStore.getMimeType("/data/conf/outfits.json"));
+		assertNull(ResourceStore.getMimeType("/data/conf.d/README"));
+		assertNull(ResourceStore.getMimeType("/data/file.unknown"));
+	}
+}
@@ -0,0 +1,88 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import games.stendhal.server.entity.creature.Creature;
+import games.stendhal.server.entity.mapstuff.spawner.CreatureRespawnPoint;
+import games.stendhal.server.entity.player.Player;
+import games.stendhal.server.maps.MockStendlRPWorld;
+import utilities.PlayerTestHelper;
+
+/**
+ * Tests for suspending the logic of empty zones.
+ */
+public class ZoneDormancyTest {
+
+	@BeforeClass
+	public static void setUpBeforeClass() {
+		MockStendlRPWorld.get();
+	}
+
+	@AfterClass
+	public static void tearDownAfterClass() {
+		MockStendlRPWorld.reset();
+	}
+
+	/**
+	 * Tests that empty zones become dormant, and wake up when a player
+	 * enters.
+	 */
+	@Test
+	public void testDormancy() {
+		final StendhalRPZone zone = new StendhalRPZone("dormancy_test", 20, 20);
+		assertFalse(zone.updateDormancy(StendhalRPZone.DORMANCY_TURNS - 1));
+		assertFalse(zone.isDormant());
+		assertTrue(zone.updateDormancy(StendhalRPZone.DORMANCY_TURNS));
+		assertTrue(zone.isDormant());
+
+		final Player player = PlayerTestHelper.createPlayer("bob");
+		zone.add(player);
+		assertFalse(zone.isDormant());
+		assertFalse(zone.updateDormancy(3 * StendhalRPZone.DORMANCY_TURNS));
+
+		// the zone stays active for a while after the player has left
+		zone.remove(player);
+		assertFalse(zone.updateDormancy(4 * StendhalRPZone.DORMANCY_TURNS - 1));
+		assertTrue(zone.updateDormancy(4 * StendhalRPZone.DORMANCY_TURNS));
+	}
+
+	/**
+	 * Tests that respawning in a dormant zone waits until a player enters.
+	 */
+	@Test
+	public void testPostponedRespawn() {
+		final StendhalRPZone zone = new StendhalRPZone("dormancy_respawn_test", 20, 20);
+		final Creature rat = SingletonRepository.getEntityManager().getCreature("rat");
+		final CreatureRespawnPoint point = new CreatureRespawnPoint(zone, 5, 5, rat, 3);
+		zone.add(point);
+
+		final int turn = StendhalRPZone.DORMANCY_TURNS;
+		assertTrue(zone.updateDormancy(turn));
+		point.onTurnReached(turn);
+		assertEquals(0, point.size());
+
+		zone.add(PlayerTestHelper.createPlayer("bob"));
+		assertEquals(1, point.size());
+
+		// an active zone spawns at once
+		point.onTurnReached(turn);
+		assertEquals(2, point.size());
+	}
+}
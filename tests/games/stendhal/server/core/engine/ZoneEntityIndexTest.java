@@ -0,0 +1,160 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import games.stendhal.server.entity.Blood;
+import games.stendhal.server.entity.Entity;
+import games.stendhal.server.entity.RPEntity;
+import games.stendhal.server.entity.mapstuff.area.WalkBlocker;
+import games.stendhal.server.entity.player.Player;
+import games.stendhal.server.maps.MockStendlRPWorld;
+import utilities.PlayerTestHelper;
+
+/**
+ * Tests for the spatial entity index of StendhalRPZone.
+ */
+public class ZoneEntityIndexTest {
+
+	@BeforeClass
+	public static void setUpBeforeClass() {
+		MockStendlRPWorld.get();
+	}
+
+	@AfterClass
+	public static void tearDownAfterClass() {
+		MockStendlRPWorld.reset();
+	}
+
+	/**
+	 * Tests that lookups follow entities that move across cells.
+	 */
+	@Test
+	public void testMovingEntity() {
+		final StendhalRPZone zone = new StendhalRPZone("index_test", 40, 40);
+		final Blood blood = new Blood();
+		blood.setPosition(3, 3);
+		zone.add(blood);
+
+		assertSame(blood, zone.getEntityAt(3.5, 3.5));
+		assertEquals(1, zone.getEntitiesAt(3.5, 3.5, Blood.class).size());
+
+		blood.setPosition(30, 20);
+		assertNull(zone.getEntityAt(3.5, 3.5));
+		assertSame(blood, zone.getEntityAt(30.5, 20.5));
+
+		zone.remove(blood);
+		assertNull(zone.getEntityAt(30.5, 20.5));
+		assertTrue(zone.getEntitiesAt(30.5, 20.5).isEmpty());
+	}
+
+	/**
+	 * Tests collision checks against entities spanning several cells.
+	 */
+	@Test
+	public void testCollisionAcrossCells() {
+		final StendhalRPZone zone = new StendhalRPZone("index_test", 40, 40);
+		final WalkBlocker blocker = new WalkBlocker();
+		blocker.setPosition(7, 7);
+		blocker.setSize(3, 3);
+		zone.add(blocker);
+
+		final Player player = PlayerTestHelper.createPlayer("bob");
+		zone.add(player);
+		player.setPosition(0, 0);
+
+		assertTrue(zone.collides(player, 9, 9));
+		assertTrue(zone.collides(player, 7, 9));
+		assertFalse(zone.collides(player, 10, 10));
+		assertFalse(zone.collides(player, 20, 20));
+
+		// entities outside of the zone bounds are kept in the border cells
+		blocker.setPosition(45, 45);
+		assertFalse(zone.collides(player, 9, 9));
+		assertSame(blocker, zone.getEntityAt(46, 46));
+	}
+
+	/**
+	 * Tests the typed lookups.
+	 */
+	@Test
+	public void testTypedLookups() {
+		final StendhalRPZone zone = new StendhalRPZone("index_test", 20, 20);
+		assertFalse(zone.containsPlayer());
+
+		final Player player = PlayerTestHelper.createPlayer("alice");
+		zone.add(player);
+		zone.add(new Blood());
+
+		assertTrue(zone.containsPlayer());
+		assertFalse(zone.containsCreature());
+		assertEquals(1, zone.getEntitiesOfClass(Player.class).size());
+		assertEquals(2, zone.getEntitiesOfClass(Entity.class).size());
+		assertEquals(0, zone.getEntitiesOfClass(Entity.class, false).size());
+
+		zone.remove(player);
+		assertFalse(zone.containsPlayer());
+	}
+
+	/**
+	 * Tests finding the players and friends near an entity, nearest first.
+	 */
+	@Test
+	public void testPlayerAndFriendsNear() {
+		final StendhalRPZone zone = new StendhalRPZone("index_test", 40, 40);
+		final Blood center = new Blood();
+		center.setPosition(20, 20);
+		zone.add(center);
+
+		final Player far = PlayerTestHelper.createPlayer("far");
+		far.setPosition(20, 28);
+		zone.add(far);
+		final Player near = PlayerTestHelper.createPlayer("near");
+		near.setPosition(23, 20);
+		zone.add(near);
+		final Player outside = PlayerTestHelper.createPlayer("outside");
+		outside.setPosition(2, 2);
+		zone.add(outside);
+
+		final List<RPEntity> result = new ArrayList<RPEntity>();
+		result.add(outside);
+		zone.getPlayerAndFriendsNear(center, 10, result);
+		assertEquals(2, result.size());
+		assertSame(near, result.get(0));
+		assertSame(far, result.get(1));
+
+		// moved entities are found at their new position
+		far.setPosition(21, 21);
+		zone.getPlayerAndFriendsNear(center, 10, result);
+		assertEquals(2, result.size());
+		assertSame(far, result.get(0));
+
+		zone.remove(far);
+		zone.getPlayerAndFriendsNear(center, 1, result);
+		assertTrue(result.isEmpty());
+		zone.getPlayerAndFriendsNear(center, 30, result);
+		assertEquals(2, result.size());
+		assertSame(outside, result.get(1));
+	}
+}
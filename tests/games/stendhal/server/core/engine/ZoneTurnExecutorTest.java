@@ -0,0 +1,165 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import games.stendhal.common.Direction;
+import games.stendhal.server.entity.player.Player;
+import games.stendhal.server.maps.MockStendlRPWorld;
+import utilities.PlayerTestHelper;
+
+/**
+ * Tests for the parallel zone logic execution.
+ */
+public class ZoneTurnExecutorTest {
+
+	@BeforeClass
+	public static void setUpBeforeClass() {
+		MockStendlRPWorld.get();
+	}
+
+	@AfterClass
+	public static void tearDownAfterClass() {
+		MockStendlRPWorld.reset();
+	}
+
+	private static List<StendhalRPZone> createZones(final int count) {
+		final List<StendhalRPZone> zones = new ArrayList<StendhalRPZone>();
+		for (int i = 0; i < count; i++) {
+			zones.add(new StendhalRPZone("zone" + i));
+		}
+		return zones;
+	}
+
+	/**
+	 * Tests that deferred actions are executed after all zones, in the same
+	 * order for every run.
+	 */
+	@Test
+	public void testDeferredOrder() {
+		final List<StendhalRPZone> zones = createZones(20);
+		final ZoneTurnExecutor executor = new ZoneTurnExecutor(4);
+
+		List<String> previous = null;
+		for (int run = 0; run < 5; run++) {
+			final List<String> visited = Collections.synchronizedList(new ArrayList<String>());
+			final List<String> merged = new ArrayList<String>();
+			executor.execute(zones, new Task<StendhalRPZone>() {
+				@Override
+				public void execute(final StendhalRPZone zone) {
+					assertTrue(ZoneTurnExecutor.isDeferring());
+					visited.add(zone.getName());
+					ZoneTurnExecutor.runOrDefer(new Runnable() {
+						@Override
+						public void run() {
+							// all zones are done before the merge
+							assertEquals(20, visited.size());
+							assertFalse(ZoneTurnExecutor.isDeferring());
+							merged.add(zone.getName());
+						}
+					});
+				}
+			});
+
+			assertEquals(20, merged.size());
+			if (previous != null) {
+				assertEquals(previous, merged);
+			}
+			previous = merged;
+		}
+	}
+
+	/**
+	 * Tests that a teleport to another zone from the parallel zone logic,
+	 * including its result and feedback, is done after the phase.
+	 */
+	@Test
+	public void testDeferredTeleport() {
+		final StendhalRPZone from = new StendhalRPZone("teleport_from", 10, 10);
+		final StendhalRPZone to = new StendhalRPZone("teleport_to", 10, 10);
+		// no position in the zone is free
+		final StendhalRPZone full = new StendhalRPZone("teleport_full", 0, 0);
+		final Player player = PlayerTestHelper.createPlayer("bob");
+		from.add(player);
+		player.setPosition(1, 1);
+		player.setDirection(Direction.DOWN);
+
+		final ZoneTurnExecutor executor = new ZoneTurnExecutor(2);
+		executor.execute(Collections.singletonList(from), new Task<StendhalRPZone>() {
+			@Override
+			public void execute(final StendhalRPZone zone) {
+				assertTrue(player.teleport(to, 5, 5, Direction.UP, null));
+				// nothing happens before the end of the phase
+				assertSame(from, player.getZone());
+				assertEquals(Direction.DOWN, player.getDirection());
+			}
+		});
+		assertSame(to, player.getZone());
+		assertEquals(5, player.getX());
+		assertEquals(Direction.UP, player.getDirection());
+
+		executor.execute(Collections.singletonList(to), new Task<StendhalRPZone>() {
+			@Override
+			public void execute(final StendhalRPZone zone) {
+				player.teleport(full, 5, 5, Direction.LEFT, null);
+			}
+		});
+		assertSame(to, player.getZone());
+		assertEquals(Direction.UP, player.getDirection());
+		assertEquals("Position [5,5] is occupied", PlayerTestHelper.getPrivateReply(player));
+	}
+
+	/**
+	 * Tests that actions outside of a parallel phase run immediately.
+	 */
+	@Test
+	public void testRunImmediately() {
+		final List<String> log = new ArrayList<String>();
+		ZoneTurnExecutor.runOrDefer(new Runnable() {
+			@Override
+			public void run() {
+				log.add("run");
+			}
+		});
+		assertEquals(1, log.size());
+	}
+
+	/**
+	 * Tests that every zone ends up in exactly one work unit.
+	 */
+	@Test
+	public void testPartition() {
+		final List<StendhalRPZone> zones = createZones(10);
+		final List<List<StendhalRPZone>> units = ZoneTurnExecutor.partition(zones, 4);
+		assertEquals(4, units.size());
+		final List<StendhalRPZone> all = new ArrayList<StendhalRPZone>();
+		for (final List<StendhalRPZone> unit : units) {
+			all.addAll(unit);
+		}
+		assertEquals(10, all.size());
+		assertTrue(all.containsAll(zones));
+
+		assertEquals(1, ZoneTurnExecutor.partition(createZones(1), 4).size());
+	}
+}
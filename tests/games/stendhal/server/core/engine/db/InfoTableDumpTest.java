@@ -0,0 +1,130 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import marauroa.common.Log4J;
+import marauroa.server.db.DBTransaction;
+import marauroa.server.db.TransactionPool;
+import marauroa.server.game.db.DatabaseFactory;
+
+/**
+ * Tests for InfoTableDump.
+ */
+public class InfoTableDumpTest {
+	private static final String[] COLUMNS = { "class", "atk", "description" };
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		Log4J.init();
+		new DatabaseFactory().initializeDatabase();
+	}
+
+	/**
+	 * Tests that the content hash changes exactly when the content does.
+	 */
+	@Test
+	public void testHash() {
+		final String hash = InfoTableDump.hash(COLUMNS, new Object[] { "sword", 10, "a sword" }, null);
+		assertEquals(64, hash.length());
+		assertEquals(hash, InfoTableDump.hash(COLUMNS, new Object[] { "sword", Integer.valueOf(10), "a sword" }, null));
+
+		assertNotEquals(hash, InfoTableDump.hash(COLUMNS, new Object[] { "sword", 11, "a sword" }, null));
+		assertNotEquals(hash, InfoTableDump.hash(COLUMNS, new Object[] { "sword", 10, "a sword" }, "details"));
+		assertNotEquals(hash, InfoTableDump.hash(new String[] { "class", "def", "description" },
+				new Object[] { "sword", 10, "a sword" }, null));
+
+		// missing values differ from any text
+		assertNotEquals(InfoTableDump.hash(COLUMNS, new Object[] { "sword", 10, null }, null),
+				InfoTableDump.hash(COLUMNS, new Object[] { "sword", 10, "null" }, null));
+		assertNotEquals(InfoTableDump.hash(COLUMNS, new Object[] { "sword", 10, null }, null),
+				InfoTableDump.hash(COLUMNS, new Object[] { "sword", 10, "" }, null));
+	}
+
+	/**
+	 * Tests which rows two dumps into a table write, deactivate and leave alone.
+	 *
+	 * @throws SQLException in case of an database error
+	 */
+	@Test
+	public void testWrite() throws SQLException {
+		final DBTransaction transaction = TransactionPool.get().beginWork();
+		try {
+			transaction.execute("DELETE FROM shopinfo", null);
+
+			InfoTableDump dump = new InfoTableDump("shopinfo", "shop_type");
+			dump.add("sword", new Object[] { "sell" });
+			dump.add("axe", new Object[] { "sell" });
+			dump.add("shield", new Object[] { "buy" });
+			dump.add("bow", new Object[] { "buy" });
+			assertEquals(new HashSet<String>(Arrays.asList("sword", "axe", "shield", "bow")), dump.write(transaction));
+			assertEquals(4, transaction.querySingleCellInt("SELECT count(*) FROM shopinfo WHERE active=1", null));
+
+			// an unchanged row is not written, so the changed type stays
+			transaction.execute("UPDATE shopinfo SET shop_type='unchanged' WHERE name='sword'", null);
+			// an inactive row and a duplicate with different content
+			transaction.execute("INSERT INTO shopinfo (name, shop_type, content_hash, active) VALUES ('club', 'trade', 'old', 0)", null);
+			transaction.execute("INSERT INTO shopinfo (name, shop_type, content_hash, active) VALUES ('axe', 'trade', 'other', 1)", null);
+
+			dump = new InfoTableDump("shopinfo", "shop_type");
+			dump.add("sword", new Object[] { "sell" });
+			dump.add("axe", new Object[] { "sell" });
+			dump.add("shield", new Object[] { "sell" });
+			dump.add("club", new Object[] { "trade" });
+			dump.add("dagger", new Object[] { "sell" });
+			assertEquals(new HashSet<String>(Arrays.asList("axe", "shield", "club", "dagger", "bow")), dump.write(transaction));
+
+			assertEquals("unchanged", getShopType(transaction, "sword"));
+			assertEquals("sell", getShopType(transaction, "shield"));
+			assertEquals(2, transaction.querySingleCellInt("SELECT count(*) FROM shopinfo WHERE name='axe' AND shop_type='sell' AND active=1", null));
+			assertEquals(1, getActive(transaction, "club"));
+			assertEquals(1, getActive(transaction, "dagger"));
+			assertEquals(0, getActive(transaction, "bow"));
+
+			// a third dump of the same content writes nothing
+			assertTrue(dump.write(transaction).isEmpty());
+		} finally {
+			TransactionPool.get().rollback(transaction);
+		}
+	}
+
+	private static int getActive(final DBTransaction transaction, final String name) throws SQLException {
+		final Map<String, Object> params = new HashMap<String, Object>();
+		params.put("name", name);
+		return transaction.querySingleCellInt("SELECT active FROM shopinfo WHERE name='[name]'", params);
+	}
+
+	private static String getShopType(final DBTransaction transaction, final String name) throws SQLException {
+		final Map<String, Object> params = new HashMap<String, Object>();
+		params.put("name", name);
+		final ResultSet resultSet = transaction.query("SELECT shop_type FROM shopinfo WHERE name='[name]'", params);
+		try {
+			resultSet.next();
+			return resultSet.getString(1);
+		} finally {
+			resultSet.close();
+		}
+	}
+}
@@ -0,0 +1,120 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.engine.db;
+
+import static org.junit.Assert.assertEquals;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import games.stendhal.server.core.config.ShopGroupsXMLLoader.MerchantConfigurator;
+import games.stendhal.server.entity.npc.shop.ItemShopInventory;
+import games.stendhal.server.entity.npc.shop.ShopInventory;
+import games.stendhal.server.entity.npc.shop.ShopType;
+import marauroa.common.Log4J;
+import marauroa.server.db.DBTransaction;
+import marauroa.server.db.TransactionPool;
+import marauroa.server.game.db.DAORegister;
+import marauroa.server.game.db.DatabaseFactory;
+
+/**
+ * Tests for StendhalShopDAO.
+ */
+public class StendhalShopDAOTest {
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		Log4J.init();
+		new DatabaseFactory().initializeDatabase();
+	}
+
+	private static ItemShopInventory createShop(final String name, final String item, final int price) {
+		final ItemShopInventory shop = new ItemShopInventory(ShopType.ITEM_SELL, name);
+		shop.put(item, price);
+		final MerchantConfigurator merchant = new MerchantConfigurator();
+		merchant.npc = "shopdumpnpc";
+		shop.addMerchantConfigurator(merchant);
+		return shop;
+	}
+
+	/**
+	 * Tests that the inventory and owners are only rewritten for the shops
+	 * that changed.
+	 *
+	 * @throws SQLException in case of an database error
+	 */
+	@Test
+	public void testDump() throws SQLException {
+		final StendhalShopDAO dao = DAORegister.get().get(StendhalShopDAO.class);
+		final DBTransaction transaction = TransactionPool.get().beginWork();
+		try {
+			transaction.execute("DELETE FROM shopinfo", null);
+			transaction.execute("DELETE FROM shopinventoryinfo", null);
+			transaction.execute("DELETE FROM shopownerinfo", null);
+			transaction.execute("INSERT INTO npcs (active, name) VALUES (1, 'shopdumpnpc')", null);
+
+			final List<ShopInventory<?, ?>> shops = new ArrayList<ShopInventory<?, ?>>();
+			shops.add(createShop("shopdump_a", "sword", 10));
+			shops.add(createShop("shopdump_b", "axe", 20));
+			dao.dump(transaction, shops);
+			assertEquals(10, getPrice(transaction, "shopdump_a"));
+			assertEquals(20, getPrice(transaction, "shopdump_b"));
+			assertEquals(1, countOwners(transaction, "shopdump_a"));
+			assertEquals(1, countOwners(transaction, "shopdump_b"));
+
+			// rows of unchanged shops are left alone
+			transaction.execute("UPDATE shopinventoryinfo SET price=99 WHERE name='axe'", null);
+			shops.set(0, createShop("shopdump_a", "sword", 15));
+			dao.dump(transaction, shops);
+			assertEquals(15, getPrice(transaction, "shopdump_a"));
+			assertEquals(1, countOwners(transaction, "shopdump_a"));
+			assertEquals(99, getPrice(transaction, "shopdump_b"));
+
+			// the rows of a removed shop are deleted
+			shops.remove(1);
+			dao.dump(transaction, shops);
+			assertEquals(0, transaction.querySingleCellInt("SELECT active FROM shopinfo WHERE name='shopdump_b'", null));
+			assertEquals(0, countRows(transaction, "shopinventoryinfo", "shopdump_b"));
+			assertEquals(0, countOwners(transaction, "shopdump_b"));
+			assertEquals(15, getPrice(transaction, "shopdump_a"));
+		} finally {
+			TransactionPool.get().rollback(transaction);
+		}
+	}
+
+	private static Map<String, Object> shopParams(final String shop) {
+		final Map<String, Object> params = new HashMap<String, Object>();
+		params.put("shop", shop);
+		return params;
+	}
+
+	private static int getPrice(final DBTransaction transaction, final String shop) throws SQLException {
+		assertEquals(1, countRows(transaction, "shopinventoryinfo", shop));
+		return transaction.querySingleCellInt("SELECT i.price FROM shopinventoryinfo i JOIN shopinfo s ON i.shopinfo_id=s.id "
+				+ "WHERE s.name='[shop]'", shopParams(shop));
+	}
+
+	private static int countOwners(final DBTransaction transaction, final String shop) throws SQLException {
+		return countRows(transaction, "shopownerinfo", shop);
+	}
+
+	private static int countRows(final DBTransaction transaction, final String table, final String shop) throws SQLException {
+		return transaction.querySingleCellInt("SELECT count(*) FROM " + table + " t JOIN shopinfo s ON t.shopinfo_id=s.id "
+				+ "WHERE s.name='[shop]'", shopParams(shop));
+	}
+}
@@ -0,0 +1,131 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.events;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for TurnNotifier.
+ */
+public class TurnNotifierTest {
+
+	private final List<String> notified = new ArrayList<String>();
+
+	private TurnNotifier turnNotifier;
+
+	private int turn;
+
+	private final class RecordingListener implements TurnListener {
+		private final String name;
+
+		RecordingListener(final String name) {
+			this.name = name;
+		}
+
+		@Override
+		public void onTurnReached(final int currentTurn) {
+			notified.add(name + "@" + currentTurn);
+		}
+	}
+
+	@Before
+	public void setUp() {
+		turnNotifier = TurnNotifier.get();
+		turnNotifier.clearForDebugging();
+		turn = Math.max(turnNotifier.getCurrentTurnForDebugging(), 0);
+		turnNotifier.logic(turn);
+	}
+
+	@After
+	public void tearDown() {
+		turnNotifier.clearForDebugging();
+	}
+
+	private void advance(final int turns) {
+		for (int i = 0; i < turns; i++) {
+			turn++;
+			turnNotifier.logic(turn);
+		}
+	}
+
+	/**
+	 * Tests that listeners are notified in registration order.
+	 */
+	@Test
+	public void testOrderWithinTurn() {
+		final TurnListener a = new RecordingListener("a");
+		final TurnListener b = new RecordingListener("b");
+		final TurnListener c = new RecordingListener("c");
+		turnNotifier.notifyInTurns(1, b);
+		turnNotifier.notifyInTurns(1, a);
+		turnNotifier.notifyInTurns(1, c);
+		turnNotifier.notifyInTurns(1, b);
+
+		advance(1);
+		assertTrue(notified.isEmpty());
+		advance(1);
+		assertEquals(Arrays.asList("b@" + turn, "a@" + turn, "c@" + turn), notified);
+	}
+
+	/**
+	 * Tests notifications far enough in the future to use the upper levels.
+	 */
+	@Test
+	public void testDistantTurns() {
+		final TurnListener a = new RecordingListener("a");
+		final TurnListener b = new RecordingListener("b");
+		turnNotifier.notifyInTurns(70000, a);
+		turnNotifier.notifyInTurns(300, b);
+		assertEquals(70001, turnNotifier.getRemainingTurns(a));
+		assertEquals(301, turnNotifier.getRemainingTurns(b));
+
+		advance(301);
+		assertEquals(Arrays.asList("b@" + turn), notified);
+		assertEquals(-1, turnNotifier.getRemainingTurns(b));
+		assertEquals(69700, turnNotifier.getRemainingTurns(a));
+
+		advance(69700);
+		assertEquals(Arrays.asList("b@" + (turn - 69700), "a@" + turn), notified);
+		assertTrue(turnNotifier.getEventListForDebugging().isEmpty());
+	}
+
+	/**
+	 * Tests cancellation of a listener registered for several turns.
+	 */
+	@Test
+	public void testDontNotify() {
+		final TurnListener a = new RecordingListener("a");
+		final TurnListener b = new RecordingListener("b");
+		turnNotifier.notifyInTurns(5, a);
+		turnNotifier.notifyInTurns(2, a);
+		turnNotifier.notifyInTurns(1000, a);
+		turnNotifier.notifyInTurns(5, b);
+		assertEquals(3, turnNotifier.getRemainingTurns(a));
+		assertEquals(3, turnNotifier.getEventListForDebugging().size());
+
+		turnNotifier.dontNotify(a);
+		assertEquals(-1, turnNotifier.getRemainingTurns(a));
+		assertEquals(6, turnNotifier.getRemainingTurns(b));
+
+		advance(1001);
+		assertEquals(Arrays.asList("b@" + (turn - 995)), notified);
+	}
+}
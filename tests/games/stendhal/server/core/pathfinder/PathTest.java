@@ -13,7 +13,9 @@
 package games.stendhal.server.core.pathfinder;
 
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 
+import java.awt.Rectangle;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -74,4 +76,23 @@ public class PathTest {
 
 		assertArrayEquals(expected.toArray(), Path.searchPath(zone, 0, 0, 6, 6, 20).toArray());
 	}
+
+	/**
+	 * Test the compact path representation.
+	 */
+	@Test
+	public void testPathCoordinates() {
+		final StendhalRPZone zone = new StendhalRPZone("test", 10, 10);
+		final int[] path = new SimplePathfinder(zone, 0, 0, new Rectangle(6, 6, 1, 1), 20).getPathCoordinates();
+
+		assertEquals(2 * expected.size(), path.length);
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).getX(), path[2 * i]);
+			assertEquals(expected.get(i).getY(), path[2 * i + 1]);
+		}
+
+		// blocked destination
+		zone.collisionMap.setCollide(6, 6);
+		assertEquals(0, new SimplePathfinder(zone, 0, 0, new Rectangle(6, 6, 1, 1), 20).getPathCoordinates().length);
+	}
 }
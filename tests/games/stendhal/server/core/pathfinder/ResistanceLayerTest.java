@@ -0,0 +1,147 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.pathfinder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import games.stendhal.server.core.engine.StendhalRPZone;
+import games.stendhal.server.entity.mapstuff.area.WalkBlocker;
+import games.stendhal.server.entity.player.Player;
+import games.stendhal.server.maps.MockStendlRPWorld;
+import utilities.PlayerTestHelper;
+
+/**
+ * Tests for the zone resistance layer.
+ */
+public class ResistanceLayerTest {
+
+	@BeforeClass
+	public static void setUpBeforeClass() {
+		MockStendlRPWorld.get();
+	}
+
+	@AfterClass
+	public static void tearDownAfterClass() {
+		MockStendlRPWorld.reset();
+	}
+
+	/**
+	 * Tests that the layer follows entities that are added, moved and removed.
+	 */
+	@Test
+	public void testStoppedEntities() {
+		final StendhalRPZone zone = new StendhalRPZone("resistance_test", 20, 20);
+		final WalkBlocker blocker = new WalkBlocker();
+		blocker.setPosition(3, 3);
+		blocker.setSize(2, 1);
+		zone.add(blocker);
+
+		final ResistanceLayer layer = zone.getResistanceLayer();
+		assertEquals(100, layer.getResistance(3, 3, 100, null));
+		assertEquals(100, layer.getResistance(4, 3, 100, null));
+		assertEquals(0, layer.getResistance(5, 3, 100, null));
+
+		blocker.setPosition(10, 10);
+		assertEquals(0, layer.getResistance(3, 3, 100, null));
+		assertEquals(100, layer.getResistance(10, 10, 100, null));
+
+		blocker.setResistance(50);
+		assertEquals(50, layer.getResistance(10, 10, 100, null));
+		assertEquals(25, layer.getResistance(10, 10, 50, null));
+
+		zone.remove(blocker);
+		assertEquals(0, layer.getResistance(10, 10, 100, null));
+	}
+
+	/**
+	 * Tests that attributes changed before an update() reach the layer.
+	 */
+	@Test
+	public void testUpdatedAttributes() {
+		final StendhalRPZone zone = new StendhalRPZone("resistance_test", 20, 20);
+		final WalkBlocker blocker = new WalkBlocker();
+		blocker.setPosition(3, 3);
+		zone.add(blocker);
+
+		final ResistanceLayer layer = zone.getResistanceLayer();
+		assertEquals(100, layer.getResistance(3, 3, 100, null));
+
+		blocker.put("resistance", 40);
+		blocker.update();
+		assertEquals(40, layer.getResistance(3, 3, 100, null));
+
+		blocker.put("width", 2);
+		blocker.update();
+		assertEquals(40, layer.getResistance(4, 3, 100, null));
+
+		blocker.put("resistance", 0);
+		blocker.update();
+		assertEquals(0, layer.getResistance(3, 3, 100, null));
+		assertEquals(0, layer.getResistance(4, 3, 100, null));
+	}
+
+	/**
+	 * Tests that moving entities are not part of the layer, and that the
+	 * path finder still avoids them near the start position.
+	 */
+	@Test
+	public void testMovingEntities() {
+		final StendhalRPZone zone = new StendhalRPZone("resistance_test", 20, 20);
+		final Player player = PlayerTestHelper.createPlayer("bob");
+		zone.add(player);
+		player.setPosition(5, 5);
+
+		final ResistanceLayer layer = zone.getResistanceLayer();
+		assertEquals(100, layer.getResistance(5, 5, 100, null));
+
+		player.setSpeed(1.0);
+		assertEquals(0, layer.getResistance(5, 5, 100, null));
+		assertTrue(layer.getMovingEntities().contains(player));
+
+		player.stop();
+		assertEquals(100, layer.getResistance(5, 5, 100, null));
+		assertFalse(layer.getMovingEntities().contains(player));
+
+		player.setGhost(true);
+		assertEquals(0, layer.getResistance(5, 5, 100, null));
+		player.setGhost(false);
+		assertEquals(100, layer.getResistance(5, 5, 100, null));
+	}
+
+	/**
+	 * Tests combining several partially resistant entities.
+	 */
+	@Test
+	public void testCombinedResistance() {
+		final StendhalRPZone zone = new StendhalRPZone("resistance_test", 20, 20);
+		final WalkBlocker first = new WalkBlocker();
+		first.setResistance(50);
+		first.setPosition(2, 2);
+		zone.add(first);
+		final WalkBlocker second = new WalkBlocker();
+		second.setResistance(50);
+		second.setPosition(2, 2);
+		zone.add(second);
+
+		final ResistanceLayer layer = zone.getResistanceLayer();
+		assertEquals(75, layer.getResistance(2, 2, 100, null));
+
+		zone.remove(first);
+		assertEquals(50, layer.getResistance(2, 2, 100, null));
+	}
+}
@@ -0,0 +1,83 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.rp.achievement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import games.stendhal.server.entity.npc.ChatCondition;
+import games.stendhal.server.entity.npc.condition.AndCondition;
+import games.stendhal.server.entity.npc.condition.LevelGreaterThanCondition;
+import games.stendhal.server.entity.npc.condition.PlayerHasKilledNumberOfCreaturesCondition;
+import games.stendhal.server.entity.npc.condition.QuestCompletedCondition;
+import games.stendhal.server.entity.npc.condition.QuestStateGreaterThanCondition;
+
+/**
+ * Tests for selecting the achievements to check.
+ */
+public class AchievementIndexTest {
+
+	private static Achievement create(final String identifier, final ChatCondition condition) {
+		return new Achievement(identifier, identifier, Category.QUEST, identifier, Achievement.EASY_BASE_SCORE, true, condition);
+	}
+
+	/**
+	 * Tests that only achievements that can be affected by an event are
+	 * selected.
+	 */
+	@Test
+	public void testSelection() {
+		final Achievement quest = create("quest", new QuestCompletedCondition("quest_a"));
+		final Achievement quests = create("quests", new AndCondition(new QuestCompletedCondition("quest_a"),
+				new QuestStateGreaterThanCondition("quest_b", 1, 5)));
+		final Achievement kill = create("kill", new PlayerHasKilledNumberOfCreaturesCondition("rat", 10));
+		final Achievement level = create("level", new LevelGreaterThanCondition(10));
+		final Achievement yearly = create("yearly", new QuestCompletedCondition("event_[year]"));
+
+		final AchievementIndex index = new AchievementIndex();
+		index.add(quest);
+		index.add(quests);
+		index.add(kill);
+		index.add(level);
+		index.add(yearly);
+		assertEquals(5, index.getAll().size());
+
+		List<Achievement> selected = new ArrayList<Achievement>();
+		index.collectForQuestSlot("quest_b", selected);
+		assertTrue(selected.contains(quests));
+		assertTrue(selected.contains(kill));
+		assertTrue(selected.contains(level));
+		assertTrue(selected.contains(yearly));
+		assertFalse(selected.contains(quest));
+
+		selected = new ArrayList<Achievement>();
+		index.collectForQuestSlot("quest_a", selected);
+		assertTrue(selected.contains(quest));
+		assertTrue(selected.contains(quests));
+
+		selected = new ArrayList<Achievement>();
+		index.collectForKill("deer", selected);
+		assertFalse(selected.contains(kill));
+		assertTrue(selected.contains(quest));
+		assertTrue(selected.contains(level));
+
+		selected = new ArrayList<Achievement>();
+		index.collectForKill("rat", selected);
+		assertTrue(selected.contains(kill));
+	}
+}
@@ -0,0 +1,89 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.core.rule.defaultruleset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import games.stendhal.server.entity.item.Item;
+import games.stendhal.server.entity.item.StackableItem;
+import games.stendhal.server.maps.MockStendlRPWorld;
+
+/**
+ * Tests for creating items from their definition.
+ */
+public class DefaultItemTest {
+
+	@BeforeClass
+	public static void setUpBeforeClass() {
+		MockStendlRPWorld.get();
+	}
+
+	@AfterClass
+	public static void tearDownAfterClass() {
+		MockStendlRPWorld.reset();
+	}
+
+	/**
+	 * Tests that every created item is a new instance with the configured
+	 * attributes.
+	 */
+	@Test
+	public void testGetItem() {
+		final DefaultItem defaultItem = new DefaultItem("misc", "stone", "test stone", -1);
+		defaultItem.setImplementation(StackableItem.class);
+		defaultItem.setEquipableSlots(Arrays.asList("bag"));
+		final Map<String, String> attributes = new HashMap<String, String>();
+		attributes.put("atk", "3");
+		defaultItem.setAttributes(attributes);
+		// later changes of the loader's map do not leak into the definition
+		attributes.put("def", "5");
+
+		final Item first = defaultItem.getItem();
+		final Item second = defaultItem.getItem();
+		assertNotSame(first, second);
+		assertSame(StackableItem.class, first.getClass());
+		assertEquals("test stone", first.getName());
+		assertEquals(3, first.getAttack());
+		assertEquals(3, second.getAttack());
+		assertEquals(0, first.getDefense());
+
+		first.put("atk", 10);
+		assertEquals(3, second.getAttack());
+		assertEquals(3, defaultItem.getItem().getAttack());
+	}
+
+	/**
+	 * Tests that the status attackers are shared by the items.
+	 */
+	@Test
+	public void testStatusAttackers() {
+		final DefaultItem defaultItem = new DefaultItem("sword", "test", "test sword", -1);
+		defaultItem.setImplementation(Item.class);
+		defaultItem.setAttributes(new HashMap<String, String>());
+		defaultItem.setStatusAttacks("ShockStatus,5");
+
+		final Item first = defaultItem.getItem();
+		final Item second = defaultItem.getItem();
+		assertEquals(1, first.getStatusAttackers().size());
+		assertSame(first.getStatusAttackers().get(0), second.getStatusAttackers().get(0));
+	}
+}
@@ -21,6 +21,8 @@ import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
@@ -38,6 +40,7 @@ import games.stendhal.server.entity.item.CaptureTheFlagFlag;
 import games.stendhal.server.entity.item.Container;
 import games.stendhal.server.entity.item.Corpse;
 import games.stendhal.server.entity.item.Item;
+import games.stendhal.server.entity.item.StackableItem;
 import games.stendhal.server.entity.player.Player;
 import games.stendhal.server.entity.slot.PlayerSlot;
 import games.stendhal.server.events.AttackEvent;
@@ -289,6 +292,83 @@ public class RPEntityTest {
 
 	}
 
+	/**
+	 * Tests that the item based values follow the equipped items and the level.
+	 */
+	@Test
+	public void testItemValuesFollowEquipment() {
+		final RPEntity entity = new MockRPEntity();
+		entity.addSlot(new PlayerSlot("lhand"));
+		entity.addSlot(new PlayerSlot("rhand"));
+		entity.addSlot(new PlayerSlot("armor"));
+		entity.setLevel(100);
+
+		assertThat(entity.getItemAtk(), is(0f));
+		assertThat(entity.getItemDef(), is(0f));
+
+		final Item dagger = SingletonRepository.getEntityManager().getItem("dagger");
+		entity.getSlot("rhand").add(dagger);
+		assertThat(entity.getItemAtk(), is((float) dagger.getAttack()));
+
+		final Item armor = SingletonRepository.getEntityManager().getItem("leather armor");
+		entity.getSlot("armor").add(armor);
+		assertThat(entity.getItemDef(), is((float) armor.getDefense()));
+
+		// too low level for the item
+		armor.put("min_level", 50);
+		entity.setLevel(10);
+		assertTrue(entity.getItemDef() < armor.getDefense());
+		entity.setLevel(100);
+		assertThat(entity.getItemDef(), is((float) armor.getDefense()));
+
+		entity.getSlot("rhand").remove(dagger.getID());
+		assertThat(entity.getItemAtk(), is(0f));
+		entity.getSlot("armor").remove(armor.getID());
+		assertThat(entity.getItemDef(), is(0f));
+	}
+
+	/**
+	 * Tests that the item counts follow changes of the slots and stacks.
+	 */
+	@Test
+	public void testNumberOfEquippedFollowsChanges() {
+		final RPEntity entity = new MockRPEntity();
+		entity.addSlot(new PlayerSlot("bag"));
+		entity.addSlot(new PlayerSlot("bank"));
+		// slots that do not report changes are searched
+		entity.addSlot(new RPSlot("lhand"));
+
+		assertEquals(0, entity.getNumberOfEquipped("money"));
+		final StackableItem money = (StackableItem) SingletonRepository.getEntityManager().getItem("money");
+		money.setQuantity(10);
+		entity.getSlot("bag").add(money);
+		assertEquals(10, entity.getNumberOfEquipped("Money"));
+		assertSame(money, entity.getFirstEquipped("money"));
+
+		money.sub(3);
+		assertEquals(7, entity.getNumberOfEquipped("money"));
+		assertTrue(entity.isEquipped("money", 7));
+		assertFalse(entity.isEquipped("money", 8));
+
+		final StackableItem banked = (StackableItem) SingletonRepository.getEntityManager().getItem("money");
+		banked.setQuantity(5);
+		entity.getSlot("bank").add(banked);
+		assertEquals(7, entity.getNumberOfEquipped("money"));
+		assertEquals(12, entity.getTotalNumberOf("money"));
+
+		final Item dagger = SingletonRepository.getEntityManager().getItem("dagger");
+		entity.getSlot("lhand").add(dagger);
+		assertEquals(1, entity.getNumberOfEquipped("dagger"));
+		assertSame(dagger, entity.getFirstEquipped("dagger"));
+		entity.getSlot("lhand").remove(dagger.getID());
+		assertEquals(0, entity.getNumberOfEquipped("dagger"));
+
+		entity.getSlot("bag").remove(money.getID());
+		assertEquals(0, entity.getNumberOfEquipped("money"));
+		assertNull(entity.getFirstEquipped("money"));
+		assertEquals(5, entity.getTotalNumberOf("money"));
+	}
+
 	/**
 	 * Tests for attackCanHitreturnTruedamageZero.
 	 */
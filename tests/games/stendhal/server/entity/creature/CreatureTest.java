@@ -1,6 +1,6 @@
 /* $Id$ */
 /***************************************************************************
- *                   (C) Copyright 2003-2010 - Stendhal                    *
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
  ***************************************************************************
  ***************************************************************************
  *                                                                         *
@@ -67,6 +67,33 @@ public class CreatureTest {
 	}
 
 
+	/**
+	 * Tests for isEnemyNear.
+	 */
+	@Test
+	public void testIsEnemyNear() {
+		final Player player = PlayerTestHelper.createPlayer("bob");
+		player.setPosition(3, 0);
+		final MockCreature creature = new MockCreature();
+		enemies.clear();
+
+		// enemies, but no zone
+		enemies.add(player);
+		assertTrue(creature.isEnemyNear(4));
+		assertFalse(creature.isEnemyNear(2));
+
+		// no enemies, the players of the zone are checked
+		enemies.clear();
+		final StendhalRPZone zone = new StendhalRPZone("test", 20, 20);
+		zone.add(creature);
+		assertFalse(creature.isEnemyNear(4));
+		zone.add(player);
+		assertTrue(creature.isEnemyNear(4));
+		assertFalse(creature.isEnemyNear(2));
+		player.setPosition(15, 15);
+		assertFalse(creature.isEnemyNear(4));
+	}
+
 	private static List<RPEntity> enemies  = new LinkedList<RPEntity>();
 	private static class MockCreature extends Creature {
 
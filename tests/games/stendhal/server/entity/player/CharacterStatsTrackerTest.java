@@ -0,0 +1,76 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.entity.player;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import games.stendhal.server.maps.MockStendlRPWorld;
+import utilities.PlayerTestHelper;
+
+/**
+ * Tests for CharacterStatsTracker.
+ */
+public class CharacterStatsTrackerTest {
+
+	@BeforeClass
+	public static void setUpBeforeClass() {
+		MockStendlRPWorld.get();
+		PlayerTestHelper.generatePlayerRPClasses();
+	}
+
+	/**
+	 * Tests finding the changed values.
+	 */
+	@Test
+	public void testGetChanges() {
+		final CharacterStatsTracker tracker = new CharacterStatsTracker();
+		final Map<String, Object> values = new HashMap<String, Object>();
+		values.put("level", 5);
+		values.put("zone", "0_semos_city");
+		values.put("married", null);
+		assertNull(tracker.getChanges(values));
+
+		tracker.stored(values);
+		assertTrue(tracker.getChanges(values).isEmpty());
+
+		values.put("level", 6);
+		final Map<String, Object> changes = tracker.getChanges(values);
+		assertEquals(1, changes.size());
+		assertEquals(6, changes.get("level"));
+
+		tracker.stored(changes);
+		assertTrue(tracker.getChanges(values).isEmpty());
+
+		tracker.reset();
+		assertNull(tracker.getChanges(values));
+	}
+
+	/**
+	 * Tests that the copies of a player stored by the database thread share
+	 * the tracker of the player.
+	 */
+	@Test
+	public void testSharedByClone() {
+		final Player player = PlayerTestHelper.createPlayer("bob");
+		final Player copy = (Player) player.clone();
+		assertSame(player.getCharacterStatsTracker(), copy.getCharacterStatsTracker());
+	}
+}
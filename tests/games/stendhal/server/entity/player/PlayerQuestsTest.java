@@ -0,0 +1,73 @@
+/***************************************************************************
+ *                   (C) Copyright 2003-2026 - Stendhal                    *
+ ***************************************************************************
+ ***************************************************************************
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *                                                                         *
+ ***************************************************************************/
+package games.stendhal.server.entity.player;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import games.stendhal.server.maps.MockStendlRPWorld;
+import utilities.PlayerTestHelper;
+
+/**
+ * Tests for the quest sub states of players.
+ */
+public class PlayerQuestsTest {
+
+	@BeforeClass
+	public static void setUpBeforeClass() {
+		MockStendlRPWorld.get();
+	}
+
+	@AfterClass
+	public static void tearDownAfterClass() {
+		MockStendlRPWorld.reset();
+	}
+
+	/**
+	 * Tests reading and writing sub states.
+	 */
+	@Test
+	public void testSubStates() {
+		final Player player = PlayerTestHelper.createPlayer("bob");
+		assertNull(player.getQuest("test_quest", 1));
+
+		player.setQuest("test_quest", "start;apple=3;");
+		assertEquals("start", player.getQuest("test_quest", 0));
+		assertEquals("apple=3", player.getQuest("test_quest", 1));
+		assertEquals("", player.getQuest("test_quest", 2));
+		assertEquals("apple", player.getRequiredItemName("test_quest", 1));
+		assertEquals(3, player.getRequiredItemQuantity("test_quest", 1));
+		assertTrue(player.isQuestInState("test_quest", 0, "start"));
+
+		player.setQuest("test_quest", 3, "pear=2");
+		assertEquals("start;apple=3;;pear=2", player.getQuest("test_quest"));
+		assertEquals("pear", player.getRequiredItemName("test_quest", 3));
+		assertEquals(2, player.getRequiredItemQuantity("test_quest", 3));
+
+		player.setQuest("test_quest", 0, "done");
+		assertEquals("done", player.getQuest("test_quest", 0));
+		assertEquals("apple=3", player.getQuest("test_quest", 1));
+
+		// changes that bypass the quest methods are noticed, too
+		player.setKeyedSlot("!quests", "test_quest", "rejected;5");
+		assertEquals("rejected", player.getQuest("test_quest", 0));
+		assertEquals(5, player.getNumberOfRepetitions("test_quest", 1));
+
+		player.removeQuest("test_quest");
+		assertNull(player.getQuest("test_quest", 0));
+	}
+}